@@ -0,0 +1,77 @@
+package com.blockchain.benchmark;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import com.blockchain.cryptocurrency.block.CurrencyBlockChain;
+import com.blockchain.cryptocurrency.block.CurrencyBlockChainConfig;
+import com.blockchain.cryptocurrency.transaction.TransactionOutput;
+import com.blockchain.cryptocurrency.utxo.UTXOService;
+import com.blockchain.cryptocurrency.wallet.Wallet;
+import com.blockchain.cryptocurrency.wallet.WalletService;
+
+/**
+ * {@link CurrencyBlockChain#queryBalance(Wallet)} of one Wallet among {@value #OWNERS} owning the whole UTXO set
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class BalanceBenchmark {
+
+	private static final int OWNERS = 100;
+
+	@Param({"1000", "100000", "1000000"})
+	private int utxos;
+
+	private AnnotationConfigApplicationContext context;
+	private CurrencyBlockChain                 currencyBlockChain;
+	private Wallet                             wallet;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		context            = new AnnotationConfigApplicationContext(CurrencyBlockChainConfig.class);
+		currencyBlockChain = context.getBean(CurrencyBlockChain.class);
+		currencyBlockChain.bigBan();
+
+		WalletService walletService = context.getBean(WalletService.class);
+		UTXOService   utxoService   = context.getBean(UTXOService.class);
+		Wallet[]      owners        = new Wallet[OWNERS];
+		for (int i = 0; i < OWNERS; i++) {
+			owners[i] = walletService.createGenesisWallet();
+		}
+		for (int i = 0; i < utxos; i++) {
+			utxoService.addTransaction(new TransactionOutput(owners[i % OWNERS], BigDecimal.ONE, DigestUtils.sha256Hex("transaction " + i)));
+		}
+		wallet = owners[0];
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	public BigDecimal queryBalance() {
+		return currencyBlockChain.queryBalance(wallet);
+	}
+
+}
@@ -0,0 +1,53 @@
+package com.blockchain.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+
+import org.openjdk.jmh.Main;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Main class of the <code>benchmarks.jar</code>, it accepts the same options of the JMH command line
+ * but, unless told otherwise, writes the results as JSON to <code>jmh-result-&lt;version&gt;.json</code>,
+ * so the files of two releases can be compared to catch regressions.
+ *
+ * <pre>
+ *   java -jar blockchain-benchmark/target/benchmarks.jar                       (all of them)
+ *   java -jar blockchain-benchmark/target/benchmarks.jar MerkleRootBenchmark   (only the ones matching the regexp)
+ *   java -jar blockchain-benchmark/target/benchmarks.jar -p leaves=1000        (overriding a parameter)
+ * </pre>
+ */
+public class BenchmarkRunner {
+
+	public static void main(String[] args) throws Exception {
+		CommandLineOptions commandLine = new CommandLineOptions(args);
+		if ( commandLine.shouldHelp() || commandLine.shouldList() || commandLine.shouldListWithParams()
+		  || commandLine.shouldListProfilers() || commandLine.shouldListResultFormats() ) {
+			Main.main(args);
+			return;
+		}
+
+		ChainedOptionsBuilder options = new OptionsBuilder().parent(commandLine);
+		if ( !commandLine.getResultFormat().hasValue() ) {
+			options.resultFormat(ResultFormatType.JSON);
+		}
+		if ( !commandLine.getResult().hasValue() ) {
+			options.result("jmh-result-" + version() + ".json");
+		}
+		new Runner(options.build()).run();
+	}
+
+	private static String version() throws IOException {
+		Properties properties = new Properties();
+		try (InputStream input = BenchmarkRunner.class.getResourceAsStream("/benchmark.properties")) {
+			properties.load(input);
+		}
+		return properties.getProperty("version");
+	}
+
+}
@@ -0,0 +1,88 @@
+package com.blockchain.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import com.blockchain.cryptocurrency.block.CurrencyBlock;
+import com.blockchain.cryptocurrency.block.CurrencyBlockChain;
+import com.blockchain.cryptocurrency.block.CurrencyBlockChainConfig;
+import com.blockchain.cryptocurrency.block.validator.ChainValidationReport;
+import com.blockchain.cryptocurrency.block.validator.ChainValidator;
+import com.blockchain.cryptocurrency.wallet.Wallet;
+import com.blockchain.cryptocurrency.wallet.WalletService;
+
+/**
+ * The whole chain audited by the {@link ChainValidator}, {@value #TRANSACTIONS} Transactions per Block (all of their signatures verified again),
+ * and audited again from its checkpoint, with no new Block (what is left: the checkpoint verified and the digest of the UTXOs)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ChainValidatorBenchmark {
+
+	private static final int TRANSACTIONS = 10;
+
+	@Param({"100", "1000"})
+	private int blocks;
+
+	private AnnotationConfigApplicationContext context;
+	private ChainValidator                     chainValidator;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		// An audit does not trust the signatures verified before
+		System.setProperty("blockchain.signatureCache.size", "0");
+		context        = new AnnotationConfigApplicationContext(CurrencyBlockChainConfig.class);
+		chainValidator = context.getBean(ChainValidator.class);
+
+		CurrencyBlockChain currencyBlockChain = context.getBean(CurrencyBlockChain.class);
+		Wallet             genesis            = currencyBlockChain.bigBan();
+		Wallet             other              = context.getBean(WalletService.class).createGenesisWallet();
+		for (int b = 0; b < blocks; b++) {
+			CurrencyBlock block = new CurrencyBlock();
+			for (int t = 0; t < TRANSACTIONS; t++) {
+				block.addTransaction(b % 2 == 0 ? genesis.sendMoney(other, 5f) : other.sendMoney(genesis, 5f));
+			}
+			currencyBlockChain.addBlock(block);
+		}
+		ChainValidationReport report = chainValidator.validate();
+		if ( !report.isValid() ) {
+			throw new RuntimeException("The BlockChain built is not valid: " + report);
+		}
+		System.out.println();
+		System.out.println(report);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	public ChainValidationReport validateFull() {
+		return chainValidator.validateFull();
+	}
+
+	@Benchmark
+	public ChainValidationReport validateFromCheckpoint() {
+		return chainValidator.validate();
+	}
+
+}
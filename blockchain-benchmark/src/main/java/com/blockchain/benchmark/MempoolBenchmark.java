@@ -0,0 +1,97 @@
+package com.blockchain.benchmark;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import com.blockchain.cryptocurrency.block.CurrencyBlock;
+import com.blockchain.cryptocurrency.block.CurrencyBlockChain;
+import com.blockchain.cryptocurrency.block.CurrencyBlockChainConfig;
+import com.blockchain.cryptocurrency.mempool.Mempool;
+import com.blockchain.cryptocurrency.mempool.Mempool.Admission;
+import com.blockchain.cryptocurrency.transaction.Transaction;
+import com.blockchain.cryptocurrency.transaction.TransactionInput;
+import com.blockchain.cryptocurrency.transaction.TransactionOutput;
+import com.blockchain.cryptocurrency.transaction.TransactionService;
+import com.blockchain.cryptocurrency.utxo.UTXOService;
+import com.blockchain.cryptocurrency.wallet.Wallet;
+import com.blockchain.cryptocurrency.wallet.WalletService;
+
+/**
+ * The admission of a verified Transaction (its signature already in the SignatureCache) to a {@link Mempool} with as many pending ones,
+ * and a Block template of {@value #BLOCK_BYTES} bytes assembled from them
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class MempoolBenchmark {
+
+	private static final int BLOCK_BYTES = 1024 * 1024;
+
+	@Param({"10000", "40000"})
+	private int pending;
+
+	private AnnotationConfigApplicationContext context;
+	private Mempool                            mempool;
+	private Transaction                        transaction;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		context = new AnnotationConfigApplicationContext(CurrencyBlockChainConfig.class);
+		mempool = context.getBean(Mempool.class);
+		context.getBean(CurrencyBlockChain.class).bigBan();
+
+		WalletService      walletService      = context.getBean(WalletService.class);
+		UTXOService        utxoService        = context.getBean(UTXOService.class);
+		TransactionService transactionService = context.getBean(TransactionService.class);
+		Wallet             sender             = walletService.createGenesisWallet();
+		Wallet             recipient          = walletService.createGenesisWallet();
+		for (int i = 0; i <= pending; i++) {
+			TransactionOutput output = new TransactionOutput(sender, BigDecimal.valueOf(100), DigestUtils.sha256Hex("transaction " + i));
+			utxoService.addTransaction(output);
+			transaction = transactionService.createTransaction(sender, recipient, 1 + i % 90, Arrays.asList(new TransactionInput(output.getHash())));
+			if ( i < pending && mempool.admit(transaction) != Admission.ACCEPTED ) {
+				throw new RuntimeException("Not admitted: " + transaction.getHash());
+			}
+		}
+		// The last one is the one admitted and removed again, its signature is verified now only once
+		mempool.admit(transaction);
+		mempool.remove(transaction.getHash());
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	public boolean admit() {
+		mempool.admit(transaction);
+		return mempool.remove(transaction.getHash());
+	}
+
+	@Benchmark
+	public CurrencyBlock buildBlockTemplate() {
+		return mempool.buildBlockTemplate(BLOCK_BYTES);
+	}
+
+}
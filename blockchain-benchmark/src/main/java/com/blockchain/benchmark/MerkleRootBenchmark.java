@@ -0,0 +1,52 @@
+package com.blockchain.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.blockchain.utils.MerkleRoot;
+
+/**
+ * {@link MerkleRoot#calculate(List)} over transaction hashes (hex SHA-256), odd sizes included
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class MerkleRootBenchmark {
+
+	@Param({"1", "10", "1001", "100000", "1000000"})
+	private int leaves;
+
+	private List<String> hashs;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		hashs = new ArrayList<String>(leaves);
+		for (int i = 0; i < leaves; i++) {
+			hashs.add(DigestUtils.sha256Hex("transaction " + i));
+		}
+	}
+
+	@Benchmark
+	public String calculate() {
+		return MerkleRoot.calculate(hashs);
+	}
+
+}
@@ -0,0 +1,69 @@
+package com.blockchain.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.blockchain.AbstractBlock;
+import com.blockchain.mining.Miner;
+import com.blockchain.mining.MiningStrategy.Strategy;
+import com.blockchain.mining.ParallelMiner;
+import com.blockchain.mining.SequentialMiner;
+
+/**
+ * {@link AbstractBlock#calculateHashBlock(String, int, Miner)}, a new Block (a new timestamp) is mined on each invocation
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MiningBenchmark {
+
+	@Param({"1", "2", "3", "4", "5"})
+	private int difficulty;
+
+	@Param({"SEQUENTIAL", "PARALLEL"})
+	private Strategy strategy;
+
+	private Miner miner;
+	private long  timeStamp = 1520000000000L;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		miner = strategy == Strategy.PARALLEL ? new ParallelMiner() : new SequentialMiner();
+	}
+
+	@Benchmark
+	public String calculateHashBlock() {
+		BenchmarkBlock block = new BenchmarkBlock(timeStamp++);
+		block.mine("1000.0", difficulty, miner);
+		return block.getHash();
+	}
+
+	private static class BenchmarkBlock extends AbstractBlock {
+
+		BenchmarkBlock(long timeStamp) {
+			this.setTimeStamp(timeStamp);
+			this.setPreviousBlock("0035a8f1b5ac70f2d36e8d1a2a36fa7bdd2e7ff8b0ae4e04e2a3cd1cb5e1c2b7");
+		}
+
+		void mine(String data, int difficulty, Miner miner) {
+			this.calculateHashBlock(data, difficulty, miner);
+		}
+
+	}
+
+}
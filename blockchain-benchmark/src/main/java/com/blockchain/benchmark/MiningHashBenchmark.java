@@ -0,0 +1,85 @@
+package com.blockchain.benchmark;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.lang.StringUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.blockchain.mining.MiningKernel;
+import com.blockchain.utils.Digests;
+import com.blockchain.utils.HexEncoder;
+
+/**
+ * The cost of one attempt of the nonce search: the String path used before (<code>DigestUtils.sha256Hex</code>),
+ * a byte path hashing the whole header again for each nonce, and the {@link MiningKernel} reusing the header's midstate
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MiningHashBenchmark {
+
+	/** Length of the block's data, the header also has the timestamp and the previous hash (77 bytes) */
+	@Param({"6", "64", "512"})
+	private int dataLength;
+
+	private String       header;
+	private String       validHash;
+	private byte[]       headerBytes;
+	private byte[]       input;
+	private byte[]       hash;
+	private MessageDigest digest;
+	private MiningKernel kernel;
+	private int          nonce;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		header      = StringUtils.repeat("9", dataLength) + 1520000000000L + DigestUtils.sha256Hex("previous block");
+		validHash   = "000";
+		headerBytes = header.getBytes(StandardCharsets.UTF_8);
+		input       = new byte[headerBytes.length + 10];
+		hash        = new byte[Digests.SHA256_LENGTH];
+		digest      = Digests.newSha256();
+		kernel      = new MiningKernel(header, validHash.length());
+		System.arraycopy(headerBytes, 0, input, 0, headerBytes.length);
+	}
+
+	@Benchmark
+	public boolean stringSha256Hex() {
+		return DigestUtils.sha256Hex(header + (nonce++ & Integer.MAX_VALUE)).startsWith(validHash);
+	}
+
+	@Benchmark
+	public boolean fullHeaderDigest() {
+		String digits = Integer.toString(nonce++ & Integer.MAX_VALUE);
+		int    length = headerBytes.length + digits.length();
+		for (int i = 0; i < digits.length(); i++) {
+			input[headerBytes.length + i] = (byte) digits.charAt(i);
+		}
+		digest.update(input, 0, length);
+		Digests.digest(digest, hash, 0);
+		return HexEncoder.hasLeadingZeroNibbles(hash, validHash.length());
+	}
+
+	@Benchmark
+	public boolean midstateKernel() {
+		return kernel.tryNonce(nonce++ & Integer.MAX_VALUE);
+	}
+
+}
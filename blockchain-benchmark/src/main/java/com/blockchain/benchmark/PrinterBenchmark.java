@@ -0,0 +1,106 @@
+package com.blockchain.benchmark;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import com.blockchain.cryptocurrency.block.CurrencyBlock;
+import com.blockchain.cryptocurrency.block.CurrencyBlockChain;
+import com.blockchain.cryptocurrency.block.CurrencyBlockChainConfig;
+import com.blockchain.cryptocurrency.block.printer.format.CurrencyBlockPrinterTemplate;
+import com.blockchain.cryptocurrency.wallet.Wallet;
+import com.blockchain.cryptocurrency.wallet.WalletService;
+
+/**
+ * The report of a chain of {@value #BLOCKS} Blocks of {@value #TRANSACTIONS} Transactions formatted by the default template,
+ * on <code>threads</code> workers, to a writer that only counts the chars (the time is the one of the formatting)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class PrinterBenchmark {
+
+	private static final int BLOCKS       = 500;
+	private static final int TRANSACTIONS = 10;
+
+	@Param({"1", "4"})
+	private int threads;
+
+	private AnnotationConfigApplicationContext context;
+	private CurrencyBlockPrinterTemplate       template;
+	private List<CurrencyBlock>                chain;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		System.setProperty("blockchain.workers.threads", String.valueOf(threads));
+		context  = new AnnotationConfigApplicationContext(CurrencyBlockChainConfig.class);
+		template = context.getBean(CurrencyBlockPrinterTemplate.class);
+
+		CurrencyBlockChain currencyBlockChain = context.getBean(CurrencyBlockChain.class);
+		Wallet             genesis            = currencyBlockChain.bigBan();
+		Wallet             other              = context.getBean(WalletService.class).createGenesisWallet();
+		for (int b = 0; b < BLOCKS; b++) {
+			CurrencyBlock block = new CurrencyBlock();
+			for (int t = 0; t < TRANSACTIONS; t++) {
+				block.addTransaction(b % 2 == 0 ? genesis.sendMoney(other, 5f) : other.sendMoney(genesis, 5f));
+			}
+			currencyBlockChain.addBlock(block);
+		}
+		chain = currencyBlockChain.listBlockChain();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	public long applyLayout() throws IOException {
+		CountingWriter writer = new CountingWriter();
+		template.applyLayout(chain.iterator(), chain.size(), writer);
+		return writer.chars;
+	}
+
+	private static class CountingWriter extends Writer {
+
+		private long chars;
+
+		@Override
+		public void write(char[] buffer, int offset, int length) {
+			chars += length;
+		}
+
+		@Override
+		public void write(String text) {
+			chars += text.length();
+		}
+
+		@Override
+		public void flush() {
+		}
+
+		@Override
+		public void close() {
+		}
+	}
+
+}
@@ -0,0 +1,97 @@
+package com.blockchain.benchmark;
+
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.blockchain.security.Security;
+import com.blockchain.security.SecurityECDSA;
+
+/**
+ * {@link SecurityECDSA#sign} and {@link SecurityECDSA#verifySignature} of a Transaction's payload, with the engines reused by each thread,
+ * against the same operations looking up a new engine in the provider each time (the <code>...NewEngine</code> ones, as it was done before)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SignatureBenchmark {
+
+	/** Two Base64 public keys and a value, like the payload signed by a Transaction, or a bigger one */
+	@Param({"200", "2000"})
+	private int payloadLength;
+
+	private Security security;
+	private KeyPair  keyPair;
+	private String   payload;
+	private byte[]   signature;
+	private byte[]   encodedPublicKey;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		security  = new SecurityECDSA();
+		keyPair   = security.generateKeyPairs();
+		StringBuilder data = new StringBuilder();
+		while ( data.length() < payloadLength ) {
+			data.append(Security.encodeBase64(keyPair.getPublic()));
+		}
+		payload   = data.substring(0, payloadLength);
+		signature = security.sign(keyPair.getPrivate(), payload);
+		encodedPublicKey = keyPair.getPublic().getEncoded();
+	}
+
+	@Benchmark
+	public byte[] sign() {
+		return security.sign(keyPair.getPrivate(), payload);
+	}
+
+	@Benchmark
+	public boolean verifySignature() {
+		return security.verifySignature(keyPair.getPublic(), payload, signature);
+	}
+
+	@Benchmark
+	public PublicKey decodePublicKey() {
+		return security.decodePublicKey(encodedPublicKey);
+	}
+
+	@Benchmark
+	public byte[] signNewEngine() throws Exception {
+		Signature dsa = Signature.getInstance("ECDSA", "BC");
+		dsa.initSign(keyPair.getPrivate());
+		dsa.update(payload.getBytes());
+		return dsa.sign();
+	}
+
+	@Benchmark
+	public boolean verifySignatureNewEngine() throws Exception {
+		Signature ecdsaVerify = Signature.getInstance("ECDSA", "BC");
+		ecdsaVerify.initVerify(keyPair.getPublic());
+		ecdsaVerify.update(payload.getBytes());
+		return ecdsaVerify.verify(signature);
+	}
+
+	@Benchmark
+	public PublicKey decodePublicKeyNewEngine() throws Exception {
+		return KeyFactory.getInstance("ECDSA", "BC").generatePublic(new X509EncodedKeySpec(encodedPublicKey));
+	}
+
+}
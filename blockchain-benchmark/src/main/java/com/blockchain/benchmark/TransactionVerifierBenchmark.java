@@ -0,0 +1,82 @@
+package com.blockchain.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import com.blockchain.cryptocurrency.block.CurrencyBlockChain;
+import com.blockchain.cryptocurrency.block.CurrencyBlockChainConfig;
+import com.blockchain.cryptocurrency.transaction.Transaction;
+import com.blockchain.cryptocurrency.transaction.TransactionService;
+import com.blockchain.cryptocurrency.transaction.TransactionVerifier;
+import com.blockchain.cryptocurrency.wallet.Wallet;
+import com.blockchain.cryptocurrency.wallet.WalletService;
+
+/**
+ * The signatures of a Block of Transactions verified one after another (as {@link Transaction#processTransaction()} does) or as a batch by the {@link TransactionVerifier}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransactionVerifierBenchmark {
+
+	@Param({"100", "5000"})
+	private int transactions;
+
+	private AnnotationConfigApplicationContext context;
+	private TransactionVerifier                transactionVerifier;
+	private List<Transaction>                  block;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		// The same signatures are verified at every call, they must not be served by the SignatureCache
+		System.setProperty("blockchain.signatureCache.size", "0");
+		context             = new AnnotationConfigApplicationContext(CurrencyBlockChainConfig.class);
+		transactionVerifier = context.getBean(TransactionVerifier.class);
+		Wallet             sender             = context.getBean(CurrencyBlockChain.class).bigBan();
+		Wallet             recipient          = context.getBean(WalletService.class).createGenesisWallet();
+		TransactionService transactionService = context.getBean(TransactionService.class);
+		block = new ArrayList<Transaction>(transactions);
+		for (int i = 0; i < transactions; i++) {
+			block.add(transactionService.createTransaction(sender, recipient, 10f, new ArrayList<>()));
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	public boolean sequential() {
+		boolean verified = true;
+		for (Transaction transaction : block) {
+			verified &= transaction.verifySignature();
+		}
+		return verified;
+	}
+
+	@Benchmark
+	public boolean[] batch() {
+		return transactionVerifier.verify(block);
+	}
+
+}
@@ -0,0 +1,112 @@
+package com.blockchain.benchmark;
+
+import java.math.BigDecimal;
+import java.security.KeyPairGenerator;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.blockchain.cryptocurrency.transaction.TransactionOutput;
+import com.blockchain.cryptocurrency.utxo.CompactUTXOTable;
+import com.blockchain.cryptocurrency.wallet.Wallet;
+
+/**
+ * The UTXO set as objects (a map of {@link TransactionOutput}, as in the UTXOService) against the {@link CompactUTXOTable}:
+ * the heap retained per UTXO by each one is printed at the setup, the benchmarks are the lookup of an output's value.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class UTXOTableBenchmark {
+
+	private static final int OWNERS = 100;
+
+	@Param({"100000", "1000000"})
+	private int utxos;
+
+	private Map<String,TransactionOutput> objectModel;
+	private CompactUTXOTable              compactTable;
+	private String[]                      hashs;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		Wallet[] owners = new Wallet[OWNERS];
+		for (int i = 0; i < OWNERS; i++) {
+			owners[i] = wallet("owner " + i);
+		}
+		objectModel = retained("Object model", () -> {
+			Map<String,TransactionOutput> map = new ConcurrentHashMap<String,TransactionOutput>();
+			for (int i = 0; i < utxos; i++) {
+				TransactionOutput output = new TransactionOutput(owners[i % OWNERS], new BigDecimal("12.5"), DigestUtils.sha256Hex("transaction " + i));
+				map.put(output.getHash(), output);
+			}
+			return map;
+		});
+		compactTable = retained("Compact table", () -> {
+			CompactUTXOTable table = new CompactUTXOTable();
+			for (int i = 0; i < utxos; i++) {
+				table.add(new TransactionOutput(owners[i % OWNERS], new BigDecimal("12.5"), DigestUtils.sha256Hex("transaction " + i)));
+			}
+			return table;
+		});
+		hashs = objectModel.keySet().toArray(new String[utxos]);
+	}
+
+	@Benchmark
+	public BigDecimal objectModelLookup() {
+		return objectModel.get(hashs[ThreadLocalRandom.current().nextInt(utxos)]).getValue();
+	}
+
+	@Benchmark
+	public BigDecimal compactTableLookup() {
+		return compactTable.getValue(hashs[ThreadLocalRandom.current().nextInt(utxos)]);
+	}
+
+	/**
+	 * Build the structure and print the heap it keeps (the used heap after a GC, before and after), per UTXO
+	 */
+	private <T> T retained(String name, Supplier<T> builder) {
+		long before    = usedHeap();
+		T    structure = builder.get();
+		long after     = usedHeap();
+		System.out.printf("%n%s: %,d UTXOs, ~%,d bytes each%n", name, utxos, (after - before) / utxos);
+		return structure;
+	}
+
+	private static long usedHeap() {
+		Runtime runtime = Runtime.getRuntime();
+		for (int i = 0; i < 3; i++) {
+			System.gc();
+		}
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+	private static Wallet wallet(String owner) {
+		try {
+			return new Wallet(null, null, owner, KeyPairGenerator.getInstance("EC").generateKeyPair().getPublic());
+		} catch (NoSuchAlgorithmException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+}
@@ -0,0 +1,61 @@
+package com.blockchain.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import com.blockchain.cryptocurrency.block.CurrencyBlockChain;
+import com.blockchain.cryptocurrency.block.CurrencyBlockChainConfig;
+import com.blockchain.cryptocurrency.transaction.Transaction;
+import com.blockchain.cryptocurrency.wallet.Wallet;
+import com.blockchain.cryptocurrency.wallet.WalletService;
+
+/**
+ * {@link Wallet#sendMoney(Wallet, float)} end to end: balance check, coins selection, hash, signature, its verification and the UTXOs update.
+ * Two Wallets send the same amount back and forth, so their funds never run out.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WalletBenchmark {
+
+	private AnnotationConfigApplicationContext context;
+	private Wallet                             alice;
+	private Wallet                             bob;
+	private boolean                            aliceTurn;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		context = new AnnotationConfigApplicationContext(CurrencyBlockChainConfig.class);
+		alice   = context.getBean(CurrencyBlockChain.class).bigBan();
+		bob     = context.getBean(WalletService.class).createGenesisWallet();
+		alice.sendMoney(bob, 500f);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	public Transaction sendMoney() {
+		aliceTurn = !aliceTurn;
+		return aliceTurn ? alice.sendMoney(bob, 10f) : bob.sendMoney(alice, 10f);
+	}
+
+}
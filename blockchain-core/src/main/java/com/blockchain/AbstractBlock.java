@@ -1,11 +1,15 @@
 package com.blockchain;
 
-import java.util.ArrayList;
 import java.util.List;
 
 import org.apache.commons.lang.StringUtils;
 
+import com.blockchain.mining.Miner;
+import com.blockchain.mining.MiningResult;
+import com.blockchain.mining.SequentialMiner;
 import com.blockchain.security.Security;
+import com.blockchain.utils.MerkleRoot;
+import com.blockchain.utils.MerkleTree;
 
 import lombok.AccessLevel;
 import lombok.Getter;
@@ -18,6 +22,8 @@ import lombok.Setter;
  */
 public abstract class AbstractBlock {
 	
+	private static final Miner DEFAULT_MINER = new SequentialMiner();
+	
 	@Getter @Setter(AccessLevel.PUBLIC)    private Integer height;
 	@Getter @Setter(AccessLevel.PROTECTED) private String  hash;
 	@Getter @Setter(AccessLevel.PUBLIC)    private String  previousBlock;
@@ -34,23 +40,34 @@ public abstract class AbstractBlock {
 	}
 	
 	protected void calculateHashBlock(String data, int difficulty) {
+		this.calculateHashBlock(data, difficulty, DEFAULT_MINER);
+	}
+	
+	protected void calculateHashBlock(String data, int difficulty, Miner miner) {
 		if ( this.getHash() != null ) {
 			throw new RuntimeException("The Hash of this Block were already calculated");
 		}
 		
-		int    _nonce           = -1;
-		String calculatedhash   = "";
-		
-		while ( !isHashValid(calculatedhash, difficulty) ) {
-			calculatedhash = Security.applySHA256(
-					  data
-					+ Long.toString(this.getTimeStamp())  
-					+ this.getPreviousBlock() // connecting the blocks in the chain (the hash of this one is created using the hash of the previous one)
-					+ (_nonce+=1)
-			);
+		MiningResult result = miner.mine(header(data), difficulty);
+		this.setNonce(result.getNonce());
+		this.setHash( result.getHash() );
+	}
+	
+	/**
+	 * Check the Hash of this Block: the one mined from its data and nonce (hashed again, no mining), with the zeros of the difficulty (its proof of work)
+	 */
+	protected boolean verifyHashBlock(String data, int difficulty) {
+		if ( this.getHash() == null || this.getNonce() == null ) {
+			return false;
 		}
-		this.setNonce(_nonce);
-		this.setHash( calculatedhash );
+		String calculatedHash = Security.applySHA256(header(data) + this.getNonce());
+		return calculatedHash.equals(this.getHash()) && isHashValid(calculatedHash, difficulty);
+	}
+	
+	private String header(String data) {
+		return data
+			+ Long.toString(this.getTimeStamp())  
+			+ this.getPreviousBlock(); // connecting the blocks in the chain (the hash of this one is created using the hash of the previous one)
 	}
 	
 	/**
@@ -63,49 +80,18 @@ public abstract class AbstractBlock {
 			throw new RuntimeException("The Merkle Root of this Block were already calculated");
 		}
 		
-		String merkleRoot = null;
-		
-		if (hashs.size() == 1) {
-			// Only one register, then there is nothing more to do, the only register's hash is also the Merkle Root
-			merkleRoot =  Security.applySHA256( hashs.get(0) );
-		} else {
-			while ( hashs.size() > 1 ) {
-				hashs = calculateLeavesHash(hashs);
-			}
-			merkleRoot = hashs.get(0);
-		}
-		this.setMerkleRoot(merkleRoot);
+		this.setMerkleRoot( MerkleRoot.calculate(hashs) );
 	}
 	
-	
-
-	private List<String> calculateLeavesHash(List<String> hashs) {
-		List<String> leavesHash = new ArrayList<String>();
-		
-		int index = 0;
-		while ( true ) {
-			
-			String hash1 = hashs.get(index);
-			
-			index++;
-			if ( index < hashs.size() ) {
-				// Calculate the hash of the Pair
-				String hash2    = hashs.get(index);
-				String hashLeaf = Security.applySHA256( hash1 + hash2 );
-				leavesHash.add(hashLeaf);
-			} else
-			if ( index == hashs.size() ) {
-				// The last one, without a pair, the total List is odd
-				// As the Merkle Tree is a binary tree, we duplicate the last register to calculate the leaf
-				String hashLeaf = Security.applySHA256( hash1 + hash1 );
-				leavesHash.add(hashLeaf);
-			}
-			
-			index++;
-			if ( index >= hashs.size() ) break;
+	/**
+	 * The Block's Merkle Root taken from the Merkle Tree it keeps (built while its registers were added)
+	 */
+	protected void calculateMerkleRoot(MerkleTree merkleTree) {
+		if ( this.getMerkleRoot() != null ) {
+			throw new RuntimeException("The Merkle Root of this Block were already calculated");
 		}
 		
-		return leavesHash;
+		this.setMerkleRoot( merkleTree.getRoot() );
 	}
 
 }
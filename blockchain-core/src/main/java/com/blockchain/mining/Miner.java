@@ -0,0 +1,14 @@
+package com.blockchain.mining;
+
+/**
+ * The Proof-of-Work of a Block: search for the nonce that, appended to the Block's header,
+ * produces a hash starting with <code>difficulty</code> zeros.
+ *
+ * All the implementations must return the lowest valid nonce, so the same header always gives the same Block's hash,
+ * whatever the strategy used to mine it.
+ */
+public interface Miner {
+
+	public MiningResult mine(String header, int difficulty);
+
+}
@@ -0,0 +1,64 @@
+package com.blockchain.mining;
+
+import java.nio.charset.StandardCharsets;
+
+import com.blockchain.utils.Digests;
+import com.blockchain.utils.HexEncoder;
+import com.blockchain.utils.Sha256Midstate;
+
+/**
+ * The inner loop of the nonce search, working only with bytes.
+ *
+ * The header is encoded and compressed once (its SHA-256 midstate), only the digits of each nonce are hashed after it,
+ * and the difficulty is checked over the raw digest (leading zero nibbles), so trying a nonce does not allocate anything.
+ * The hash of <code>header + nonce</code> is exactly the same of {@link com.blockchain.security.Security#applySHA256(String)}.
+ *
+ * A kernel is not thread safe, each worker must create its own.
+ */
+public class MiningKernel {
+
+	private static final int MAX_NONCE_DIGITS = 10;
+
+	private final Sha256Midstate midstate;
+	private final int            difficulty;
+	private final byte[]         nonceDigits = new byte[MAX_NONCE_DIGITS];
+	private final byte[]         hash        = new byte[Digests.SHA256_LENGTH];
+
+	public MiningKernel(String header, int difficulty) {
+		this.midstate   = new Sha256Midstate(header.getBytes(StandardCharsets.UTF_8));
+		this.difficulty = difficulty;
+	}
+
+	/**
+	 * Hash the header with this nonce, is it a valid one?
+	 */
+	public boolean tryNonce(int nonce) {
+		int length = writeNonce(nonce);
+		midstate.digest(nonceDigits, 0, length, hash, 0);
+		return HexEncoder.hasLeadingZeroNibbles(hash, difficulty);
+	}
+
+	/**
+	 * The hex hash of the last nonce tried
+	 */
+	public String getHash() {
+		return HexEncoder.toHexString(hash);
+	}
+
+	private int writeNonce(int nonce) {
+		if ( nonce < 0 ) {
+			throw new IllegalArgumentException("The nonce cannot be negative");
+		}
+		int digits = 1;
+		for (int limit = 10; digits < MAX_NONCE_DIGITS && nonce >= limit; limit *= 10) {
+			digits++;
+		}
+		int position = digits;
+		do {
+			nonceDigits[--position] = (byte) ('0' + nonce % 10);
+			nonce /= 10;
+		} while ( nonce != 0 );
+		return digits;
+	}
+
+}
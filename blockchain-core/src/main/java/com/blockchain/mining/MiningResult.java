@@ -0,0 +1,20 @@
+package com.blockchain.mining;
+
+import lombok.Getter;
+
+public class MiningResult {
+
+	@Getter private final int    nonce;
+	@Getter private final String hash;
+
+	public MiningResult(int nonce, String hash) {
+		this.nonce = nonce;
+		this.hash  = hash;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("MiningResult [nonce=%s, hash=%s]", nonce, hash);
+	}
+
+}
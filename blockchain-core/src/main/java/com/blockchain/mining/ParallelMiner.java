@@ -0,0 +1,112 @@
+package com.blockchain.mining;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.stereotype.Component;
+
+import com.blockchain.mining.MiningStrategy.Strategy;
+import com.blockchain.security.Security;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Split the nonce space in chunks that are claimed, in increasing order, by <code>parallelism</code> workers.
+ *
+ * When a worker finds a valid hash it publishes its nonce, the others abandon any nonce above it,
+ * but the chunks below it are still finished, so the lowest valid nonce is the one that wins
+ * (exactly the same result of the {@link SequentialMiner}).
+ */
+@Component
+@MiningStrategy(Strategy.PARALLEL)
+@Slf4j
+public class ParallelMiner implements Miner {
+
+	public static final int DEFAULT_CHUNK_SIZE = 1024;
+
+	private static final long NOT_FOUND = Long.MAX_VALUE;
+
+	private final ExecutorService executor;
+	@Getter private final int     parallelism;
+	@Getter private final int     chunkSize;
+
+	public ParallelMiner() {
+		this(ForkJoinPool.commonPool(), Runtime.getRuntime().availableProcessors(), DEFAULT_CHUNK_SIZE);
+	}
+
+	public ParallelMiner(ExecutorService executor, int parallelism, int chunkSize) {
+		if ( parallelism < 1 || chunkSize < 1 ) {
+			throw new IllegalArgumentException("The parallelism and the chunk size must be greater than zero");
+		}
+		this.executor    = executor;
+		this.parallelism = parallelism;
+		this.chunkSize   = chunkSize;
+	}
+
+	@Override
+	public MiningResult mine(String header, int difficulty) {
+		AtomicLong nextChunk = new AtomicLong();
+		AtomicLong found     = new AtomicLong(NOT_FOUND);
+
+		List<Future<?>> workers = new ArrayList<Future<?>>(parallelism);
+		for (int i = 0; i < parallelism; i++) {
+			workers.add( executor.submit(() -> search(header, difficulty, nextChunk, found)) );
+		}
+		long nonce = awaitWorkers(workers, found);
+		if ( nonce == NOT_FOUND ) {
+			throw new RuntimeException("No valid nonce found for difficulty " + difficulty);
+		}
+		return new MiningResult((int) nonce, Security.applySHA256(header + nonce));
+	}
+
+	private long awaitWorkers(List<Future<?>> workers, AtomicLong found) {
+		boolean completed = false;
+		try {
+			for (Future<?> worker : workers) {
+				worker.get();
+			}
+			completed = true;
+			return found.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(e);
+		} catch (ExecutionException e) {
+			log.error(e.getMessage(), e);
+			throw new RuntimeException(e.getCause());
+		} finally {
+			if ( !completed ) {
+				// Something went wrong, nobody has to keep searching
+				found.set(-1);
+				workers.forEach(worker -> worker.cancel(true));
+			}
+		}
+	}
+
+	private void search(String header, int difficulty, AtomicLong nextChunk, AtomicLong found) {
+		MiningKernel kernel = new MiningKernel(header, difficulty);
+		while ( true ) {
+			long start = nextChunk.getAndIncrement() * chunkSize;
+			// The chunks are claimed in increasing order, nothing after a valid nonce interests anymore
+			if ( start > Integer.MAX_VALUE || start >= found.get() ) {
+				return;
+			}
+			long end = Math.min(start + chunkSize, Integer.MAX_VALUE + 1L);
+			for (long nonce = start; nonce < end; nonce++) {
+				if ( nonce >= found.get() ) {
+					return;
+				}
+				if ( kernel.tryNonce((int) nonce) ) {
+					found.accumulateAndGet(nonce, Math::min);
+					return;
+				}
+			}
+		}
+	}
+
+}
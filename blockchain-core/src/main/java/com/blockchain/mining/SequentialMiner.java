@@ -0,0 +1,26 @@
+package com.blockchain.mining;
+
+import org.springframework.stereotype.Component;
+
+import com.blockchain.mining.MiningStrategy.Strategy;
+
+/**
+ * Try the nonces one by one, from zero, in the caller thread
+ */
+@Component
+@MiningStrategy(Strategy.SEQUENTIAL)
+public class SequentialMiner implements Miner {
+
+	@Override
+	public MiningResult mine(String header, int difficulty) {
+		MiningKernel kernel = new MiningKernel(header, difficulty);
+
+		for (long nonce = 0; nonce <= Integer.MAX_VALUE; nonce++) {
+			if ( kernel.tryNonce((int) nonce) ) {
+				return new MiningResult((int) nonce, kernel.getHash());
+			}
+		}
+		throw new RuntimeException("No valid nonce found for difficulty " + difficulty);
+	}
+
+}
@@ -0,0 +1,54 @@
+package com.blockchain.security;
+
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.Signature;
+
+/**
+ * The {@link Signature} and {@link KeyFactory} engines of an algorithm, one of each per thread, looked up in the provider only once and then reused.
+ *
+ * A Signature is reset by every <code>initSign</code>/<code>initVerify</code>, so an engine left half used (by an exception) is safe to be taken again,
+ * as long as it is always initialized before used and never shared with other threads.
+ */
+final class CryptoEngines {
+
+	private static final String PROVIDER = "BC";
+
+	private final String                  algorithm;
+	private final ThreadLocal<Signature>  signatures;
+	private final ThreadLocal<KeyFactory> keyFactories;
+
+	CryptoEngines(String algorithm) {
+		this.algorithm    = algorithm;
+		this.signatures   = ThreadLocal.withInitial(() -> lookup(() -> Signature.getInstance(algorithm, PROVIDER)));
+		this.keyFactories = ThreadLocal.withInitial(() -> lookup(() -> KeyFactory.getInstance(algorithm, PROVIDER)));
+	}
+
+	/**
+	 * The Signature of this thread, it must be initialized (for sign or verify) before each use
+	 */
+	Signature signature() {
+		return signatures.get();
+	}
+
+	/**
+	 * The KeyFactory of this thread
+	 */
+	KeyFactory keyFactory() {
+		return keyFactories.get();
+	}
+
+	private <T> T lookup(Engine<T> engine) {
+		try {
+			return engine.getInstance();
+		} catch (GeneralSecurityException e) {
+			throw new RuntimeException("No " + algorithm + " engine in the provider " + PROVIDER, e);
+		}
+	}
+
+	@FunctionalInterface
+	private interface Engine<T> {
+		T getInstance() throws GeneralSecurityException;
+	}
+
+}
@@ -0,0 +1,94 @@
+package com.blockchain.security;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.security.Key;
+import java.util.Arrays;
+import java.util.Base64;
+
+import org.apache.commons.codec.digest.DigestUtils;
+
+import com.blockchain.utils.HexEncoder;
+
+/**
+ * Who owns a Key, computed once: its encoded bytes (X.509 for a PublicKey), a short fingerprint and the hash code.
+ * Two identities of the same encoded key are equal, even from different Key instances (a Wallet restored from disk is the same owner).
+ *
+ * Immutable, the encoded bytes never leave it without a copy ({@link #getEncoded()}), they are written straight by {@link #writeTo(ByteBuffer)}.
+ */
+public final class KeyIdentity {
+
+	private static final int FINGERPRINT_BYTES = 8;
+
+	private final byte[] encoded;
+	private final int    hashCode;
+	private final String fingerprint;
+
+	private KeyIdentity(byte[] encoded) {
+		this.encoded     = encoded;
+		this.hashCode    = Arrays.hashCode(encoded);
+		this.fingerprint = HexEncoder.toHexString(DigestUtils.sha256(encoded), 0, FINGERPRINT_BYTES);
+	}
+
+	public static KeyIdentity of(Key key) {
+		return new KeyIdentity(key.getEncoded());
+	}
+
+	public static KeyIdentity of(byte[] encoded) {
+		return new KeyIdentity(encoded.clone());
+	}
+
+	/**
+	 * Length of the encoded key, in bytes
+	 */
+	public int length() {
+		return encoded.length;
+	}
+
+	public byte[] getEncoded() {
+		return encoded.clone();
+	}
+
+	public void writeTo(ByteBuffer out) {
+		out.put(encoded);
+	}
+
+	public void writeTo(DataOutput out) throws IOException {
+		out.write(encoded);
+	}
+
+	/**
+	 * The first {@value #FINGERPRINT_BYTES} bytes of the SHA-256 of the encoded key, in hex
+	 */
+	public String getFingerprint() {
+		return fingerprint;
+	}
+
+	public String toBase64() {
+		return Base64.getEncoder().encodeToString(encoded);
+	}
+
+	@Override
+	public int hashCode() {
+		return hashCode;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if ( this == obj ) {
+			return true;
+		}
+		if ( !(obj instanceof KeyIdentity) ) {
+			return false;
+		}
+		KeyIdentity other = (KeyIdentity) obj;
+		return hashCode == other.hashCode && Arrays.equals(encoded, other.encoded);
+	}
+
+	@Override
+	public String toString() {
+		return fingerprint;
+	}
+
+}
@@ -1,20 +1,27 @@
 package com.blockchain.security;
 
+import java.nio.ByteBuffer;
 import java.security.Key;
 import java.security.KeyPair;
+import java.security.MessageDigest;
 import java.security.PrivateKey;
 import java.security.PublicKey;
 import java.util.Base64;
 
 import org.apache.commons.codec.digest.DigestUtils;
 
+import com.blockchain.utils.HexEncoder;
+
 public interface Security {
 	
 	public KeyPair generateKeyPairs();
 	public byte[] sign(PrivateKey privateKey, String dataInput);
 	public boolean verifySignature(PublicKey publicKey, String data, byte[] signature);
+	public byte[] sign(PrivateKey privateKey, ByteBuffer data);
+	public boolean verifySignature(PublicKey publicKey, ByteBuffer data, byte[] signature);
 	public void saveKeyPairsToFile(String file);
 	public KeyPair loadKeyPairsFromFile(String file);
+	public PublicKey decodePublicKey(byte[] encoded);
 	
 	public static String encodeBase64(Key key) {
 		return Base64.getEncoder().encodeToString(key.getEncoded());
@@ -24,4 +31,13 @@ public interface Security {
 		return DigestUtils.sha256Hex(data);
 	}
 	
+	/**
+	 * The SHA-256 of the remaining bytes of <code>data</code> (its position is not moved)
+	 */
+	public static String applySHA256(ByteBuffer data) {
+		MessageDigest digest = DigestUtils.getSha256Digest();
+		digest.update(data.duplicate());
+		return HexEncoder.toHexString(digest.digest());
+	}
+	
 }
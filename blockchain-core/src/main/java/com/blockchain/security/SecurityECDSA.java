@@ -1,6 +1,7 @@
 package com.blockchain.security;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -37,6 +38,9 @@ public class SecurityECDSA implements Security {
 		java.security.Security.addProvider(new org.bouncycastle.jce.provider.BouncyCastleProvider());
 	}
 	
+	// Looked up once per thread, not at every signature
+	private static final CryptoEngines ENGINES = new CryptoEngines("ECDSA");
+	
 	private static final String END_ECDSA_PUBLIC_KEY    = "-----END ECDSA PUBLIC KEY-----";
 	private static final String BEGIN_ECDSA_PUBLIC_KEY  = "-----BEGIN ECDSA PUBLIC KEY-----";
 	private static final String END_ECDSA_PRIVATE_KEY   = "-----END ECDSA PRIVATE KEY-----";
@@ -62,7 +66,7 @@ public class SecurityECDSA implements Security {
 		Signature dsa;
 		byte[] signature = new byte[0];
 		try {
-			dsa = Signature.getInstance("ECDSA", "BC");
+			dsa = ENGINES.signature();
 			dsa.initSign(privateKey);
 			byte[] strByte = dataInput.getBytes();
 			dsa.update(strByte);
@@ -77,7 +81,7 @@ public class SecurityECDSA implements Security {
 	@Override
 	public boolean verifySignature(PublicKey publicKey, String data, byte[] signature) {
 		try {
-			Signature ecdsaVerify = Signature.getInstance("ECDSA", "BC");
+			Signature ecdsaVerify = ENGINES.signature();
 			ecdsaVerify.initVerify(publicKey);
 			ecdsaVerify.update(data.getBytes());
 			return ecdsaVerify.verify(signature);
@@ -87,6 +91,41 @@ public class SecurityECDSA implements Security {
 		}
 	}
 
+	@Override
+	public byte[] sign(PrivateKey privateKey, ByteBuffer data) {
+		try {
+			Signature dsa = ENGINES.signature();
+			dsa.initSign(privateKey);
+			dsa.update(data.duplicate());
+			return dsa.sign();
+		} catch (Exception e) {
+			log.error(e.getMessage(),e);
+			throw new RuntimeException(e);
+		}
+	}
+
+	@Override
+	public boolean verifySignature(PublicKey publicKey, ByteBuffer data, byte[] signature) {
+		try {
+			Signature ecdsaVerify = ENGINES.signature();
+			ecdsaVerify.initVerify(publicKey);
+			ecdsaVerify.update(data.duplicate());
+			return ecdsaVerify.verify(signature);
+		} catch (Exception e) {
+			log.error(e.getMessage(), e);
+			throw new RuntimeException(e);
+		}
+	}
+
+	@Override
+	public PublicKey decodePublicKey(byte[] encoded) {
+		try {
+			return ENGINES.keyFactory().generatePublic(new X509EncodedKeySpec(encoded));
+		} catch (InvalidKeySpecException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
 	@Override
 	public void saveKeyPairsToFile(String file) {
 		KeyPair keyPairs = this.generateKeyPairs();
@@ -149,7 +188,7 @@ public class SecurityECDSA implements Security {
 				}
 			}
 			
-			KeyFactory keyFactory = KeyFactory.getInstance("ECDSA","BC");
+			KeyFactory keyFactory = ENGINES.keyFactory();
 			
 			byte[] privateKeyBytes = Base64.getDecoder().decode(privateKeyEncoded.toString());
 			byte[] publicKeyBytes  = Base64.getDecoder().decode(publicKeyEncoded.toString());
@@ -163,7 +202,7 @@ public class SecurityECDSA implements Security {
 			PublicKey publicKey = keyFactory.generatePublic(x509EncodedKeySpec);
 			
 			return new KeyPair(publicKey, privateKey);
-		} catch (IOException | NoSuchAlgorithmException | InvalidKeySpecException | NoSuchProviderException e) {
+		} catch (IOException | InvalidKeySpecException e) {
 			throw new RuntimeException(e);
 		}
 	}
@@ -1,5 +1,6 @@
 package com.blockchain.security;
 
+import java.nio.ByteBuffer;
 import java.security.InvalidAlgorithmParameterException;
 import java.security.KeyPair;
 import java.security.KeyPairGenerator;
@@ -9,7 +10,9 @@ import java.security.PrivateKey;
 import java.security.PublicKey;
 import java.security.SecureRandom;
 import java.security.Signature;
+import java.security.spec.InvalidKeySpecException;
 import java.security.spec.RSAKeyGenParameterSpec;
+import java.security.spec.X509EncodedKeySpec;
 
 import org.apache.commons.lang.NotImplementedException;
 import org.springframework.stereotype.Component;
@@ -26,6 +29,9 @@ public class SecurityRSA implements Security {
 	static {
 		java.security.Security.addProvider(new org.bouncycastle.jce.provider.BouncyCastleProvider());
 	}
+	
+	// Looked up once per thread, not at every signature
+	private static final CryptoEngines ENGINES = new CryptoEngines("RSA");
 
 	@Override
 	public KeyPair generateKeyPairs() {
@@ -48,7 +54,7 @@ public class SecurityRSA implements Security {
 		Signature rsa;
 		byte[] signature = new byte[0];
 		try {
-			rsa = Signature.getInstance("RSA", "BC");
+			rsa = ENGINES.signature();
 			rsa.initSign(privateKey);
 			byte[] strByte = dataInput.getBytes();
 			rsa.update(strByte);
@@ -63,7 +69,7 @@ public class SecurityRSA implements Security {
 	@Override
 	public boolean verifySignature(PublicKey publicKey, String data, byte[] signature) {
 		try {
-			Signature rsaVerify = Signature.getInstance("RSA", "BC");
+			Signature rsaVerify = ENGINES.signature();
 			rsaVerify.initVerify(publicKey);
 			rsaVerify.update(data.getBytes());
 			return rsaVerify.verify(signature);
@@ -73,6 +79,41 @@ public class SecurityRSA implements Security {
 		}
 	}
 
+	@Override
+	public byte[] sign(PrivateKey privateKey, ByteBuffer data) {
+		try {
+			Signature rsa = ENGINES.signature();
+			rsa.initSign(privateKey);
+			rsa.update(data.duplicate());
+			return rsa.sign();
+		} catch (Exception e) {
+			log.error(e.getMessage(),e);
+			throw new RuntimeException(e);
+		}
+	}
+
+	@Override
+	public boolean verifySignature(PublicKey publicKey, ByteBuffer data, byte[] signature) {
+		try {
+			Signature rsaVerify = ENGINES.signature();
+			rsaVerify.initVerify(publicKey);
+			rsaVerify.update(data.duplicate());
+			return rsaVerify.verify(signature);
+		} catch (Exception e) {
+			log.error(e.getMessage(), e);
+			throw new RuntimeException(e);
+		}
+	}
+
+	@Override
+	public PublicKey decodePublicKey(byte[] encoded) {
+		try {
+			return ENGINES.keyFactory().generatePublic(new X509EncodedKeySpec(encoded));
+		} catch (InvalidKeySpecException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
 	@Override
 	public void saveKeyPairsToFile(String file) {
 		throw new NotImplementedException("To be Done!");
@@ -0,0 +1,47 @@
+package com.blockchain.utils;
+
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * One reusable SHA-256 {@link MessageDigest} per thread
+ */
+public final class Digests {
+
+	public static final int SHA256_LENGTH = 32;
+
+	private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(Digests::newSha256);
+
+	private Digests() {
+	}
+
+	/**
+	 * The SHA-256 digest of the current thread, it must not escape from it
+	 */
+	public static MessageDigest sha256() {
+		MessageDigest digest = SHA256.get();
+		digest.reset();
+		return digest;
+	}
+
+	/**
+	 * Finish the digest writing the 32 bytes of the hash in <code>target</code>, without allocating a new array
+	 */
+	public static void digest(MessageDigest digest, byte[] target, int targetOffset) {
+		try {
+			digest.digest(target, targetOffset, SHA256_LENGTH);
+		} catch (DigestException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	public static MessageDigest newSha256() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+}
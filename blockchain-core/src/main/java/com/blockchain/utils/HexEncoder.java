@@ -0,0 +1,55 @@
+package com.blockchain.utils;
+
+/**
+ * Lower case hexadecimal encoding (the same of {@link org.apache.commons.codec.digest.DigestUtils#sha256Hex(String)})
+ * written straight into byte buffers, so the hot paths do not need to create a String for each hash
+ */
+public final class HexEncoder {
+
+	private static final byte[] DIGITS = { '0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'a', 'b', 'c', 'd', 'e', 'f' };
+
+	private HexEncoder() {
+	}
+
+	/**
+	 * Write the <code>length</code> bytes of <code>source</code> as 2 * <code>length</code> ASCII hex digits in <code>target</code>
+	 */
+	public static void encode(byte[] source, int sourceOffset, int length, byte[] target, int targetOffset) {
+		for (int i = 0; i < length; i++) {
+			int value = source[sourceOffset + i] & 0xFF;
+			target[targetOffset++] = DIGITS[value >>> 4];
+			target[targetOffset++] = DIGITS[value & 0x0F];
+		}
+	}
+
+	public static String toHexString(byte[] source, int sourceOffset, int length) {
+		char[] chars = new char[length * 2];
+		for (int i = 0, j = 0; i < length; i++) {
+			int value = source[sourceOffset + i] & 0xFF;
+			chars[j++] = (char) DIGITS[value >>> 4];
+			chars[j++] = (char) DIGITS[value & 0x0F];
+		}
+		return new String(chars);
+	}
+
+	public static String toHexString(byte[] source) {
+		return toHexString(source, 0, source.length);
+	}
+
+	/**
+	 * Has the hex representation of these bytes at least <code>nibbles</code> leading zeros?
+	 */
+	public static boolean hasLeadingZeroNibbles(byte[] source, int nibbles) {
+		if ( nibbles > source.length * 2 ) {
+			return false;
+		}
+		int fullBytes = nibbles >>> 1;
+		for (int i = 0; i < fullBytes; i++) {
+			if ( source[i] != 0 ) {
+				return false;
+			}
+		}
+		return (nibbles & 1) == 0 || (source[fullBytes] & 0xF0) == 0;
+	}
+
+}
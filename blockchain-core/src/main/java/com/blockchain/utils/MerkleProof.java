@@ -0,0 +1,77 @@
+package com.blockchain.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.codec.digest.DigestUtils;
+
+import lombok.Getter;
+
+/**
+ * The proof that a leaf (a Transaction's hash) is part of a Merkle Tree, without needing the other leaves:
+ * its sibling leaf and the sibling digest of each of its ancestors, up to the root.
+ *
+ * Who only knows the Merkle Root of a Block (a light client) can check a payment with {@link #verify(String, String)}.
+ */
+public class MerkleProof {
+
+	private static final int HASH_LENGTH = Digests.SHA256_LENGTH;
+
+	@Getter private final int    index;
+	@Getter private final int    leaves;
+	@Getter private final String siblingLeaf;
+	private final byte[]         path;
+
+	public MerkleProof(int index, int leaves, String siblingLeaf, byte[] path) {
+		this.index       = index;
+		this.leaves      = leaves;
+		this.siblingLeaf = siblingLeaf;
+		this.path        = path;
+	}
+
+	/**
+	 * The hex digests of the siblings of the ancestors of the leaf, from the bottom up
+	 */
+	public List<String> getPath() {
+		List<String> hashs = new ArrayList<String>();
+		for (int offset = 0; offset < path.length; offset += HASH_LENGTH) {
+			hashs.add(HexEncoder.toHexString(path, offset, HASH_LENGTH));
+		}
+		return hashs;
+	}
+
+	/**
+	 * Does this leaf, with the siblings of this proof, give this Merkle Root?
+	 */
+	public boolean verify(String leaf, String merkleRoot) {
+		if ( leaves == 1 ) {
+			return DigestUtils.sha256Hex(leaf).equals(merkleRoot);
+		}
+
+		MessageDigest digest = Digests.newSha256();
+		byte[]        hash   = new byte[HASH_LENGTH];
+		String        pair   = (index & 1) == 0 ? leaf + siblingLeaf : siblingLeaf + leaf;
+		digest.update(pair.getBytes(StandardCharsets.UTF_8));
+		Digests.digest(digest, hash, 0);
+
+		byte[] scratch = new byte[4 * HASH_LENGTH];
+		int    node    = index >>> 1;
+		for (int offset = 0; offset < path.length; offset += HASH_LENGTH) {
+			boolean left = (node & 1) == 0;
+			HexEncoder.encode(hash, 0, HASH_LENGTH, scratch, left ? 0 : 2 * HASH_LENGTH);
+			HexEncoder.encode(path, offset, HASH_LENGTH, scratch, left ? 2 * HASH_LENGTH : 0);
+			digest.update(scratch, 0, scratch.length);
+			Digests.digest(digest, hash, 0);
+			node >>>= 1;
+		}
+		return HexEncoder.toHexString(hash).equals(merkleRoot);
+	}
+
+	@Override
+	public String toString() {
+		return String.format("MerkleProof [index=%s, leaves=%s, siblingLeaf=%s, path=%s]", index, leaves, siblingLeaf, getPath());
+	}
+
+}
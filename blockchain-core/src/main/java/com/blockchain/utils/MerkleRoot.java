@@ -1,59 +1,159 @@
 package com.blockchain.utils;
 
-import java.util.ArrayList;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
 import java.util.List;
+import java.util.stream.IntStream;
 
 import org.apache.commons.codec.digest.DigestUtils;
 
 
 /**
  * This is a "utility" where we have an implementation of the Block's Merkle Root
- * This Hash is used to prove the integrity of all of the transactions in a Block, that they weren't changed, tampered. 
+ * This Hash is used to prove the integrity of all of the transactions in a Block, that they weren't changed, tampered.
  * The value of this Merkle Root should always be the same if any of the original's values were not touched.
- * 
+ *
+ * The leaves are hashed in pairs (their concatenation), then the hex of those hashes in pairs, and so on until only one is left.
+ * When a level is odd, its last hash is paired with itself. A single leaf Merkle Root is the hash of that leaf.
+ *
+ * Apart from the leaves, each level is kept as 32 bytes digests in a flat byte array (only the final root is turned into a String),
+ * and the levels with at least {@link #PARALLEL_THRESHOLD} pairs are hashed in parallel.
+ *
  * @author Ualter Junior
  */
 public class MerkleRoot {
 
+	/** Number of pairs of a level from which it is worth hashing it in parallel */
+	public static final int PARALLEL_THRESHOLD = 2048;
+
+	private static final int HASH_LENGTH = Digests.SHA256_LENGTH;
+	private static final int CHUNK_PAIRS = 512;
+
+	private static final ThreadLocal<byte[]> SCRATCH = ThreadLocal.withInitial(() -> new byte[4 * HASH_LENGTH]);
+
 	public static String calculate(List<String> hashs) {
-		String merkleRoot = null;
-		if (hashs.size() == 1) {
-			merkleRoot = DigestUtils.sha256Hex(hashs.get(0));
-		} else {
-			while (hashs.size() > 1) {
-				hashs = calculateLeavesHash(hashs);
+		if ( hashs.isEmpty() ) {
+			throw new IllegalArgumentException("There's no hash to calculate the Merkle Root");
+		}
+		if ( hashs.size() == 1 ) {
+			return DigestUtils.sha256Hex(hashs.get(0));
+		}
+
+		// The two levels in use, the parents are written in one while the children are read from the other
+		int    size    = parentsOf(hashs.size());
+		byte[] level   = new byte[size * HASH_LENGTH];
+		byte[] parents = new byte[size * HASH_LENGTH];
+		hashLeaves(hashs, level);
+
+		while ( size > 1 ) {
+			hashLevel(level, size, parents);
+			byte[] children = level;
+			level   = parents;
+			parents = children;
+			size    = parentsOf(size);
+		}
+		return HexEncoder.toHexString(level, 0, HASH_LENGTH);
+	}
+
+	static int parentsOf(int size) {
+		return (size + 1) >>> 1;
+	}
+
+	/**
+	 * Hash the leaves in pairs, writing the first level of digests in <code>target</code>
+	 */
+	static void hashLeaves(List<String> hashs, byte[] target) {
+		int pairs = parentsOf(hashs.size());
+		forEachChunk(pairs, (from, to) -> {
+			MessageDigest digest = Digests.sha256();
+			for (int pair = from; pair < to; pair++) {
+				hashLeafPair(digest, hashs, pair << 1, target, pair * HASH_LENGTH);
+			}
+		});
+	}
+
+	/**
+	 * Hash in pairs the <code>size</code> digests of <code>level</code>, writing their parents in <code>target</code>
+	 */
+	static void hashLevel(byte[] level, int size, byte[] target) {
+		int pairs = parentsOf(size);
+		forEachChunk(pairs, (from, to) -> {
+			MessageDigest digest  = Digests.sha256();
+			byte[]        scratch = SCRATCH.get();
+			for (int pair = from; pair < to; pair++) {
+				hashNodePair(digest, scratch, level, size, pair << 1, target, pair * HASH_LENGTH);
 			}
-			merkleRoot = hashs.get(0);
+		});
+	}
+
+	/**
+	 * The hash of the leaf at <code>left</code> concatenated with its right sibling (or with itself, if it is the last one of an odd level)
+	 */
+	static void hashLeafPair(MessageDigest digest, List<String> hashs, int left, byte[] target, int targetOffset) {
+		String hash1 = hashs.get(left);
+		String hash2 = left + 1 < hashs.size() ? hashs.get(left + 1) : hash1;
+		if ( isAscii(hash1) && isAscii(hash2) ) {
+			byte[] scratch = scratchFor(hash1.length() + hash2.length());
+			int    length  = writeAscii(hash1, scratch, 0);
+			length        += writeAscii(hash2, scratch, length);
+			digest.update(scratch, 0, length);
+		} else {
+			digest.update((hash1 + hash2).getBytes(StandardCharsets.UTF_8));
 		}
-		return merkleRoot;
+		Digests.digest(digest, target, targetOffset);
 	}
 
-	private static List<String> calculateLeavesHash(List<String> hashs) {
-		List<String> leavesHash = new ArrayList<String>();
+	/**
+	 * The hash of the hex of the digest at <code>left</code> concatenated with the hex of its right sibling (or with itself, if it is the last one of an odd level)
+	 */
+	static void hashNodePair(MessageDigest digest, byte[] scratch, byte[] level, int size, int left, byte[] target, int targetOffset) {
+		int right = left + 1 < size ? left + 1 : left;
+		HexEncoder.encode(level, left * HASH_LENGTH, HASH_LENGTH, scratch, 0);
+		HexEncoder.encode(level, right * HASH_LENGTH, HASH_LENGTH, scratch, 2 * HASH_LENGTH);
+		digest.update(scratch, 0, 4 * HASH_LENGTH);
+		Digests.digest(digest, target, targetOffset);
+	}
 
-		int index = 0;
-		while (true) {
+	private static void forEachChunk(int pairs, ChunkHasher hasher) {
+		if ( pairs < PARALLEL_THRESHOLD ) {
+			hasher.hash(0, pairs);
+			return;
+		}
+		int chunks = (pairs + CHUNK_PAIRS - 1) / CHUNK_PAIRS;
+		IntStream.range(0, chunks)
+				 .parallel()
+				 .forEach(chunk -> hasher.hash(chunk * CHUNK_PAIRS, Math.min(pairs, (chunk + 1) * CHUNK_PAIRS)));
+	}
 
-			String hash1 = hashs.get(index);
+	private static byte[] scratchFor(int length) {
+		byte[] scratch = SCRATCH.get();
+		if ( scratch.length < length ) {
+			scratch = new byte[length];
+			SCRATCH.set(scratch);
+		}
+		return scratch;
+	}
 
-			index++;
-			if (index < hashs.size()) {
-				// Calculate the hash of the Pair
-				String hash2 = hashs.get(index);
-				String hashLeaf = DigestUtils.sha256Hex(hash1 + hash2);
-				leavesHash.add(hashLeaf);
-			} else if (index == hashs.size()) {
-				// The last one, without a pair, the total List is odd
-				// As the Merkle Tree is a binary tree, we duplicate the last register to calculate the leaf
-				String hashLeaf = DigestUtils.sha256Hex(hash1 + hash1);
-				leavesHash.add(hashLeaf);
+	private static boolean isAscii(String value) {
+		for (int i = 0; i < value.length(); i++) {
+			if ( value.charAt(i) >= 0x80 ) {
+				return false;
 			}
+		}
+		return true;
+	}
 
-			index++;
-			if (index >= hashs.size())
-				break;
+	private static int writeAscii(String value, byte[] target, int offset) {
+		int length = value.length();
+		for (int i = 0; i < length; i++) {
+			target[offset + i] = (byte) value.charAt(i);
 		}
-		return leavesHash;
+		return length;
+	}
+
+	@FunctionalInterface
+	private interface ChunkHasher {
+		void hash(int fromPair, int toPair);
 	}
 
 }
@@ -0,0 +1,145 @@
+package com.blockchain.utils;
+
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.commons.codec.digest.DigestUtils;
+
+/**
+ * The whole Merkle Tree of a Block, with the same root of {@link MerkleRoot#calculate(List)}, keeping all of its levels
+ * (each one as 32 bytes digests in a flat byte array), so that:
+ * <ul>
+ *   <li>a leaf can be appended rehashing only its path to the root, O(log n)</li>
+ *   <li>the inclusion proof of a leaf ({@link MerkleProof}) is just a read of its siblings, O(log n)</li>
+ * </ul>
+ *
+ * Not thread safe, a tree belongs to the Block that is building it.
+ */
+public class MerkleTree {
+
+	private static final int HASH_LENGTH      = Digests.SHA256_LENGTH;
+	private static final int INITIAL_CAPACITY = 8;
+
+	private final List<String> leaves  = new ArrayList<String>();
+	// levels.get(0) are the parents of the leaves, the last one in use has only the root
+	private final List<byte[]> levels  = new ArrayList<byte[]>();
+	private final byte[]       scratch = new byte[4 * HASH_LENGTH];
+	private int                depth;
+
+	public MerkleTree() {
+	}
+
+	/**
+	 * Build the tree of these leaves at once (the big levels hashed in parallel, like {@link MerkleRoot#calculate(List)})
+	 */
+	public MerkleTree(List<String> hashs) {
+		this.leaves.addAll(hashs);
+		if ( hashs.size() < 2 ) {
+			return;
+		}
+		int size = MerkleRoot.parentsOf(hashs.size());
+		MerkleRoot.hashLeaves(hashs, ensureLevel(0, size));
+		depth = 1;
+		while ( size > 1 ) {
+			int parents = MerkleRoot.parentsOf(size);
+			MerkleRoot.hashLevel(levels.get(depth - 1), size, ensureLevel(depth, parents));
+			depth++;
+			size = parents;
+		}
+	}
+
+	/**
+	 * Add a leaf at the end of the tree, only the hashes of its path up to the root are recalculated
+	 */
+	public void append(String hash) {
+		leaves.add(hash);
+		int count = leaves.size();
+		if ( count == 1 ) {
+			return;
+		}
+
+		MessageDigest digest = Digests.sha256();
+		int size   = MerkleRoot.parentsOf(count);
+		int parent = (count - 1) >>> 1;
+		MerkleRoot.hashLeafPair(digest, leaves, parent << 1, ensureLevel(0, size), parent * HASH_LENGTH);
+
+		int level = 0;
+		while ( size > 1 ) {
+			int parents = MerkleRoot.parentsOf(size);
+			parent >>>= 1;
+			MerkleRoot.hashNodePair(digest, scratch, levels.get(level), size, parent << 1, ensureLevel(level + 1, parents), parent * HASH_LENGTH);
+			level++;
+			size = parents;
+		}
+		depth = level + 1;
+	}
+
+	public int size() {
+		return leaves.size();
+	}
+
+	public String getLeaf(int index) {
+		return leaves.get(index);
+	}
+
+	public List<String> getLeaves() {
+		return Collections.unmodifiableList(leaves);
+	}
+
+	/**
+	 * Are these exactly the leaves of this tree? (so, they give its root)
+	 */
+	public boolean hasLeaves(List<String> hashs) {
+		return leaves.equals(hashs);
+	}
+
+	public String getRoot() {
+		if ( leaves.isEmpty() ) {
+			throw new IllegalStateException("There's no leaf in this Merkle Tree");
+		}
+		if ( leaves.size() == 1 ) {
+			return DigestUtils.sha256Hex(leaves.get(0));
+		}
+		return HexEncoder.toHexString(levels.get(depth - 1), 0, HASH_LENGTH);
+	}
+
+	/**
+	 * The siblings of the leaf at <code>index</code> and of each of its ancestors, enough to recalculate the root from that leaf
+	 */
+	public MerkleProof proof(int index) {
+		if ( index < 0 || index >= leaves.size() ) {
+			throw new IndexOutOfBoundsException("Leaf " + index + " of a Merkle Tree with " + leaves.size() + " leaves");
+		}
+		if ( leaves.size() == 1 ) {
+			return new MerkleProof(index, 1, null, new byte[0]);
+		}
+
+		int    siblingLeaf = (index ^ 1) < leaves.size() ? index ^ 1 : index;
+		byte[] path        = new byte[(depth - 1) * HASH_LENGTH];
+		int    node        = index >>> 1;
+		int    size        = MerkleRoot.parentsOf(leaves.size());
+		for (int level = 0; level < depth - 1; level++) {
+			int sibling = (node ^ 1) < size ? node ^ 1 : node;
+			System.arraycopy(levels.get(level), sibling * HASH_LENGTH, path, level * HASH_LENGTH, HASH_LENGTH);
+			node >>>= 1;
+			size = MerkleRoot.parentsOf(size);
+		}
+		return new MerkleProof(index, leaves.size(), leaves.get(siblingLeaf), path);
+	}
+
+	private byte[] ensureLevel(int level, int size) {
+		if ( level == levels.size() ) {
+			levels.add(new byte[Math.max(INITIAL_CAPACITY, size) * HASH_LENGTH]);
+		}
+		byte[] nodes = levels.get(level);
+		if ( nodes.length < size * HASH_LENGTH ) {
+			nodes = Arrays.copyOf(nodes, Math.max(nodes.length * 2, size * HASH_LENGTH));
+			levels.set(level, nodes);
+		}
+		return nodes;
+	}
+
+}
@@ -0,0 +1,129 @@
+package com.blockchain.utils;
+
+/**
+ * SHA-256 of a constant prefix followed by a short variable suffix (the nonce of a Block's header).
+ *
+ * The 64 bytes blocks of the prefix are compressed only once, at construction, and the resulting internal state (the midstate)
+ * is copied for each suffix, so each hash only processes the remaining tail of the prefix, the suffix and the padding
+ * (one or two compressions, instead of all the blocks of the input). The result is the standard SHA-256 (FIPS 180-4) of
+ * <code>prefix + suffix</code>.
+ *
+ * Not thread safe, it has reusable working buffers and must be confined to one thread.
+ */
+public final class Sha256Midstate {
+
+	private static final int BLOCK_LENGTH = 64;
+
+	/** The last block of the padding keeps 1 byte for the 0x80 terminator and 8 bytes for the message length */
+	public static final int MAX_SUFFIX_LENGTH = 2 * BLOCK_LENGTH - (BLOCK_LENGTH - 1) - 9;
+
+	private static final int[] INITIAL_STATE = {
+		0x6a09e667, 0xbb67ae85, 0x3c6ef372, 0xa54ff53a, 0x510e527f, 0x9b05688c, 0x1f83d9ab, 0x5be0cd19
+	};
+
+	private static final int[] K = {
+		0x428a2f98, 0x71374491, 0xb5c0fbcf, 0xe9b5dba5, 0x3956c25b, 0x59f111f1, 0x923f82a4, 0xab1c5ed5,
+		0xd807aa98, 0x12835b01, 0x243185be, 0x550c7dc3, 0x72be5d74, 0x80deb1fe, 0x9bdc06a7, 0xc19bf174,
+		0xe49b69c1, 0xefbe4786, 0x0fc19dc6, 0x240ca1cc, 0x2de92c6f, 0x4a7484aa, 0x5cb0a9dc, 0x76f988da,
+		0x983e5152, 0xa831c66d, 0xb00327c8, 0xbf597fc7, 0xc6e00bf3, 0xd5a79147, 0x06ca6351, 0x14292967,
+		0x27b70a85, 0x2e1b2138, 0x4d2c6dfc, 0x53380d13, 0x650a7354, 0x766a0abb, 0x81c2c92e, 0x92722c85,
+		0xa2bfe8a1, 0xa81a664b, 0xc24b8b70, 0xc76c51a3, 0xd192e819, 0xd6990624, 0xf40e3585, 0x106aa070,
+		0x19a4c116, 0x1e376c08, 0x2748774c, 0x34b0bcb5, 0x391c0cb3, 0x4ed8aa4a, 0x5b9cca4f, 0x682e6ff3,
+		0x748f82ee, 0x78a5636f, 0x84c87814, 0x8cc70208, 0x90befffa, 0xa4506ceb, 0xbef9a3f7, 0xc67178f2
+	};
+
+	private final int[]  midstate = new int[8];
+	private final int[]  state    = new int[8];
+	private final int[]  schedule = new int[64];
+	private final byte[] buffer   = new byte[2 * BLOCK_LENGTH];
+	private final int    tailLength;
+	private final long   prefixLength;
+
+	public Sha256Midstate(byte[] prefix) {
+		this.prefixLength = prefix.length;
+		System.arraycopy(INITIAL_STATE, 0, midstate, 0, 8);
+
+		int compressed = 0;
+		for (; compressed + BLOCK_LENGTH <= prefix.length; compressed += BLOCK_LENGTH) {
+			compress(midstate, prefix, compressed);
+		}
+		this.tailLength = prefix.length - compressed;
+		System.arraycopy(prefix, compressed, buffer, 0, tailLength);
+	}
+
+	/**
+	 * Write in <code>target</code> the 32 bytes of the SHA-256 of <code>prefix + suffix[offset, offset + length)</code>
+	 */
+	public void digest(byte[] suffix, int offset, int length, byte[] target, int targetOffset) {
+		if ( length > MAX_SUFFIX_LENGTH ) {
+			throw new IllegalArgumentException("The suffix cannot be longer than " + MAX_SUFFIX_LENGTH + " bytes");
+		}
+		int total = tailLength + length;
+		System.arraycopy(suffix, offset, buffer, tailLength, length);
+		buffer[total] = (byte) 0x80;
+
+		int blocks = total + 9 <= BLOCK_LENGTH ? 1 : 2;
+		int end    = blocks * BLOCK_LENGTH;
+		for (int i = total + 1; i < end - 8; i++) {
+			buffer[i] = 0;
+		}
+		long bits = (prefixLength + length) << 3;
+		for (int i = 1; i <= 8; i++) {
+			buffer[end - i] = (byte) bits;
+			bits >>>= 8;
+		}
+
+		System.arraycopy(midstate, 0, state, 0, 8);
+		compress(state, buffer, 0);
+		if ( blocks == 2 ) {
+			compress(state, buffer, BLOCK_LENGTH);
+		}
+
+		for (int i = 0; i < 8; i++) {
+			int value = state[i];
+			target[targetOffset++] = (byte) (value >>> 24);
+			target[targetOffset++] = (byte) (value >>> 16);
+			target[targetOffset++] = (byte) (value >>> 8);
+			target[targetOffset++] = (byte) value;
+		}
+	}
+
+	private void compress(int[] h, byte[] block, int offset) {
+		int[] w = schedule;
+		for (int i = 0; i < 16; i++, offset += 4) {
+			w[i] = (block[offset] << 24) | ((block[offset + 1] & 0xFF) << 16) | ((block[offset + 2] & 0xFF) << 8) | (block[offset + 3] & 0xFF);
+		}
+		for (int i = 16; i < 64; i++) {
+			int s0 = Integer.rotateRight(w[i - 15], 7) ^ Integer.rotateRight(w[i - 15], 18) ^ (w[i - 15] >>> 3);
+			int s1 = Integer.rotateRight(w[i - 2], 17) ^ Integer.rotateRight(w[i - 2], 19) ^ (w[i - 2] >>> 10);
+			w[i] = w[i - 16] + s0 + w[i - 7] + s1;
+		}
+
+		int a = h[0], b = h[1], c = h[2], d = h[3], e = h[4], f = h[5], g = h[6], hh = h[7];
+		for (int i = 0; i < 64; i++) {
+			int s1    = Integer.rotateRight(e, 6) ^ Integer.rotateRight(e, 11) ^ Integer.rotateRight(e, 25);
+			int ch    = (e & f) ^ (~e & g);
+			int temp1 = hh + s1 + ch + K[i] + w[i];
+			int s0    = Integer.rotateRight(a, 2) ^ Integer.rotateRight(a, 13) ^ Integer.rotateRight(a, 22);
+			int maj   = (a & b) ^ (a & c) ^ (b & c);
+			int temp2 = s0 + maj;
+			hh = g;
+			g  = f;
+			f  = e;
+			e  = d + temp1;
+			d  = c;
+			c  = b;
+			b  = a;
+			a  = temp1 + temp2;
+		}
+		h[0] += a;
+		h[1] += b;
+		h[2] += c;
+		h[3] += d;
+		h[4] += e;
+		h[5] += f;
+		h[6] += g;
+		h[7] += hh;
+	}
+
+}
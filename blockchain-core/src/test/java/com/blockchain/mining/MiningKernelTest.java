@@ -0,0 +1,35 @@
+package com.blockchain.mining;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import com.blockchain.security.Security;
+import com.blockchain.utils.HexEncoder;
+
+public class MiningKernelTest {
+
+	@Test
+	public void sameHashOfTheStringPath() {
+		String       header = "1075.0" + 1520000000000L + "00035a8f1b5ac70f2d36e8d1a2a36fa7bdd2e7ff8b0ae4e04e2a3cd1cb5e1c2b";
+		MiningKernel kernel = new MiningKernel(header, 2);
+
+		int[] nonces = { 0, 1, 9, 10, 99, 100, 12345, 999999999, 1000000000, Integer.MAX_VALUE };
+		for (int nonce : nonces) {
+			String expected = Security.applySHA256(header + nonce);
+			boolean valid   = kernel.tryNonce(nonce);
+
+			assertEquals("Hash of nonce " + nonce, expected, kernel.getHash());
+			assertEquals("Validity of nonce " + nonce, expected.startsWith("00"), valid);
+		}
+	}
+
+	@Test
+	public void leadingZeroNibbles() {
+		byte[] hash = { 0x00, 0x0F, (byte) 0xA0 };
+		assertEquals(true,  HexEncoder.hasLeadingZeroNibbles(hash, 3));
+		assertEquals(false, HexEncoder.hasLeadingZeroNibbles(hash, 4));
+		assertEquals(false, HexEncoder.hasLeadingZeroNibbles(hash, 7));
+	}
+
+}
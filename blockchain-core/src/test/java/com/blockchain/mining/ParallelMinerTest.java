@@ -0,0 +1,46 @@
+package com.blockchain.mining;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ParallelMinerTest {
+
+	private ExecutorService executor;
+
+	@Before
+	public void createPool() {
+		executor = Executors.newFixedThreadPool(4);
+	}
+
+	@After
+	public void shutdownPool() {
+		executor.shutdownNow();
+	}
+
+	@Test
+	public void sameResultOfTheSequentialMiner() {
+		Miner sequential = new SequentialMiner();
+		// Small chunks, to be sure the valid nonce is disputed by several workers
+		Miner parallel   = new ParallelMiner(executor, 4, 16);
+
+		for (int difficulty = 1; difficulty <= 3; difficulty++) {
+			for (int i = 0; i < 5; i++) {
+				String header = "1000.0" + (1520000000000L + i) + "000";
+				MiningResult expected = sequential.mine(header, difficulty);
+				MiningResult result   = parallel.mine(header, difficulty);
+
+				assertEquals("Nonce (difficulty " + difficulty + ")", expected.getNonce(), result.getNonce());
+				assertEquals("Hash (difficulty " + difficulty + ")", expected.getHash(), result.getHash());
+				assertTrue("Valid Hash?", result.getHash().startsWith("000".substring(0, difficulty)));
+			}
+		}
+	}
+
+}
@@ -0,0 +1,44 @@
+package com.blockchain.security;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import java.nio.ByteBuffer;
+import java.security.KeyPair;
+
+import org.junit.Test;
+
+public class KeyIdentityTest {
+
+	private final Security security = new SecurityECDSA();
+
+	@Test
+	public void sameEncodedKeySameIdentity() {
+		KeyPair     keyPair  = security.generateKeyPairs();
+		KeyIdentity identity = KeyIdentity.of(keyPair.getPublic());
+		// Another instance of the same key
+		KeyIdentity decoded  = KeyIdentity.of(security.decodePublicKey(keyPair.getPublic().getEncoded()));
+
+		assertEquals(identity, decoded);
+		assertEquals(identity.hashCode(), decoded.hashCode());
+		assertEquals(16, identity.getFingerprint().length());
+		assertEquals(identity.getFingerprint(), decoded.getFingerprint());
+		assertNotEquals(identity, KeyIdentity.of(security.generateKeyPairs().getPublic()));
+	}
+
+	@Test
+	public void encodedBytesNeverShared() {
+		byte[]      encoded  = security.generateKeyPairs().getPublic().getEncoded();
+		KeyIdentity identity = KeyIdentity.of(encoded);
+		int         hashCode = identity.hashCode();
+		encoded[0]++;
+		identity.getEncoded()[1]++;
+		assertEquals(hashCode, identity.hashCode());
+		assertNotEquals(encoded[0], identity.getEncoded()[0]);
+
+		ByteBuffer out = ByteBuffer.allocate(identity.length());
+		identity.writeTo(out);
+		assertEquals(identity, KeyIdentity.of(out.array()));
+	}
+
+}
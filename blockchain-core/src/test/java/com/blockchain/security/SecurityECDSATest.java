@@ -0,0 +1,62 @@
+package com.blockchain.security;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.security.KeyPair;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+public class SecurityECDSATest {
+
+	private final Security security = new SecurityECDSA();
+
+	@Test
+	public void enginesSharedByManyThreads() throws Exception {
+		KeyPair[] keyPairs = { security.generateKeyPairs(), security.generateKeyPairs() };
+
+		ExecutorService       pool    = Executors.newFixedThreadPool(4);
+		List<Future<Integer>> workers = new ArrayList<Future<Integer>>();
+		for (int w = 0; w < 4; w++) {
+			int worker = w;
+			workers.add(pool.submit(() -> {
+				int failures = 0;
+				for (int i = 0; i < 200; i++) {
+					KeyPair keyPair   = keyPairs[(worker + i) % 2];
+					KeyPair other     = keyPairs[(worker + i + 1) % 2];
+					String  data      = "payment " + worker + "-" + i;
+					byte[]  signature = security.sign(keyPair.getPrivate(), data);
+					if ( !security.verifySignature(keyPair.getPublic(), data, signature) || security.verifySignature(other.getPublic(), data, signature) ) {
+						failures++;
+					}
+				}
+				return failures;
+			}));
+		}
+		for (Future<Integer> worker : workers) {
+			assertEquals(0, worker.get().intValue());
+		}
+		pool.shutdown();
+	}
+
+	@Test
+	public void engineStillUsableAfterAFailure() {
+		KeyPair keyPair = security.generateKeyPairs();
+		try {
+			security.verifySignature(keyPair.getPublic(), "data", new byte[] {1, 2, 3});
+		} catch (RuntimeException e) {
+			// A signature not even well formed
+		}
+		assertTrue(security.verifySignature(keyPair.getPublic(), "data", security.sign(keyPair.getPrivate(), "data")));
+		assertFalse(security.verifySignature(keyPair.getPublic(), "other", security.sign(keyPair.getPrivate(), "data")));
+		assertArrayEquals(keyPair.getPublic().getEncoded(), security.decodePublicKey(keyPair.getPublic().getEncoded()).getEncoded());
+	}
+
+}
@@ -0,0 +1,53 @@
+package com.blockchain.utils;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.junit.Test;
+
+public class MerkleRootTest {
+
+	@Test
+	public void sameRootOfTheStringImplementation() {
+		int[] sizes = { 1, 2, 3, 4, 5, 7, 8, 9, 31, 33, 100, 2 * MerkleRoot.PARALLEL_THRESHOLD + 3, 20001 };
+		for (int size : sizes) {
+			List<String> hashs = new ArrayList<String>();
+			for (int i = 0; i < size; i++) {
+				hashs.add(DigestUtils.sha256Hex("transaction " + i));
+			}
+			assertEquals("Merkle Root of " + size + " leaves", stringMerkleRoot(hashs), MerkleRoot.calculate(hashs));
+		}
+	}
+
+	@Test
+	public void leavesThatAreNotHashes() {
+		List<String> hashs = new ArrayList<String>();
+		hashs.add("Hi im the first block");
+		hashs.add("Café");
+		hashs.add("0");
+		assertEquals(stringMerkleRoot(hashs), MerkleRoot.calculate(hashs));
+	}
+
+	/**
+	 * The former implementation, hashing the hex Strings level by level
+	 */
+	private static String stringMerkleRoot(List<String> hashs) {
+		if ( hashs.size() == 1 ) {
+			return DigestUtils.sha256Hex(hashs.get(0));
+		}
+		while ( hashs.size() > 1 ) {
+			List<String> leavesHash = new ArrayList<String>();
+			for (int index = 0; index < hashs.size(); index += 2) {
+				String hash1 = hashs.get(index);
+				String hash2 = index + 1 < hashs.size() ? hashs.get(index + 1) : hash1;
+				leavesHash.add(DigestUtils.sha256Hex(hash1 + hash2));
+			}
+			hashs = leavesHash;
+		}
+		return hashs.get(0);
+	}
+
+}
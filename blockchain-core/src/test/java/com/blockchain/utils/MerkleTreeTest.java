@@ -0,0 +1,45 @@
+package com.blockchain.utils;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.junit.Test;
+
+public class MerkleTreeTest {
+
+	@Test
+	public void appendGivesTheSameRootOfTheWholeCalculation() {
+		MerkleTree   tree  = new MerkleTree();
+		List<String> hashs = new ArrayList<String>();
+		for (int i = 0; i < 70; i++) {
+			String hash = DigestUtils.sha256Hex("transaction " + i);
+			hashs.add(hash);
+			tree.append(hash);
+
+			assertEquals("Root after appending " + hashs.size() + " leaves", MerkleRoot.calculate(hashs), tree.getRoot());
+			assertEquals("Root of the tree built at once", tree.getRoot(), new MerkleTree(hashs).getRoot());
+		}
+	}
+
+	@Test
+	public void inclusionProofs() {
+		for (int size : new int[] { 1, 2, 3, 6, 7, 13, 64 }) {
+			List<String> hashs = new ArrayList<String>();
+			for (int i = 0; i < size; i++) {
+				hashs.add(DigestUtils.sha256Hex("transaction " + i));
+			}
+			MerkleTree tree = new MerkleTree(hashs);
+			String     root = tree.getRoot();
+
+			for (int i = 0; i < size; i++) {
+				MerkleProof proof = tree.proof(i);
+				assertEquals("Proof of leaf " + i + " of " + size, true, proof.verify(hashs.get(i), root));
+				assertEquals("Proof of a tampered leaf " + i + " of " + size, false, proof.verify(DigestUtils.sha256Hex("tampered"), root));
+			}
+		}
+	}
+
+}
@@ -0,0 +1,36 @@
+package com.blockchain.utils;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.junit.Test;
+
+public class Sha256MidstateTest {
+
+	@Test
+	public void sameHashOfTheStandardSha256() {
+		Random random = new Random(42);
+		byte[] hash   = new byte[Digests.SHA256_LENGTH];
+
+		// Every tail length of the prefix and every suffix length, crossing the one/two final blocks boundary
+		for (int prefixLength = 0; prefixLength <= 200; prefixLength++) {
+			byte[] prefix = new byte[prefixLength];
+			random.nextBytes(prefix);
+			Sha256Midstate midstate = new Sha256Midstate(prefix);
+
+			for (int suffixLength = 0; suffixLength <= Sha256Midstate.MAX_SUFFIX_LENGTH; suffixLength++) {
+				byte[] suffix = new byte[suffixLength];
+				random.nextBytes(suffix);
+				midstate.digest(suffix, 0, suffixLength, hash, 0);
+
+				byte[] input = Arrays.copyOf(prefix, prefixLength + suffixLength);
+				System.arraycopy(suffix, 0, input, prefixLength, suffixLength);
+				assertEquals("Prefix " + prefixLength + ", suffix " + suffixLength, DigestUtils.sha256Hex(input), HexEncoder.toHexString(hash));
+			}
+		}
+	}
+
+}
@@ -11,19 +11,39 @@ import org.apache.commons.lang.StringUtils;
 
 import com.blockchain.AbstractBlock;
 import com.blockchain.cryptocurrency.transaction.Transaction;
+import com.blockchain.mining.Miner;
+import com.blockchain.utils.MerkleProof;
+import com.blockchain.utils.MerkleTree;
 
 import lombok.Getter;
 
 public class CurrencyBlock extends AbstractBlock {
 	
 	@Getter private List<Transaction> transactions = new ArrayList<Transaction>();
+	// Its levels are kept, updated as the transactions are added, to validate the Block and prove the inclusion of a Transaction
+	@Getter private MerkleTree        merkleTree   = new MerkleTree();
 	
 	public CurrencyBlock() {
 		this.setTimeStamp(Instant.now().toEpochMilli());
 	}
 	
+	/**
+	 * A Block already in the chain, restored as it was (from the stored BlockChain)
+	 */
+	public CurrencyBlock(Integer height, String hash, String previousBlock, Long timeStamp, Integer nonce, String merkleRoot, List<Transaction> transactions) {
+		this.setHeight(height);
+		this.setHash(hash);
+		this.setPreviousBlock(previousBlock);
+		this.setTimeStamp(timeStamp);
+		this.setNonce(nonce);
+		this.setMerkleRoot(merkleRoot);
+		this.transactions = transactions;
+		this.merkleTree   = new MerkleTree(transactions.stream().map(t -> t.getHash()).collect(Collectors.toList()));
+	}
+	
 	public CurrencyBlock addTransaction(Transaction transaction) {
 		this.transactions.add(transaction);
+		this.merkleTree.append(transaction.getHash());
 		return this;
 	}
 	
@@ -31,8 +51,26 @@ public class CurrencyBlock extends AbstractBlock {
 		if (transactions == null || transactions.size() == 0) {
 			throw new RuntimeException("There's no transaction in this Block to be added to the BlockChain");
 		}
+		super.calculateHashBlock(totalTransaction(), CurrencyBlockChain.DIFFICULTY);
+	}
+	
+	public void calculateHashBlock(Miner miner) {
+		if (transactions == null || transactions.size() == 0) {
+			throw new RuntimeException("There's no transaction in this Block to be added to the BlockChain");
+		}
+		super.calculateHashBlock(totalTransaction(), CurrencyBlockChain.DIFFICULTY, miner);
+	}
+	
+	/**
+	 * Check the Hash of this Block is the one mined from its Transactions, with the difficulty of the BlockChain
+	 */
+	public boolean verifyHashBlock() {
+		return super.verifyHashBlock(totalTransaction(), CurrencyBlockChain.DIFFICULTY);
+	}
+	
+	private String totalTransaction() {
 		double totalTransaction = transactions.stream().mapToDouble(t -> t.getValue().doubleValue()).sum();
-		super.calculateHashBlock(String.valueOf(totalTransaction), CurrencyBlockChain.DIFFICULTY);
+		return String.valueOf(totalTransaction);
 	}
 	
 	public void calculateMerkleRoot() {
@@ -43,7 +81,23 @@ public class CurrencyBlock extends AbstractBlock {
 			throw new RuntimeException("There's no transaction in this Block to calculate the Merkle Root");
 		}
 		List<String> hashs = this.transactions.stream().map(t -> t.getHash()).collect(Collectors.toList());
-		super.calculateMerkleRoot(hashs);
+		if ( !this.merkleTree.hasLeaves(hashs) ) {
+			// Transactions added straight to the list, not through addTransaction
+			this.merkleTree = new MerkleTree(hashs);
+		}
+		super.calculateMerkleRoot(this.merkleTree);
+	}
+	
+	/**
+	 * The proof that this Transaction is part of this Block, it can be verified only with the Block's Merkle Root
+	 * @see MerkleProof#verify(String, String)
+	 */
+	public MerkleProof getInclusionProof(Transaction transaction) {
+		int index = this.transactions.indexOf(transaction);
+		if ( index < 0 ) {
+			throw new RuntimeException("The Transaction " + transaction.getHash() + " is not part of this Block");
+		}
+		return this.merkleTree.proof(index);
 	}
 	
 	@Override
@@ -6,9 +6,11 @@ import java.text.DecimalFormat;
 import java.text.NumberFormat;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import org.apache.commons.lang.StringUtils;
@@ -16,12 +18,21 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import com.blockchain.cryptocurrency.block.repo.CurrencyBlockRepository;
+import com.blockchain.cryptocurrency.block.repo.CurrencyBlockView;
+import com.blockchain.cryptocurrency.codec.CanonicalCodec;
+import com.blockchain.cryptocurrency.mempool.Mempool;
+import com.blockchain.cryptocurrency.transaction.SignatureCache;
 import com.blockchain.cryptocurrency.transaction.Transaction;
+import com.blockchain.cryptocurrency.transaction.TransactionInput;
+import com.blockchain.cryptocurrency.transaction.TransactionOutput;
 import com.blockchain.cryptocurrency.transaction.TransactionService;
+import com.blockchain.cryptocurrency.transaction.TransactionVerifier;
 import com.blockchain.cryptocurrency.utxo.UTXOService;
 import com.blockchain.cryptocurrency.wallet.Wallet;
 import com.blockchain.cryptocurrency.wallet.WalletService;
-import com.blockchain.security.Security;
+import com.blockchain.mining.Miner;
+import com.blockchain.mining.MiningStrategy;
+import com.blockchain.mining.MiningStrategy.Strategy;
 import com.blockchain.utils.MerkleRoot;
 
 import lombok.extern.slf4j.Slf4j;
@@ -46,16 +57,33 @@ public class CurrencyBlockChain {
 	@Autowired
 	private UTXOService utxoService;
 	
+	@Autowired
+	private TransactionVerifier transactionVerifier;
+	
+	@Autowired
+	private SignatureCache signatureCache;
+	
+	@Autowired
+	private Mempool mempool;
+	
+	@Autowired
+	@MiningStrategy(Strategy.PARALLEL)
+	private Miner miner;
+	
 	public static float                          MINIMUM_TRANSACTION = 5;
 	public static int                            DIFFICULTY          = 3;
 	
 	public Wallet bigBan() {
 		currencyBlockRepository.reset();
+		utxoService.reset();
+		mempool.clear();
 		Wallet genesitWallet         = walletService.createGenesisWallet();
 		CurrencyBlock genesisBlock   = createGenesisBlock(genesitWallet);
-		genesisBlock.calculateHashBlock();
+		genesisBlock.calculateHashBlock(miner);
 		genesisBlock.setHeight(0);
 		currencyBlockRepository.addBlock( genesisBlock );
+		forceBeforeUTXOs();
+		utxoService.commitBlock( genesisBlock.getHeight() );
 		return genesitWallet;
 	}
 	
@@ -66,7 +94,7 @@ public class CurrencyBlockChain {
 		utxoService.addTransaction(genesisTransaction.getOutputs().get(0));
 		CurrencyBlock genesisBlock       = new CurrencyBlock();
 		genesisBlock.setPreviousBlock(genesisHash);
-		genesisBlock.getTransactions().add(genesisTransaction);
+		genesisBlock.addTransaction(genesisTransaction);
 		genesisBlock.calculateMerkleRoot();
 		return genesisBlock;
 	}
@@ -79,23 +107,32 @@ public class CurrencyBlockChain {
 	}
 
 	/**
-	 * The Transaction were spent, so it cannot be at the UTXOs anymore (cannot be used anymore) 
+	 * Spend the Inputs of the Transaction from the UTXOs, all of them at once: either every one was still unspent and now they are used by this Transaction
+	 * (set as the UTXO of each Input), or none of them is touched
+	 * @return false if any Input was already spent (or it is not known)
 	 */
-	public void removeFromUTXOs(Transaction t) {
-		t.getInputs().stream()
-			.filter( inputTransaction  -> inputTransaction.getUTXO() != null )
-			.forEach( inputTransaction -> utxoService.removeTransaction(inputTransaction.getHash()) );
+	public boolean spendTransactionInputs(Transaction t) {
+		List<TransactionOutput> spent = utxoService.spend(t.getInputs().stream().map(TransactionInput::getHash).collect(Collectors.toList()));
+		if ( spent == null ) {
+			return false;
+		}
+		for (int i = 0; i < spent.size(); i++) {
+			t.getInputs().get(i).setUTXO(spent.get(i));
+		}
+		return true;
 	}
 	
 	/**
-	 * The Input Transaction must be available as an unspent transaction in the UTXOs (can be spent)
+	 * Give back to the UTXOs the Inputs spent by a Transaction that could not be completed
 	 */
-	public void confirmIfTransactionInputAreAvailableToSpent(Transaction t) {
-		t.getInputs().forEach(inputTransaction -> inputTransaction.setUTXO( utxoService.getTransaction(inputTransaction.getHash()) ));
+	public void returnToUTXOs(Transaction t) {
+		t.getInputs().stream()
+			.filter( inputTransaction  -> inputTransaction.getUTXO() != null )
+			.forEach( inputTransaction -> utxoService.addTransaction(inputTransaction.getUTXO()) );
 	}
 	
 	/**
-	 * Calculate from the UTXOs the balance of an Owner's Coins (using its PublicKey for identification) and deliver to him in format of TransactionOuput 
+	 * The balance of an Owner's Coins (using its PublicKey for identification), kept by the UTXOs as its outputs are added and spent
 	 * @param publicKey
 	 * @return
 	 */
@@ -103,32 +140,23 @@ public class CurrencyBlockChain {
 		if ( currencyBlockRepository.isEmpty() ) {
 			throw new RuntimeException("The BlockChain must be initialized");
 		}
-		
-		double balance = utxoService.listTransactions()
-				.stream()
-				.filter( e -> e.getValue().isMine(wallet.getPublicKey())  )
-				.mapToDouble(e -> e.getValue().getValue().doubleValue() )
-				.sum();
-		return new BigDecimal(balance);
+		return utxoService.getBalance(wallet.getKeyIdentity());
 	}
 	
 	/**
-	 * Calculate from the UTXOs the balance of an Owner's Coins (using its PublicKey for identification) and deliver to him in format of TransactionOuput 
+	 * The balance of an Owner's Coins, the same of {@link #queryBalance(Wallet)}
 	 * @param publicKey
 	 * @return
 	 */
 	public BigDecimal requestBalance(Wallet wallet) {
-		if ( currencyBlockRepository.isEmpty() ) {
-			throw new RuntimeException("The BlockChain must be initialized");
-		}
-		
-		double balance = utxoService.listTransactions()
-				.stream()
-				.filter( e -> e.getValue().isMine(wallet.getPublicKey())  )
-				.peek( e ->  wallet.addTransactionOuput(e.getValue()) )
-				.mapToDouble(e -> e.getValue().getValue().doubleValue() )
-				.sum();
-		return new BigDecimal(balance);
+		return queryBalance(wallet);
+	}
+	
+	/**
+	 * The Unspent Transaction Outputs of an Owner (using its PublicKey for identification), the coins it can spend
+	 */
+	public Collection<TransactionOutput> listUnspentOutputs(Wallet wallet) {
+		return utxoService.listTransactions(wallet.getKeyIdentity());
 	}
 	
 	
@@ -142,17 +170,53 @@ public class CurrencyBlockChain {
 		CurrencyBlock previousBlock = currencyBlockRepository.getLastBlock();
 		block.setPreviousBlock( previousBlock.getHash() );
 		// Calculate its own hash
-		block.calculateHashBlock();
+		block.calculateHashBlock(miner);
 		// Set its position on the chain
 		block.setHeight(currencyBlockRepository.size());
 		// Calculate the Merkle Root of the Block
 		block.calculateMerkleRoot();
 		// Join the Block to the Chain 
 		currencyBlockRepository.addBlock(block);
+		forceBeforeUTXOs();
+		// The UTXO changes up to this Block are recorded (when they are on disk)
+		utxoService.commitBlock(block.getHeight());
+		// Its Transactions, and the ones spending the same outputs, are not pending anymore
+		mempool.confirm(block);
 		// Inform to set the former last Block which are the next now in the chain 
 		previousBlock.setNextBlock(block.getHash());
 	}
 
+	/**
+	 * Add a Block assembled by the {@link Mempool} ({@link Mempool#buildBlockTemplate(int)}), its Transactions not processed yet: they are processed first,
+	 * the ones rejected (e.g. their inputs spent meanwhile, out of the mempool) leave the Block and the mempool, then the Block is added with the others
+	 * @return false if none of its Transactions could be processed, no Block was added
+	 */
+	public boolean addBlockTemplate(CurrencyBlock template) {
+		List<Transaction> transactions = template.getTransactions();
+		boolean[]         processed    = processTransactions(transactions);
+		List<Transaction> rejected     = new ArrayList<Transaction>();
+		for (int i = processed.length - 1; i >= 0; i--) {
+			if ( !processed[i] ) {
+				rejected.add(transactions.remove(i));
+			}
+		}
+		mempool.remove(rejected);
+		if ( transactions.isEmpty() ) {
+			return false;
+		}
+		addBlock(template);
+		return true;
+	}
+
+	/**
+	 * When the UTXOs are on disk, the Block must be there before they record it as added: they are never ahead of the chain after a crash
+	 */
+	private void forceBeforeUTXOs() {
+		if ( utxoService.isPersistent() ) {
+			currencyBlockRepository.force();
+		}
+	}
+
 	public Stream<CurrencyBlock> streamBlockChain() {
 		return currencyBlockRepository.listBlocks().stream();
 	}
@@ -160,6 +224,42 @@ public class CurrencyBlockChain {
 	public List<CurrencyBlock> listBlockChain() {
 		return currencyBlockRepository.listBlocks();
 	}
+	
+	/**
+	 * Blocks from the height <code>from</code> (inclusive) to <code>to</code> (exclusive)
+	 */
+	public List<CurrencyBlock> listBlockChain(int from, int to) {
+		return currencyBlockRepository.findByHeightRange(from, to);
+	}
+	
+	public CurrencyBlock findBlock(String hash) {
+		return currencyBlockRepository.findByHash(hash);
+	}
+	
+	public CurrencyBlock findBlock(int height) {
+		return currencyBlockRepository.findByHeight(height);
+	}
+	
+	/**
+	 * The Block before this one in the chain (null for the genesis Block), found by its hash through the index
+	 */
+	public CurrencyBlock findPreviousBlock(CurrencyBlock block) {
+		return currencyBlockRepository.findByHash(block.getPreviousBlock());
+	}
+	
+	/**
+	 * The Block after this one in the chain (null for the last Block), found by its height through the index
+	 */
+	public CurrencyBlock findNextBlock(CurrencyBlock block) {
+		return currencyBlockRepository.findByHeight(block.getHeight() + 1);
+	}
+	
+	/**
+	 * The BlockChain without decoding its Blocks to objects (on disk, read from the memory-mapped segments), for the scans of the whole chain
+	 */
+	public Stream<CurrencyBlockView> streamBlockViews() {
+		return currencyBlockRepository.streamBlockViews();
+	}
 
 	/**
 	 * Check the integrity of this block, verifying that its Merkle Root value is valid
@@ -171,17 +271,52 @@ public class CurrencyBlockChain {
 		
 		// Recalculate the Transactions Hash (if the values were not changed, the Hash would be exactly the same - integrity)
 		for(Transaction t : block.getTransactions()) {
-			String hashTransaction = Security.applySHA256(
-					   Security.encodeBase64(t.getSender().getPublicKey()) + 
-					   Security.encodeBase64(t.getRecipient().getPublicKey()) +
-					   String.valueOf(t.getValue().floatValue()) +
-					   Long.toString(t.getTimeStamp()) +
-					   t.getNonce());
-			listHash.add(hashTransaction);
+			listHash.add(CanonicalCodec.hashTransaction(t));
 		}
 		
-		String merkleRootOriginal     = block.getMerkleRoot(); 
-		String merkleRootRecalculated = MerkleRoot.calculate(listHash);
+		// Those hashes are the leaves of the Block's Merkle Tree, so they would give back its root (no need to rehash the whole tree)
+		String merkleRootRecalculated = block.getMerkleTree().hasLeaves(listHash) ? block.getMerkleTree().getRoot() : MerkleRoot.calculate(listHash);
+		return checkMerkleRoot(block.getMerkleRoot(), merkleRootRecalculated);
+	}
+	
+	/**
+	 * Check the signatures of all the Transactions of this block (verified in parallel, see {@link TransactionVerifier})
+	 */
+	public boolean verifySignatures(CurrencyBlock block) {
+		for (boolean verified : transactionVerifier.verify(block.getTransactions())) {
+			if ( !verified ) {
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	/**
+	 * The signatures already verified, shared by all the Transactions
+	 */
+	public SignatureCache getSignatureCache() {
+		return signatureCache;
+	}
+	
+	/**
+	 * Process a batch of Transactions, the UTXOs are only changed once all their signatures were verified
+	 * @return the result of each Transaction, in the same order
+	 */
+	public boolean[] processTransactions(List<Transaction> transactions) {
+		return transactionVerifier.processTransactions(transactions);
+	}
+	
+	/**
+	 * The same check of {@link #validateBlock(CurrencyBlock)}, reading the Transactions straight from the encoded Block
+	 */
+	public boolean validateBlock(CurrencyBlockView block) {
+		List<String> listHash = new ArrayList<String>(block.getTransactionCount());
+		block.forEachTransaction(t -> listHash.add(CanonicalCodec.hashTransaction(block.getPublicKey(t.getSender()), block.getPublicKey(t.getRecipient()),
+				                                                                  t.getValue(), t.getTimeStamp(), t.getNonce())));
+		return checkMerkleRoot(block.getMerkleRoot(), MerkleRoot.calculate(listHash));
+	}
+	
+	private boolean checkMerkleRoot(String merkleRootOriginal, String merkleRootRecalculated) {
 		if ( log.isDebugEnabled() ) {
 			System.out.println("MerkleRoot(Original).................:" + merkleRootOriginal);
 			System.out.println("MerkleRoot(Recalculated).............:" + merkleRootRecalculated);
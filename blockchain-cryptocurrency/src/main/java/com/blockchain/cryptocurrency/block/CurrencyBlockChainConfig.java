@@ -1,5 +1,6 @@
 package com.blockchain.cryptocurrency.block;
 
+import java.security.PublicKey;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -38,6 +39,12 @@ public class CurrencyBlockChainConfig {
 		return new Wallet(security, currencyBlockChain, null);
 	}
 	
+	@Bean
+	@Scope("prototype")
+	public Wallet wallet(String owner, PublicKey publicKey) {
+		return new Wallet(security, currencyBlockChain, owner, publicKey);
+	}
+	
 	@Bean
 	@Scope("prototype")
 	public Transaction transaction(Wallet sender, Wallet recipient, float value, List<TransactionInput> inputs) {
@@ -1,6 +1,7 @@
 package com.blockchain.cryptocurrency.block.printer;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 import com.blockchain.cryptocurrency.block.CurrencyBlock;
 import com.blockchain.cryptocurrency.block.printer.format.CurrencyBlockPrinterTemplate;
@@ -10,5 +11,13 @@ public interface CurrencyBlockPrinter {
 	public void print(List<CurrencyBlock> listBlocks);
 	
 	public void print(List<CurrencyBlock> listBlocks, CurrencyBlockPrinterTemplate template);
+	
+	/**
+	 * Print the Blocks as they come, without building the whole report in memory
+	 * @param size the number of Blocks of the stream
+	 */
+	public void print(Stream<CurrencyBlock> blocks, int size);
+	
+	public void print(Stream<CurrencyBlock> blocks, int size, CurrencyBlockPrinterTemplate template);
 
 }
\ No newline at end of file
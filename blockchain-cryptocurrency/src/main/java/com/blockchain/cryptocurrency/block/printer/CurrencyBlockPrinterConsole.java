@@ -1,6 +1,12 @@
 package com.blockchain.cryptocurrency.block.printer;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.util.List;
+import java.util.stream.Stream;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
@@ -18,7 +24,7 @@ public class CurrencyBlockPrinterConsole implements CurrencyBlockPrinter {
 	
 	@Override
 	public void print(List<CurrencyBlock> listBlocks, CurrencyBlockPrinterTemplate template) {
-		System.out.println( template.applyLayout(listBlocks) );
+		this.print(listBlocks.stream(), listBlocks.size(), template);
 	}
 
 	@Override
@@ -26,4 +32,22 @@ public class CurrencyBlockPrinterConsole implements CurrencyBlockPrinter {
 		this.print(listBlocks, template);
 	}
 	
+	@Override
+	public void print(Stream<CurrencyBlock> blocks, int size) {
+		this.print(blocks, size, template);
+	}
+	
+	@Override
+	public void print(Stream<CurrencyBlock> blocks, int size, CurrencyBlockPrinterTemplate template) {
+		// Not closed, it is System.out
+		Writer writer = new BufferedWriter(new OutputStreamWriter(System.out));
+		try {
+			template.applyLayout(blocks.iterator(), size, writer);
+			writer.write(System.lineSeparator());
+			writer.flush();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+	
 }
@@ -1,6 +1,9 @@
 package com.blockchain.cryptocurrency.block.printer;
 
+import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -10,8 +13,10 @@ import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import com.blockchain.cryptocurrency.block.CurrencyBlock;
@@ -20,6 +25,9 @@ import com.blockchain.cryptocurrency.block.printer.format.CurrencyBlockPrinterTe
 
 import lombok.extern.slf4j.Slf4j;
 
+/**
+ * A new file at <code>blockchain.printer.directory</code> for each report, with the extension of its template, written through a buffer Block by Block
+ */
 @Component
 @CurrencyBlockPrinterType(OutputType.File)
 @Slf4j
@@ -28,6 +36,9 @@ public class CurrencyBlockPrinterFile implements CurrencyBlockPrinter {
 	@Autowired
 	private CurrencyBlockPrinterTemplate template;
 	
+	@Value("${blockchain.printer.directory:src/main/resources/reports}")
+	private String directory;
+	
 	@Override
 	public void print(List<CurrencyBlock> listBlocks) {
 		this.print(listBlocks, template);
@@ -35,20 +46,32 @@ public class CurrencyBlockPrinterFile implements CurrencyBlockPrinter {
 	
 	@Override
 	public void print(List<CurrencyBlock> listBlocks, CurrencyBlockPrinterTemplate template) {
+		this.print(listBlocks.stream(), listBlocks.size(), template);
+	}
+	
+	@Override
+	public void print(Stream<CurrencyBlock> blocks, int size) {
+		this.print(blocks, size, template);
+	}
+	
+	@Override
+	public void print(Stream<CurrencyBlock> blocks, int size, CurrencyBlockPrinterTemplate template) {
 		DateTimeFormatter  formatter = DateTimeFormatter.ofPattern("yyyy_MM_dd__HHmm");
 		String             uuid      = UUID.randomUUID().toString().replace("-", "");
 		String             fileName  = "blockChain_" + formatter.format( Instant.now().atZone(ZoneId.systemDefault() ) ) + "_" + uuid; 
-		Path               pathFile  = Paths.get("src/main/resources/reports/" + fileName + ".txt");
-		//Path             pathFile  = Paths.get(fileName + ".txt");
+		Path               pathFile  = Paths.get(directory, fileName + "." + template.getFileExtension());
 		try {
+			Files.createDirectories(pathFile.toAbsolutePath().getParent());
 			Files.deleteIfExists(pathFile);
-			Files.write(pathFile, template.applyLayout(listBlocks).getBytes(), StandardOpenOption.CREATE_NEW );
+			// The platform charset, as the report was always written
+			try (Writer writer = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(pathFile, StandardOpenOption.CREATE_NEW)))) {
+				template.applyLayout(blocks.iterator(), size, writer);
+			}
 		} catch (IOException e) {
 			log.error(e.getMessage(),e);
 			throw new RuntimeException(e.getMessage(), e);
 		}
+		log.debug("BlockChain printed at {}", pathFile);
 	}
 
-	
-
 }
@@ -1,6 +1,11 @@
 package com.blockchain.cryptocurrency.block.printer;
 
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.util.Collections;
 import java.util.List;
+import java.util.stream.Stream;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
@@ -23,10 +28,31 @@ public class CurrencyBlockPrinterLogger implements CurrencyBlockPrinter {
 	public void print(List<CurrencyBlock> listBlocks, CurrencyBlockPrinterTemplate template) {
 		log.info( template.applyLayout(listBlocks) );
 	}
+	
+	/**
+	 * A message for each Block, so the whole chain is never in memory
+	 */
+	@Override
+	public void print(Stream<CurrencyBlock> blocks, int size, CurrencyBlockPrinterTemplate template) {
+		blocks.forEach(block -> {
+			StringWriter writer = new StringWriter();
+			try {
+				template.applyLayout(Collections.singletonList(block).iterator(), size, writer);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+			log.info( writer.toString() );
+		});
+	}
 
 	@Override
 	public void print(List<CurrencyBlock> listBlocks) {
 		this.print(listBlocks, template);
 	}
 	
+	@Override
+	public void print(Stream<CurrencyBlock> blocks, int size) {
+		this.print(blocks, size, template);
+	}
+	
 }
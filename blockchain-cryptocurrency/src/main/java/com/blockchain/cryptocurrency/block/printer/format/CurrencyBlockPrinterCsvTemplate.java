@@ -0,0 +1,79 @@
+package com.blockchain.cryptocurrency.block.printer.format;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Iterator;
+
+import org.springframework.stereotype.Component;
+
+import com.blockchain.cryptocurrency.block.CurrencyBlock;
+import com.blockchain.cryptocurrency.block.printer.format.CurrencyBlockPrinterFormat.Format;
+import com.blockchain.cryptocurrency.transaction.Transaction;
+import com.blockchain.cryptocurrency.wallet.Wallet;
+
+/**
+ * A header and then a row per Transaction, with the columns of its Block first (<a href="https://tools.ietf.org/html/rfc4180" target="_blank">RFC 4180</a>,
+ * the fields quoted only when they need it). The wallets are their owner and the fingerprint of their public key, the times are milliseconds of the epoch.
+ * Written row by row to the writer.
+ */
+@Component
+@CurrencyBlockPrinterFormat(Format.CSV)
+public class CurrencyBlockPrinterCsvTemplate implements CurrencyBlockPrinterTemplate {
+
+	public static final String HEADER = "block_height,block_hash,block_previous,block_timestamp,block_nonce,block_merkle_root,"
+	                                  + "transaction_hash,transaction_timestamp,sender,sender_key,recipient,recipient_key,value,inputs,outputs";
+
+	private static final String CRLF = "\r\n";
+
+	@Override
+	public void applyLayout(Iterator<CurrencyBlock> blocks, int size, Writer writer) throws IOException {
+		writer.write(HEADER);
+		writer.write(CRLF);
+		StringBuilder row = new StringBuilder();
+		while ( blocks.hasNext() ) {
+			CurrencyBlock block = blocks.next();
+			for (Transaction transaction : block.getTransactions()) {
+				row.setLength(0);
+				row.append(block.getHeight()).append(',');
+				field(row, block.getHash());
+				field(row, block.getPreviousBlock());
+				row.append(block.getTimeStamp()).append(',');
+				row.append(block.getNonce()).append(',');
+				field(row, block.getMerkleRoot());
+				field(row, transaction.getHash());
+				row.append(transaction.getTimeStamp()).append(',');
+				wallet(row, transaction.getSender());
+				wallet(row, transaction.getRecipient());
+				row.append(transaction.getValue().toPlainString()).append(',');
+				row.append(transaction.getInputs() == null ? 0 : transaction.getInputs().size()).append(',');
+				row.append(transaction.getOutputs().size());
+				writer.append(row).append(CRLF);
+			}
+		}
+	}
+
+	@Override
+	public String getFileExtension() {
+		return "csv";
+	}
+
+	private static void wallet(StringBuilder row, Wallet wallet) {
+		field(row, wallet.getOwner());
+		field(row, wallet.getKeyIdentity().getFingerprint());
+	}
+
+	/**
+	 * The value and its separator, quoted when it has a comma, a quote or a line break
+	 */
+	private static void field(StringBuilder row, String value) {
+		if ( value != null ) {
+			if ( value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0 ) {
+				row.append(value);
+			} else {
+				row.append('"').append(value.replace("\"", "\"\"")).append('"');
+			}
+		}
+		row.append(',');
+	}
+
+}
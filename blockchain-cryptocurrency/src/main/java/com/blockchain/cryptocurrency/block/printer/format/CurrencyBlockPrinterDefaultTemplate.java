@@ -1,107 +1,201 @@
 package com.blockchain.cryptocurrency.block.printer.format;
 
+import java.io.IOException;
+import java.io.Writer;
 import java.text.DecimalFormat;
 import java.text.NumberFormat;
 import java.text.SimpleDateFormat;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.commons.lang.StringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
 import org.springframework.stereotype.Component;
 
 import com.blockchain.cryptocurrency.block.CurrencyBlock;
+import com.blockchain.cryptocurrency.block.printer.format.CurrencyBlockPrinterFormat.Format;
+import com.blockchain.cryptocurrency.concurrent.WorkerPool;
 
+/**
+ * The box-drawing layout of the Blocks.
+ *
+ * Written to a {@link Writer}, the Blocks are formatted on the workers of the {@link WorkerPool} (if there is more than one),
+ * each one taking a chunk of <code>blockchain.printer.chunkSize</code> Blocks, and written back in the order they came. Only a few chunks per worker
+ * are formatted ahead of the writer, so the memory stays the one of those chunks whatever the size of the chain.
+ * The formatters of numbers and dates are not thread-safe, each thread has its own ones.
+ */
+@Primary
 @Component
+@CurrencyBlockPrinterFormat(Format.Text)
 public class CurrencyBlockPrinterDefaultTemplate implements CurrencyBlockPrinterTemplate {
 	
-	protected DecimalFormat    numberFormatter4Digits = new DecimalFormat("0000");
-	protected DecimalFormat    nonceFormatter         = new DecimalFormat("###,###,#00");
-	protected NumberFormat     currencyFormatter      = NumberFormat.getCurrencyInstance();
-	protected SimpleDateFormat dateFormatter          = new SimpleDateFormat("dd/MM/yyyy hh:mm:ss.SSS");
+	// The chunks formatted ahead of the writer, per worker
+	private static final int AHEAD = 2;
+	
+	private final ThreadLocal<Formatters> formatters = ThreadLocal.withInitial(Formatters::new);
+	
+	@Value("${blockchain.printer.chunkSize:64}")
+	private int chunkSize;
+	
+	@Autowired
+	private WorkerPool workers;
+	
+	@Override
+	public String getFileExtension() {
+		return "txt";
+	}
 	
 	@Override
-	public String applyLayout(List<CurrencyBlock> listBlocks) {
-		StringBuffer blockToString = new StringBuffer();
+	public void applyLayout(Iterator<CurrencyBlock> blocks, int size, Writer writer) throws IOException {
+		if ( workers.getParallelism() <= 1 ) {
+			StringBuilder blockToString = new StringBuilder();
+			while ( blocks.hasNext() ) {
+				blockToString.setLength(0);
+				applyLayout(blocks.next(), size, blockToString);
+				writer.append(blockToString);
+			}
+			return;
+		}
 		
-		listBlocks.forEach(block -> {
-			String genesis = block.getHeight() == 0 ? "  ► genesis ◄" : " of " + numberFormatter4Digits.format(listBlocks.size() - 1);
-			
-			final int longitude = 97;
-			blockToString.append("╔").append(StringUtils.repeat("═",longitude+8)).append("╗").append("\n");
-			int longitudeHeader = longitude - 15;
-			blockToString.append("║ BLOCK #").append(printBlockChainLineBlock(numberFormatter4Digits.format(block.getHeight()) + genesis, longitude));
-			blockToString.append("║       ► Hash........: ").append(printBlockChainLineBlock(block.getHash(), longitudeHeader));
-			blockToString.append("║       ► Previous....: ").append(printBlockChainLineBlock(block.getPreviousBlock(), longitudeHeader));
-			blockToString.append("║       ► Next........: ").append(printBlockChainLineBlock(block.getNextBlock(), longitudeHeader));
-			blockToString.append("║       ► TimeStamp...: ").append(printBlockChainLineBlock(dateFormatter.format(block.getTimeStamp()), longitudeHeader));
-			blockToString.append("║       ► Nonce.......: ").append(printBlockChainLineBlock(nonceFormatter.format(block.getNonce()), longitudeHeader));
-			blockToString.append("║       ► Merkle Root.: ").append(printBlockChainLineBlock(block.getMerkleRoot(), longitudeHeader));
-			blockToString.append("╟─────────┬").append(StringUtils.repeat("─",longitudeHeader+13)).append("╢");
-			
-			AtomicInteger counterTransaction = new AtomicInteger();
-			block.getTransactions().forEach(transaction -> {
-				
-				int longitudeTransaction = (longitude + 10);
-				StringBuilder transactionLine = new StringBuilder();
-				transactionLine.append("\n║    #").append(numberFormatter4Digits.format(counterTransaction.get() + 1));
-				if ( counterTransaction.incrementAndGet() == block.getTransactions().size() ) {
-					transactionLine.append("├").append("─► ");
-				} else { 
-					transactionLine.append("├").append("─► ");
+		// The chunks being formatted, in the order of the Blocks
+		Deque<Future<String>> formatting = new ArrayDeque<Future<String>>();
+		try {
+			while ( blocks.hasNext() ) {
+				List<CurrencyBlock> chunk = new ArrayList<CurrencyBlock>(chunkSize);
+				while ( blocks.hasNext() && chunk.size() < chunkSize ) {
+					chunk.add(blocks.next());
 				}
-				transactionLine.append("TRANSACTION: Hash.......: ").append(transaction.getHash());
-				blockToString.append(transactionLine.toString());
-				blockToString.append( StringUtils.repeat(" ", longitudeTransaction - transactionLine.length() )).append("║");
-				
-				transactionLine.delete(0, transactionLine.length());
-				transactionLine.append("\n║         │                Value......: ");
-				transactionLine.append(StringUtils.rightPad(currencyFormatter.format(transaction.getValue().floatValue()),11));
-				blockToString.append(transactionLine.toString());
-				blockToString.append(StringUtils.repeat(" ", longitudeTransaction - transactionLine.length())).append("║");
-				
-				transactionLine.delete(0, transactionLine.length());
-				transactionLine.append("\n║         │                TimeStamp..: ");
-				transactionLine.append(StringUtils.rightPad(dateFormatter.format(transaction.getTimeStamp()),11));
-				blockToString.append(transactionLine.toString());
-				blockToString.append(StringUtils.repeat(" ", longitudeTransaction - transactionLine.length())).append("║");
-				
-				transactionLine.delete(0, transactionLine.length());
-				transactionLine.append("\n║         │                From → To..: ");
-				transactionLine.append(transaction.getSender().getOwner());
-				transactionLine.append(" ---→ " + StringUtils.rightPad(transaction.getRecipient().getOwner(),7));
-				blockToString.append(transactionLine.toString());
-				blockToString.append(StringUtils.repeat(" ", longitudeTransaction - transactionLine.length())).append("║");
-				
-				blockToString.append("\n║         │   INPUTS --→").append(StringUtils.repeat(" ",longitudeTransaction - 25)).append("║");
-				if ( transaction.getInputs() != null ) {
-					transaction.getInputs().forEach(inputs -> {
-						StringBuilder line = new StringBuilder();
-						line.append("\n║         │             + ");
-						line.append(StringUtils.leftPad(currencyFormatter.format(inputs.getUTXO().getValue().floatValue()),10)).append(" FROM ");
-						line.append(StringUtils.rightPad(inputs.getUTXO().getRecipient().getOwner(), 10));
-						
-						blockToString.append(line.toString()).append(StringUtils.repeat(" ", longitudeTransaction - line.length())).append("║");
-					});
+				if ( formatting.isEmpty() && !blocks.hasNext() ) {
+					// A single chunk, no need of the workers
+					writer.write(formatChunk(chunk, size));
+					return;
 				}
-				
-				blockToString.append("\n║         │   ←-- OUTPUTS").append(StringUtils.repeat(" ",longitudeTransaction - 26)).append("║");
-				transaction.getOutputs().forEach(outputs -> {
+				formatting.add(workers.submit(() -> formatChunk(chunk, size)));
+				if ( formatting.size() >= workers.getParallelism() * AHEAD ) {
+					writer.write(next(formatting));
+				}
+			}
+			while ( !formatting.isEmpty() ) {
+				writer.write(next(formatting));
+			}
+		} finally {
+			formatting.forEach(future -> future.cancel(true));
+		}
+	}
+	
+	private String formatChunk(List<CurrencyBlock> chunk, int size) {
+		StringBuilder chunkToString = new StringBuilder();
+		for (CurrencyBlock block : chunk) {
+			applyLayout(block, size, chunkToString);
+		}
+		return chunkToString.toString();
+	}
+	
+	private static String next(Deque<Future<String>> formatting) {
+		try {
+			return formatting.removeFirst().get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException("Interrupted while printing the BlockChain", e);
+		} catch (ExecutionException e) {
+			throw new RuntimeException("Error printing the BlockChain", e.getCause());
+		}
+	}
+	
+	/**
+	 * The layout of one Block, appended to <code>blockToString</code>
+	 */
+	protected void applyLayout(CurrencyBlock block, int size, StringBuilder blockToString) {
+		Formatters       formatters             = this.formatters.get();
+		DecimalFormat    numberFormatter4Digits = formatters.numberFormatter4Digits;
+		DecimalFormat    nonceFormatter         = formatters.nonceFormatter;
+		NumberFormat     currencyFormatter      = formatters.currencyFormatter;
+		SimpleDateFormat dateFormatter          = formatters.dateFormatter;
+		
+		String genesis = block.getHeight() == 0 ? "  ► genesis ◄" : " of " + numberFormatter4Digits.format(size - 1);
+		
+		final int longitude = 97;
+		blockToString.append("╔").append(StringUtils.repeat("═",longitude+8)).append("╗").append("\n");
+		int longitudeHeader = longitude - 15;
+		blockToString.append("║ BLOCK #").append(printBlockChainLineBlock(numberFormatter4Digits.format(block.getHeight()) + genesis, longitude));
+		blockToString.append("║       ► Hash........: ").append(printBlockChainLineBlock(block.getHash(), longitudeHeader));
+		blockToString.append("║       ► Previous....: ").append(printBlockChainLineBlock(block.getPreviousBlock(), longitudeHeader));
+		blockToString.append("║       ► Next........: ").append(printBlockChainLineBlock(block.getNextBlock(), longitudeHeader));
+		blockToString.append("║       ► TimeStamp...: ").append(printBlockChainLineBlock(dateFormatter.format(block.getTimeStamp()), longitudeHeader));
+		blockToString.append("║       ► Nonce.......: ").append(printBlockChainLineBlock(nonceFormatter.format(block.getNonce()), longitudeHeader));
+		blockToString.append("║       ► Merkle Root.: ").append(printBlockChainLineBlock(block.getMerkleRoot(), longitudeHeader));
+		blockToString.append("╟─────────┬").append(StringUtils.repeat("─",longitudeHeader+13)).append("╢");
+		
+		AtomicInteger counterTransaction = new AtomicInteger();
+		block.getTransactions().forEach(transaction -> {
+			
+			int longitudeTransaction = (longitude + 10);
+			StringBuilder transactionLine = new StringBuilder();
+			transactionLine.append("\n║    #").append(numberFormatter4Digits.format(counterTransaction.get() + 1));
+			if ( counterTransaction.incrementAndGet() == block.getTransactions().size() ) {
+				transactionLine.append("├").append("─► ");
+			} else { 
+				transactionLine.append("├").append("─► ");
+			}
+			transactionLine.append("TRANSACTION: Hash.......: ").append(transaction.getHash());
+			blockToString.append(transactionLine.toString());
+			blockToString.append( StringUtils.repeat(" ", longitudeTransaction - transactionLine.length() )).append("║");
+			
+			transactionLine.delete(0, transactionLine.length());
+			transactionLine.append("\n║         │                Value......: ");
+			transactionLine.append(StringUtils.rightPad(currencyFormatter.format(transaction.getValue().floatValue()),11));
+			blockToString.append(transactionLine.toString());
+			blockToString.append(StringUtils.repeat(" ", longitudeTransaction - transactionLine.length())).append("║");
+			
+			transactionLine.delete(0, transactionLine.length());
+			transactionLine.append("\n║         │                TimeStamp..: ");
+			transactionLine.append(StringUtils.rightPad(dateFormatter.format(transaction.getTimeStamp()),11));
+			blockToString.append(transactionLine.toString());
+			blockToString.append(StringUtils.repeat(" ", longitudeTransaction - transactionLine.length())).append("║");
+			
+			transactionLine.delete(0, transactionLine.length());
+			transactionLine.append("\n║         │                From → To..: ");
+			transactionLine.append(transaction.getSender().getOwner());
+			transactionLine.append(" ---→ " + StringUtils.rightPad(transaction.getRecipient().getOwner(),7));
+			blockToString.append(transactionLine.toString());
+			blockToString.append(StringUtils.repeat(" ", longitudeTransaction - transactionLine.length())).append("║");
+			
+			blockToString.append("\n║         │   INPUTS --→").append(StringUtils.repeat(" ",longitudeTransaction - 25)).append("║");
+			if ( transaction.getInputs() != null ) {
+				transaction.getInputs().forEach(inputs -> {
 					StringBuilder line = new StringBuilder();
-					line.append("\n║         │             - ");
-					line.append(StringUtils.leftPad(currencyFormatter.format(outputs.getValue().floatValue()),10)).append(" TO   ");
-					line.append(StringUtils.rightPad(outputs.getRecipient().getOwner(), 10));
+					line.append("\n║         │             + ");
+					line.append(StringUtils.leftPad(currencyFormatter.format(inputs.getUTXO().getValue().floatValue()),10)).append(" FROM ");
+					line.append(StringUtils.rightPad(inputs.getUTXO().getRecipient().getOwner(), 10));
 					
 					blockToString.append(line.toString()).append(StringUtils.repeat(" ", longitudeTransaction - line.length())).append("║");
 				});
+			}
+			
+			blockToString.append("\n║         │   ←-- OUTPUTS").append(StringUtils.repeat(" ",longitudeTransaction - 26)).append("║");
+			transaction.getOutputs().forEach(outputs -> {
+				StringBuilder line = new StringBuilder();
+				line.append("\n║         │             - ");
+				line.append(StringUtils.leftPad(currencyFormatter.format(outputs.getValue().floatValue()),10)).append(" TO   ");
+				line.append(StringUtils.rightPad(outputs.getRecipient().getOwner(), 10));
 				
-				if ( counterTransaction.get() != block.getTransactions().size() ) {
-					blockToString.append("\n╟─────────┼──────────────").append(StringUtils.repeat("─", longitudeTransaction - 26)).append("╢");
-				}
+				blockToString.append(line.toString()).append(StringUtils.repeat(" ", longitudeTransaction - line.length())).append("║");
 			});
 			
-			blockToString.append("\n╚═════════╧").append(StringUtils.repeat("═",longitude-2)).append("╝").append("\n");
+			if ( counterTransaction.get() != block.getTransactions().size() ) {
+				blockToString.append("\n╟─────────┼──────────────").append(StringUtils.repeat("─", longitudeTransaction - 26)).append("╢");
+			}
 		});
-		return blockToString.toString();
+		
+		blockToString.append("\n╚═════════╧").append(StringUtils.repeat("═",longitude-2)).append("╝").append("\n");
 	}
 
 	private String printBlockChainLineBlock(String value, int longitude) {
@@ -112,4 +206,11 @@ public class CurrencyBlockPrinterDefaultTemplate implements CurrencyBlockPrinter
 		String fillUp     = StringUtils.repeat(" ", sizeLeft);
 		return value + fillUp + "║\n";
 	}
+	
+	private static class Formatters {
+		private final DecimalFormat    numberFormatter4Digits = new DecimalFormat("0000");
+		private final DecimalFormat    nonceFormatter         = new DecimalFormat("###,###,#00");
+		private final NumberFormat     currencyFormatter      = NumberFormat.getCurrencyInstance();
+		private final SimpleDateFormat dateFormatter          = new SimpleDateFormat("dd/MM/yyyy hh:mm:ss.SSS");
+	}
 }
@@ -0,0 +1,31 @@
+package com.blockchain.cryptocurrency.block.printer.format;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+
+/**
+ * The format of a {@link CurrencyBlockPrinterTemplate}, the text one is injected when none is asked for
+ */
+@Target({ElementType.FIELD,
+         ElementType.METHOD,
+         ElementType.TYPE,
+         ElementType.PARAMETER})
+@Retention(RetentionPolicy.RUNTIME)
+@Qualifier
+public @interface CurrencyBlockPrinterFormat {
+
+	Format value();
+	
+	public static enum Format {
+		/** The boxes of text, to be read by a person */
+		Text,
+		/** A JSON object per Block, one per line */
+		NDJSON,
+		/** A row per Transaction, with the columns of its Block */
+		CSV
+	}
+}
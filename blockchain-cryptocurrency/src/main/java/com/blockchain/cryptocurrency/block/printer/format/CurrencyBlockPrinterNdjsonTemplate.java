@@ -0,0 +1,102 @@
+package com.blockchain.cryptocurrency.block.printer.format;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Iterator;
+
+import org.springframework.stereotype.Component;
+
+import com.blockchain.cryptocurrency.block.CurrencyBlock;
+import com.blockchain.cryptocurrency.block.printer.format.CurrencyBlockPrinterFormat.Format;
+import com.blockchain.cryptocurrency.transaction.Transaction;
+import com.blockchain.cryptocurrency.transaction.TransactionInput;
+import com.blockchain.cryptocurrency.transaction.TransactionOutput;
+import com.blockchain.cryptocurrency.wallet.Wallet;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+/**
+ * A JSON object per Block, one per line (<a href="http://ndjson.org" target="_blank">NDJSON</a>), with its Transactions, their inputs and outputs.
+ * Written by a streaming generator straight to the writer, nothing is built in memory but its buffer.
+ * The wallets are their owner and the fingerprint of their public key, the times are milliseconds of the epoch.
+ */
+@Component
+@CurrencyBlockPrinterFormat(Format.NDJSON)
+public class CurrencyBlockPrinterNdjsonTemplate implements CurrencyBlockPrinterTemplate {
+
+	private final JsonFactory jsonFactory = new JsonFactory()
+			.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+			.setRootValueSeparator(null);
+
+	@Override
+	public void applyLayout(Iterator<CurrencyBlock> blocks, int size, Writer writer) throws IOException {
+		try (JsonGenerator json = jsonFactory.createGenerator(writer)) {
+			while ( blocks.hasNext() ) {
+				writeBlock(json, blocks.next());
+				json.writeRaw('\n');
+			}
+		}
+	}
+
+	@Override
+	public String getFileExtension() {
+		return "ndjson";
+	}
+
+	private void writeBlock(JsonGenerator json, CurrencyBlock block) throws IOException {
+		json.writeStartObject();
+		json.writeNumberField("height", block.getHeight());
+		json.writeStringField("hash", block.getHash());
+		json.writeStringField("previousBlock", block.getPreviousBlock());
+		json.writeStringField("nextBlock", block.getNextBlock());
+		json.writeNumberField("timeStamp", block.getTimeStamp());
+		json.writeNumberField("nonce", block.getNonce());
+		json.writeStringField("merkleRoot", block.getMerkleRoot());
+		json.writeArrayFieldStart("transactions");
+		for (Transaction transaction : block.getTransactions()) {
+			writeTransaction(json, transaction);
+		}
+		json.writeEndArray();
+		json.writeEndObject();
+	}
+
+	private void writeTransaction(JsonGenerator json, Transaction transaction) throws IOException {
+		json.writeStartObject();
+		json.writeStringField("hash", transaction.getHash());
+		json.writeNumberField("timeStamp", transaction.getTimeStamp());
+		writeWallet(json, "sender", transaction.getSender());
+		writeWallet(json, "recipient", transaction.getRecipient());
+		json.writeNumberField("value", transaction.getValue());
+		json.writeArrayFieldStart("inputs");
+		if ( transaction.getInputs() != null ) {
+			for (TransactionInput input : transaction.getInputs()) {
+				json.writeStartObject();
+				json.writeStringField("hash", input.getHash());
+				if ( input.getUTXO() != null ) {
+					json.writeNumberField("value", input.getUTXO().getValue());
+					writeWallet(json, "owner", input.getUTXO().getRecipient());
+				}
+				json.writeEndObject();
+			}
+		}
+		json.writeEndArray();
+		json.writeArrayFieldStart("outputs");
+		for (TransactionOutput output : transaction.getOutputs()) {
+			json.writeStartObject();
+			json.writeStringField("hash", output.getHash());
+			json.writeNumberField("value", output.getValue());
+			writeWallet(json, "recipient", output.getRecipient());
+			json.writeEndObject();
+		}
+		json.writeEndArray();
+		json.writeEndObject();
+	}
+
+	private void writeWallet(JsonGenerator json, String field, Wallet wallet) throws IOException {
+		json.writeObjectFieldStart(field);
+		json.writeStringField("owner", wallet.getOwner());
+		json.writeStringField("key", wallet.getKeyIdentity().getFingerprint());
+		json.writeEndObject();
+	}
+
+}
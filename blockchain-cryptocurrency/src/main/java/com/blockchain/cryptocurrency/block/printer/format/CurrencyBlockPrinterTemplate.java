@@ -1,11 +1,36 @@
 package com.blockchain.cryptocurrency.block.printer.format;
 
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.Iterator;
 import java.util.List;
 
 import com.blockchain.cryptocurrency.block.CurrencyBlock;
 
 public interface CurrencyBlockPrinterTemplate {
 
-	public String applyLayout(List<CurrencyBlock> listBlocks);
+	public default String applyLayout(List<CurrencyBlock> listBlocks) {
+		StringWriter writer = new StringWriter();
+		try {
+			applyLayout(listBlocks.iterator(), listBlocks.size(), writer);
+		} catch (IOException e) {
+			// Not with a StringWriter
+			throw new UncheckedIOException(e);
+		}
+		return writer.toString();
+	}
 
-}
\ No newline at end of file
+	/**
+	 * The same layout written Block by Block, only the one being written is kept in memory
+	 * @param size the number of Blocks (the last height shown is <code>size - 1</code>)
+	 */
+	public void applyLayout(Iterator<CurrencyBlock> blocks, int size, Writer writer) throws IOException;
+
+	/**
+	 * The extension of the files written with this layout
+	 */
+	public String getFileExtension();
+
+}
@@ -0,0 +1,67 @@
+package com.blockchain.cryptocurrency.block.repo;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.blockchain.cryptocurrency.block.CurrencyBlock;
+import com.blockchain.cryptocurrency.block.CurrencyBlockChain;
+import com.blockchain.cryptocurrency.codec.CanonicalCodec;
+import com.blockchain.cryptocurrency.transaction.Transaction;
+import com.blockchain.cryptocurrency.transaction.TransactionInput;
+import com.blockchain.cryptocurrency.transaction.TransactionOutput;
+import com.blockchain.cryptocurrency.wallet.Wallet;
+import com.blockchain.cryptocurrency.wallet.WalletService;
+import com.blockchain.security.Security;
+import com.blockchain.security.SecurityEncryption;
+import com.blockchain.security.SecurityEncryption.Algorithm;
+
+/**
+ * The Blocks of the {@link BlockStore} in their {@link CanonicalCodec} encoding, decoded with the Wallets and the services of this BlockChain.
+ */
+@Component
+public class BlockCodec implements CanonicalCodec.Resolver {
+
+	@Autowired
+	private WalletService walletService;
+
+	@Autowired
+	private CurrencyBlockChain currencyBlockChain;
+
+	@Autowired
+	@SecurityEncryption(Algorithm.ECDSA)
+	private Security security;
+
+	/**
+	 * The encoded Block, valid until the next encoding of the same thread (see {@link CanonicalCodec})
+	 */
+	public ByteBuffer encode(CurrencyBlock block) {
+		return CanonicalCodec.encode(block);
+	}
+
+	public CurrencyBlock decode(ByteBuffer in) {
+		return CanonicalCodec.decodeBlock(in, this);
+	}
+
+	/**
+	 * Only the hash of the encoded Block, without decoding the rest of it
+	 */
+	public String decodeHash(ByteBuffer in) {
+		return CanonicalCodec.decodeBlockHash(in);
+	}
+
+	@Override
+	public Wallet resolveWallet(String owner, byte[] publicKey) {
+		return walletService.resolveWallet(owner, publicKey);
+	}
+
+	@Override
+	public Transaction newTransaction(String hash, BigDecimal value, byte[] signature, Wallet sender, Wallet recipient, String nonce, long timeStamp,
+			                          List<TransactionInput> inputs, List<TransactionOutput> outputs) {
+		return new Transaction(security, currencyBlockChain, hash, value, signature, sender, recipient, nonce, timeStamp, inputs, outputs);
+	}
+
+}
@@ -0,0 +1,420 @@
+package com.blockchain.cryptocurrency.block.repo;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.zip.CRC32;
+
+import org.apache.commons.codec.DecoderException;
+import org.apache.commons.codec.binary.Hex;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Append-only log of the encoded Blocks, split in segments (<code>blocks-&lt;first height&gt;.log</code>).
+ * <ul>
+ *   <li>Each record is <code>[length(4)][crc32(4)][payload]</code>, the payload being a Block encoded by the {@link com.blockchain.cryptocurrency.codec.CanonicalCodec}.</li>
+ *   <li>When a segment is full it is forced to disk and sealed with its index (<code>.idx</code>: offset(4) + hash(32) of each Block),
+ *       the appends to the current segment are forced every <code>fsyncEvery</code> Blocks.</li>
+ *   <li>The offsets of all Blocks (by height) and their heights (by hash) are kept in memory, loaded at startup from the indexes of the sealed segments,
+ *       only the last segment is scanned, and cut at the first torn or corrupted record.</li>
+ *   <li>The Blocks can be read copied to the heap ({@link #read(int)}) or as slices of the memory-mapped segments ({@link #map(int)}, the sealed ones).</li>
+ * </ul>
+ */
+@Slf4j
+public class BlockStore implements Closeable {
+
+	private static final String SEGMENT_PREFIX = "blocks-";
+	private static final String SEGMENT_SUFFIX = ".log";
+	private static final String INDEX_SUFFIX   = ".idx";
+	private static final int    RECORD_HEADER  = 8;
+	private static final int    HASH_LENGTH    = 32;
+	private static final int    INDEX_ENTRY    = 4 + HASH_LENGTH;
+
+	private final Path                       directory;
+	private final long                       segmentSize;
+	private final int                        fsyncEvery;
+	private final Function<ByteBuffer,String> hashOf;
+
+	private final List<Segment>       segments = new ArrayList<Segment>();
+	private final Map<String,Integer> heights  = new HashMap<String,Integer>();
+	private int[]                     offsets  = new int[1024];
+	private byte[]                    hashs    = new byte[1024 * HASH_LENGTH];
+	private int                       size;
+	private int                       unforced;
+
+	/**
+	 * @param hashOf the hash of an encoded Block, needed to index the records of the last segment when it is scanned
+	 */
+	public BlockStore(Path directory, long segmentSize, int fsyncEvery, Function<ByteBuffer,String> hashOf) {
+		if ( segmentSize > Integer.MAX_VALUE ) {
+			throw new IllegalArgumentException("The segments are limited to " + Integer.MAX_VALUE + " bytes");
+		}
+		this.directory   = directory;
+		this.segmentSize = segmentSize;
+		this.fsyncEvery  = Math.max(1, fsyncEvery);
+		this.hashOf      = hashOf;
+	}
+
+	public synchronized void open() {
+		try {
+			Files.createDirectories(directory);
+			List<Path> files = listSegments();
+			for (int i = 0; i < files.size(); i++) {
+				Path    file     = files.get(i);
+				boolean last     = i == files.size() - 1;
+				Segment segment  = new Segment(firstHeightOf(file), file, FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE));
+				if ( segment.firstHeight != size ) {
+					throw new IllegalStateException("The segment " + file + " does not follow the Block #" + (size - 1));
+				}
+				segments.add(segment);
+				if ( !last && Files.exists(indexOf(file)) ) {
+					loadIndex(segment);
+				} else {
+					scan(segment);
+					if ( !last ) {
+						// Crashed while it was being sealed
+						writeIndex(segment);
+					}
+				}
+			}
+			if ( segments.isEmpty() ) {
+				newSegment();
+			}
+			log.info("Block store {} opened with {} Blocks in {} segments", directory, size, segments.size());
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * @return the height of the Block appended
+	 */
+	public synchronized int append(ByteBuffer payload, String hash) {
+		try {
+			Segment current = current();
+			int     length  = payload.remaining();
+			if ( current.length > 0 && current.length + RECORD_HEADER + length > segmentSize ) {
+				seal(current);
+				current = newSegment();
+			}
+
+			CRC32 crc = new CRC32();
+			crc.update(payload.duplicate());
+			ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER).putInt(length).putInt((int) crc.getValue());
+			header.flip();
+			long position = current.length;
+			current.channel.position(position);
+			while ( header.hasRemaining() || payload.hasRemaining() ) {
+				position += current.channel.write(new ByteBuffer[] {header, payload});
+			}
+
+			int height = size;
+			index(height, (int) current.length, decodeHex(hash));
+			current.length = position;
+			if ( ++unforced >= fsyncEvery ) {
+				force();
+			}
+			return height;
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	public ByteBuffer read(int height) {
+		Segment segment;
+		int     offset;
+		synchronized (this) {
+			checkHeight(height);
+			segment = segmentOf(height);
+			offset  = offsets[height];
+		}
+		try {
+			ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER);
+			readFully(segment.channel, header, offset);
+			ByteBuffer payload = ByteBuffer.allocate(header.getInt(0));
+			readFully(segment.channel, payload, offset + RECORD_HEADER);
+			return payload;
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * The payload of the Block as a read-only slice of its memory-mapped segment, nothing is copied to the heap.
+	 * Only the sealed segments are mapped, once and whole: the Blocks of the current one, still growing, are read ({@link #read(int)}).
+	 */
+	public ByteBuffer map(int height) {
+		MappedByteBuffer mapped;
+		int              offset;
+		synchronized (this) {
+			checkHeight(height);
+			Segment segment = segmentOf(height);
+			if ( segment == current() ) {
+				mapped = null;
+			} else {
+				try {
+					if ( segment.mapped == null ) {
+						segment.mapped = segment.channel.map(MapMode.READ_ONLY, 0, segment.length);
+					}
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+				mapped = segment.mapped;
+			}
+			offset = offsets[height];
+		}
+		if ( mapped == null ) {
+			return read(height).asReadOnlyBuffer();
+		}
+		ByteBuffer record = mapped.duplicate();
+		int        length = record.getInt(offset);
+		record.position(offset + RECORD_HEADER).limit(offset + RECORD_HEADER + length);
+		return record.slice().asReadOnlyBuffer();
+	}
+
+	public synchronized String hashAt(int height) {
+		checkHeight(height);
+		return Hex.encodeHexString(Arrays.copyOfRange(hashs, height * HASH_LENGTH, (height + 1) * HASH_LENGTH));
+	}
+
+	/**
+	 * @return the height of the Block with this hash, or -1 if there is none
+	 */
+	public synchronized int heightOf(String hash) {
+		Integer height = heights.get(hash);
+		return height == null ? -1 : height;
+	}
+
+	public synchronized int size() {
+		return size;
+	}
+
+	public synchronized void force() {
+		if ( unforced == 0 ) {
+			return;
+		}
+		try {
+			current().channel.force(false);
+			unforced = 0;
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	@Override
+	public synchronized void close() {
+		if ( segments.isEmpty() ) {
+			return;
+		}
+		force();
+		for (Segment segment : segments) {
+			try {
+				segment.channel.close();
+			} catch (IOException e) {
+				log.warn("Closing the segment {}: {}", segment.file, e.getMessage());
+			}
+		}
+		segments.clear();
+	}
+
+	/**
+	 * Close the store and remove all of its files
+	 */
+	public synchronized void delete() {
+		close();
+		try {
+			for (Path file : listSegments()) {
+				Files.deleteIfExists(indexOf(file));
+				Files.delete(file);
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		heights.clear();
+		size     = 0;
+		unforced = 0;
+	}
+
+	private void scan(Segment segment) throws IOException {
+		long       fileLength = segment.channel.size();
+		long       position   = 0;
+		ByteBuffer header     = ByteBuffer.allocate(RECORD_HEADER);
+		while ( position + RECORD_HEADER <= fileLength ) {
+			header.clear();
+			readFully(segment.channel, header, position);
+			int length   = header.getInt(0);
+			int checksum = header.getInt(4);
+			if ( length <= 0 || position + RECORD_HEADER + length > fileLength ) {
+				break;
+			}
+			ByteBuffer payload = ByteBuffer.allocate(length);
+			readFully(segment.channel, payload, position + RECORD_HEADER);
+			CRC32 crc = new CRC32();
+			crc.update(payload.array());
+			if ( (int) crc.getValue() != checksum ) {
+				break;
+			}
+			index(size, (int) position, decodeHex(hashOf.apply(payload)));
+			position += RECORD_HEADER + length;
+		}
+		if ( position < fileLength ) {
+			log.warn("Segment {} cut at {} of {} bytes, its last record was not completely written", segment.file, position, fileLength);
+			segment.channel.truncate(position);
+			segment.channel.force(true);
+		}
+		segment.length = position;
+	}
+
+	private void seal(Segment segment) throws IOException {
+		segment.channel.force(true);
+		unforced = 0;
+		writeIndex(segment);
+	}
+
+	private void writeIndex(Segment segment) throws IOException {
+		int        count = size - segment.firstHeight;
+		ByteBuffer index = ByteBuffer.allocate(count * INDEX_ENTRY);
+		for (int height = segment.firstHeight; height < size; height++) {
+			index.putInt(offsets[height]).put(hashs, height * HASH_LENGTH, HASH_LENGTH);
+		}
+		index.flip();
+
+		// Written aside and renamed, a half written index would be taken as a complete one
+		Path temporary = directory.resolve(indexOf(segment.file).getFileName() + ".tmp");
+		try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+			while ( index.hasRemaining() ) {
+				channel.write(index);
+			}
+			channel.force(true);
+		}
+		Files.move(temporary, indexOf(segment.file), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	private void loadIndex(Segment segment) throws IOException {
+		byte[]     bytes = Files.readAllBytes(indexOf(segment.file));
+		ByteBuffer index = ByteBuffer.wrap(bytes);
+		byte[]     hash  = new byte[HASH_LENGTH];
+		while ( index.remaining() >= INDEX_ENTRY ) {
+			int offset = index.getInt();
+			index.get(hash);
+			index(size, offset, hash);
+		}
+		segment.length = segment.channel.size();
+	}
+
+	private void index(int height, int offset, byte[] hash) {
+		if ( height == offsets.length ) {
+			offsets = Arrays.copyOf(offsets, offsets.length * 2);
+			hashs   = Arrays.copyOf(hashs, hashs.length * 2);
+		}
+		offsets[height] = offset;
+		System.arraycopy(hash, 0, hashs, height * HASH_LENGTH, HASH_LENGTH);
+		heights.put(Hex.encodeHexString(hash), height);
+		size = height + 1;
+	}
+
+	private Segment newSegment() throws IOException {
+		Path    file    = directory.resolve(String.format("%s%08d%s", SEGMENT_PREFIX, size, SEGMENT_SUFFIX));
+		Segment segment = new Segment(size, file, FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE));
+		segments.add(segment);
+		return segment;
+	}
+
+	private Segment current() {
+		if ( segments.isEmpty() ) {
+			throw new IllegalStateException("The Block store " + directory + " is not open");
+		}
+		return segments.get(segments.size() - 1);
+	}
+
+	private Segment segmentOf(int height) {
+		int low  = 0;
+		int high = segments.size() - 1;
+		while ( low < high ) {
+			int middle = (low + high + 1) >>> 1;
+			if ( segments.get(middle).firstHeight <= height ) {
+				low = middle;
+			} else {
+				high = middle - 1;
+			}
+		}
+		return segments.get(low);
+	}
+
+	private void checkHeight(int height) {
+		if ( height < 0 || height >= size ) {
+			throw new IndexOutOfBoundsException("Block #" + height + " of a store with " + size + " Blocks");
+		}
+	}
+
+	private List<Path> listSegments() throws IOException {
+		List<Path> files = new ArrayList<Path>();
+		if ( !Files.isDirectory(directory) ) {
+			return files;
+		}
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+			stream.forEach(files::add);
+		}
+		files.sort((a, b) -> Integer.compare(firstHeightOf(a), firstHeightOf(b)));
+		return files;
+	}
+
+	private static int firstHeightOf(Path file) {
+		String name = file.getFileName().toString();
+		return Integer.parseInt(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+	}
+
+	private static Path indexOf(Path segment) {
+		String name = segment.getFileName().toString();
+		return segment.resolveSibling(name.substring(0, name.length() - SEGMENT_SUFFIX.length()) + INDEX_SUFFIX);
+	}
+
+	private static byte[] decodeHex(String hash) {
+		try {
+			return Hex.decodeHex(hash.toCharArray());
+		} catch (DecoderException e) {
+			throw new IllegalArgumentException("The hash of a Block is not a SHA-256 hex: " + hash, e);
+		}
+	}
+
+	private static void readFully(FileChannel channel, ByteBuffer target, long position) throws IOException {
+		while ( target.hasRemaining() ) {
+			int read = channel.read(target, position + target.position());
+			if ( read < 0 ) {
+				throw new IOException("Unexpected end of the segment at " + (position + target.position()));
+			}
+		}
+		target.flip();
+	}
+
+	private static class Segment {
+		private final int         firstHeight;
+		private final Path        file;
+		private final FileChannel channel;
+		private long              length;
+		private MappedByteBuffer  mapped;
+
+		private Segment(int firstHeight, Path file, FileChannel channel) {
+			this.firstHeight = firstHeight;
+			this.file        = file;
+			this.channel     = channel;
+		}
+	}
+
+}
@@ -0,0 +1,130 @@
+package com.blockchain.cryptocurrency.block.repo;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * The checkpoints of the validations of the chain, in the directory of the {@link BlockStore}: <code>checkpoints.log</code>,
+ * records <code>[length(4)][crc32(4)][payload]</code> appended and forced one by one (they are a few, one per validation).
+ * The payload is opaque here, encoded by its owner. At startup the file is read up to its first torn or corrupted record, and cut there.
+ */
+@Slf4j
+public class CheckpointStore implements Closeable {
+
+	private static final String FILE          = "checkpoints.log";
+	private static final int    RECORD_HEADER = 8;
+
+	private final Path         file;
+	private final List<byte[]> checkpoints = new ArrayList<byte[]>();
+	private FileChannel        channel;
+
+	public CheckpointStore(Path directory) {
+		this.file = directory.resolve(FILE);
+	}
+
+	public synchronized void open() {
+		try {
+			Files.createDirectories(file.getParent());
+			checkpoints.clear();
+			long valid = Files.exists(file) ? load() : 0;
+			channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+			if ( valid < channel.size() ) {
+				log.warn("Checkpoints {} cut at {} of {} bytes, its last record was not completely written", file, valid, channel.size());
+				channel.truncate(valid);
+				channel.force(true);
+			}
+			channel.position(valid);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	public synchronized void append(byte[] payload) {
+		CRC32 crc = new CRC32();
+		crc.update(payload);
+		ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER + payload.length);
+		record.putInt(payload.length).putInt((int) crc.getValue()).put(payload);
+		record.flip();
+		try {
+			while ( record.hasRemaining() ) {
+				channel.write(record);
+			}
+			channel.force(false);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		checkpoints.add(payload);
+	}
+
+	/**
+	 * The checkpoints, the oldest first
+	 */
+	public synchronized List<byte[]> list() {
+		return Collections.unmodifiableList(new ArrayList<byte[]>(checkpoints));
+	}
+
+	@Override
+	public synchronized void close() {
+		if ( channel == null ) {
+			return;
+		}
+		try {
+			channel.close();
+		} catch (IOException e) {
+			log.warn("Closing the checkpoints {}: {}", file, e.getMessage());
+		}
+		channel = null;
+	}
+
+	/**
+	 * Close the store and remove its file
+	 */
+	public synchronized void delete() {
+		close();
+		try {
+			Files.deleteIfExists(file);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		checkpoints.clear();
+	}
+
+	/**
+	 * @return the bytes of the valid records
+	 */
+	private long load() throws IOException {
+		byte[]     bytes = Files.readAllBytes(file);
+		ByteBuffer in    = ByteBuffer.wrap(bytes);
+		int        valid = 0;
+		while ( in.remaining() >= RECORD_HEADER ) {
+			int length   = in.getInt();
+			int checksum = in.getInt();
+			if ( length <= 0 || length > in.remaining() ) {
+				break;
+			}
+			CRC32 crc = new CRC32();
+			crc.update(bytes, in.position(), length);
+			if ( (int) crc.getValue() != checksum ) {
+				break;
+			}
+			byte[] payload = new byte[length];
+			in.get(payload);
+			checkpoints.add(payload);
+			valid = in.position();
+		}
+		return valid;
+	}
+
+}
@@ -1,40 +1,292 @@
 package com.blockchain.cryptocurrency.block.repo;
 
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.apache.commons.lang.StringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Repository;
 
 import com.blockchain.cryptocurrency.block.CurrencyBlock;
 
+/**
+ * The Blocks of the chain, in memory or, when <code>blockchain.repository.directory</code> is set, in a {@link BlockStore} at that directory:
+ * only the most recent Blocks (<code>blockchain.repository.cacheSize</code>) are kept on the heap, the others are read from disk when asked for.
+ * The checkpoints of the validations of the chain are kept with it, at the same directory ({@link CheckpointStore}).
+ */
 @Repository
 public class CurrencyBlockRepository {
-	
-	// In-memory
-	private List<CurrencyBlock> repository  = new ArrayList<CurrencyBlock>();
-	
+
+	@Value("${blockchain.repository.directory:}")
+	private String directory;
+
+	@Value("${blockchain.repository.segmentSize:67108864}")
+	private long segmentSize;
+
+	@Value("${blockchain.repository.fsyncEvery:16}")
+	private int fsyncEvery;
+
+	@Value("${blockchain.repository.cacheSize:256}")
+	private int cacheSize;
+
+	// Read the Blocks from the memory-mapped segments, or copying them to the heap
+	@Value("${blockchain.repository.mmap:true}")
+	private boolean mmap;
+
+	@Autowired
+	private BlockCodec blockCodec;
+
+	// In-memory, the list is the index by height
+	private List<CurrencyBlock>        repository  = new ArrayList<CurrencyBlock>();
+	private Map<String,CurrencyBlock>  byHash      = new HashMap<String,CurrencyBlock>();
+	private final List<byte[]>         checkpoints = new ArrayList<byte[]>();
+
+	// On disk
+	private BlockStore                 blockStore;
+	private Map<Integer,CurrencyBlock> recentBlocks;
+	private CheckpointStore            checkpointStore;
+
+	@PostConstruct
+	public void open() {
+		if ( StringUtils.isBlank(directory) ) {
+			return;
+		}
+		this.recentBlocks = new LinkedHashMap<Integer,CurrencyBlock>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Integer,CurrencyBlock> eldest) {
+				return size() > cacheSize;
+			}
+		};
+		this.blockStore = new BlockStore(Paths.get(directory), segmentSize, fsyncEvery, blockCodec::decodeHash);
+		this.blockStore.open();
+		this.checkpointStore = new CheckpointStore(Paths.get(directory));
+		this.checkpointStore.open();
+	}
+
+	@PreDestroy
+	public void close() {
+		if ( isPersistent() ) {
+			this.blockStore.close();
+			this.checkpointStore.close();
+		}
+	}
+
+	public boolean isPersistent() {
+		return this.blockStore != null;
+	}
+
+	/**
+	 * @return where the chain is stored, null when it is only in memory
+	 */
+	public Path getDirectory() {
+		return isPersistent() ? Paths.get(directory) : null;
+	}
+
 	public void reset() {
-		this.repository = new ArrayList<CurrencyBlock>(); 
+		if ( isPersistent() ) {
+			synchronized (recentBlocks) {
+				this.blockStore.delete();
+				this.blockStore.open();
+				this.recentBlocks.clear();
+			}
+			this.checkpointStore.delete();
+			this.checkpointStore.open();
+			return;
+		}
+		this.repository = new ArrayList<CurrencyBlock>();
+		this.byHash     = new HashMap<String,CurrencyBlock>();
+		synchronized (checkpoints) {
+			this.checkpoints.clear();
+		}
 	}
-	
+
 	public boolean isEmpty() {
-		return this.repository.isEmpty();
+		return size() == 0;
 	}
-	
+
 	public void addBlock(CurrencyBlock currencyBlock) {
+		if ( isPersistent() ) {
+			int height = this.blockStore.append(blockCodec.encode(currencyBlock), currencyBlock.getHash());
+			synchronized (recentBlocks) {
+				this.recentBlocks.put(height, currencyBlock);
+			}
+			return;
+		}
 		this.repository.add(currencyBlock);
+		this.byHash.put(currencyBlock.getHash(), currencyBlock);
+	}
+
+	/**
+	 * On disk, force the Blocks added to the segments (otherwise they are forced every <code>blockchain.repository.fsyncEvery</code> Blocks)
+	 */
+	public void force() {
+		if ( isPersistent() ) {
+			this.blockStore.force();
+		}
+	}
+
+	/**
+	 * Keep a checkpoint of the chain (encoded by its owner), on disk it is forced before returning
+	 */
+	public void addCheckpoint(byte[] checkpoint) {
+		if ( isPersistent() ) {
+			this.checkpointStore.append(checkpoint);
+			return;
+		}
+		synchronized (checkpoints) {
+			this.checkpoints.add(checkpoint);
+		}
 	}
-	
+
+	/**
+	 * The checkpoints kept, the oldest first
+	 */
+	public List<byte[]> listCheckpoints() {
+		if ( isPersistent() ) {
+			return this.checkpointStore.list();
+		}
+		synchronized (checkpoints) {
+			return Collections.unmodifiableList(new ArrayList<byte[]>(this.checkpoints));
+		}
+	}
+
 	public CurrencyBlock getLastBlock() {
-		return this.repository.get(this.repository.size() - 1);
+		return getBlock(size() - 1);
+	}
+
+	public CurrencyBlock getBlock(int height) {
+		if ( !isPersistent() ) {
+			return this.repository.get(height);
+		}
+		synchronized (recentBlocks) {
+			CurrencyBlock block = this.recentBlocks.get(height);
+			if ( block != null ) {
+				return block;
+			}
+		}
+		CurrencyBlock block = decode(height);
+		synchronized (recentBlocks) {
+			// Another thread could have loaded it meanwhile, the same instance must be seen by everyone
+			CurrencyBlock loaded = this.recentBlocks.putIfAbsent(height, block);
+			return loaded != null ? loaded : block;
+		}
+	}
+
+	/**
+	 * The Block at this height, on disk decoded each time without going through the recent Blocks: for the scans of the whole chain,
+	 * they would be read once each and evict the Blocks truly recent
+	 */
+	public CurrencyBlock readBlock(int height) {
+		return isPersistent() ? decode(height) : this.repository.get(height);
+	}
+
+	private CurrencyBlock decode(int height) {
+		CurrencyBlock block = blockCodec.decode(mmap ? this.blockStore.map(height) : this.blockStore.read(height));
+		if ( height + 1 < this.blockStore.size() ) {
+			block.setNextBlock(this.blockStore.hashAt(height + 1));
+		}
+		return block;
 	}
-	
+
+	/**
+	 * @return the Block with this hash, or null if it is not in the chain
+	 */
+	public CurrencyBlock findByHash(String hash) {
+		if ( hash == null ) {
+			return null;
+		}
+		if ( !isPersistent() ) {
+			return this.byHash.get(hash);
+		}
+		int height = this.blockStore.heightOf(hash);
+		return height < 0 ? null : getBlock(height);
+	}
+
+	/**
+	 * @return the Block at this height, or null if the chain is not that high
+	 */
+	public CurrencyBlock findByHeight(int height) {
+		return height >= 0 && height < size() ? getBlock(height) : null;
+	}
+
+	/**
+	 * @return the Blocks from the height <code>from</code> (inclusive) to <code>to</code> (exclusive), limited to the Blocks of the chain
+	 */
+	public List<CurrencyBlock> findByHeightRange(int from, int to) {
+		int size = size();
+		from = Math.max(0, from);
+		to   = Math.min(size, to);
+		if ( from >= to ) {
+			return Collections.emptyList();
+		}
+		return listBlocks().subList(from, to);
+	}
+
+	/**
+	 * @return the height of the Block with this hash, or -1 if it is not in the chain
+	 */
+	public int heightOf(String hash) {
+		if ( !isPersistent() ) {
+			CurrencyBlock block = hash == null ? null : this.byHash.get(hash);
+			return block == null ? -1 : block.getHeight();
+		}
+		return hash == null ? -1 : this.blockStore.heightOf(hash);
+	}
+
 	public int size() {
-		return this.repository.size();
+		return isPersistent() ? this.blockStore.size() : this.repository.size();
 	}
-	
+
+	/**
+	 * The Blocks as {@link CurrencyBlockView}, on disk read straight from the memory-mapped segments, but the current one (in memory, each Block is encoded to be viewed)
+	 */
+	public Stream<CurrencyBlockView> streamBlockViews() {
+		if ( isPersistent() ) {
+			return IntStream.range(0, size()).mapToObj(height -> new CurrencyBlockView(this.blockStore.map(height)));
+		}
+		return this.repository.stream().map(block -> new CurrencyBlockView(copy(blockCodec.encode(block))));
+	}
+
+	/**
+	 * The encoding is only valid until the next one of the thread, a view may be kept longer
+	 */
+	private static ByteBuffer copy(ByteBuffer encoded) {
+		ByteBuffer copy = ByteBuffer.allocate(encoded.remaining()).put(encoded);
+		copy.flip();
+		return copy;
+	}
+
+	/**
+	 * On disk, a view of the whole chain whose Blocks are read only when they are accessed
+	 */
 	public List<CurrencyBlock> listBlocks() {
+		if ( isPersistent() ) {
+			return new AbstractList<CurrencyBlock>() {
+				@Override
+				public CurrencyBlock get(int index) {
+					return getBlock(index);
+				}
+				@Override
+				public int size() {
+					return CurrencyBlockRepository.this.size();
+				}
+			};
+		}
 		return Collections.unmodifiableList(this.repository);
 	}
 
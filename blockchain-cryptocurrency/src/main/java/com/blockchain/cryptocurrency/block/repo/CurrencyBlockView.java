@@ -0,0 +1,174 @@
+package com.blockchain.cryptocurrency.block.repo;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+import com.blockchain.cryptocurrency.block.CurrencyBlock;
+import com.blockchain.cryptocurrency.codec.CanonicalCodec;
+
+/**
+ * A read-only {@link CurrencyBlock} over its encoded bytes ({@link CanonicalCodec}), usually a slice of a memory-mapped segment of the {@link BlockStore}.
+ * Nothing is decoded up front, only the offsets of the fields are found, each getter reads its own field:
+ * walking the whole chain with views costs page-cache reads instead of a graph of objects per Block.
+ *
+ * The {@link TransactionView} given to {@link #forEachTransaction(Consumer)} is a flyweight, it is moved from one Transaction to the next.
+ */
+public class CurrencyBlockView {
+
+	private final ByteBuffer buffer;
+	private final int        previousBlock;
+	private final int        timeStamp;
+	private final int        merkleRoot;
+	private final int[]      wallets;
+	private final int        transactions;
+
+	public CurrencyBlockView(ByteBuffer buffer) {
+		CanonicalCodec.checkBlock(buffer);
+		this.buffer        = buffer;
+		this.previousBlock = CanonicalCodec.skipHash(buffer, CanonicalCodec.BLOCK_HASH);
+		this.timeStamp     = CanonicalCodec.skipHash(buffer, previousBlock);
+		this.merkleRoot    = timeStamp + 8 + 4;
+
+		int position = CanonicalCodec.skipHash(buffer, merkleRoot);
+		this.wallets = new int[buffer.getInt(position)];
+		position += 4;
+		for (int i = 0; i < wallets.length; i++) {
+			wallets[i] = position;
+			position   = CanonicalCodec.skipWallet(buffer, position);
+		}
+		this.transactions = position;
+	}
+
+	public int getHeight() {
+		return buffer.getInt(CanonicalCodec.BLOCK_HEIGHT);
+	}
+
+	public String getHash() {
+		return CanonicalCodec.hashAt(buffer, CanonicalCodec.BLOCK_HASH);
+	}
+
+	public String getPreviousBlock() {
+		return CanonicalCodec.hashAt(buffer, previousBlock);
+	}
+
+	public long getTimeStamp() {
+		return buffer.getLong(timeStamp);
+	}
+
+	public int getNonce() {
+		return buffer.getInt(timeStamp + 8);
+	}
+
+	public String getMerkleRoot() {
+		return CanonicalCodec.hashAt(buffer, merkleRoot);
+	}
+
+	public int getTransactionCount() {
+		return buffer.getInt(transactions);
+	}
+
+	public String getOwner(int wallet) {
+		return CanonicalCodec.textAt(buffer, wallets[wallet]);
+	}
+
+	/**
+	 * The encoded PublicKey of a Wallet of this Block (as in the Transaction's hash)
+	 */
+	public byte[] getPublicKey(int wallet) {
+		return CanonicalCodec.bytesAt(buffer, CanonicalCodec.skipBytes(buffer, wallets[wallet]));
+	}
+
+	public void forEachTransaction(Consumer<TransactionView> consumer) {
+		TransactionView transaction = new TransactionView();
+		int             position    = transactions + 4;
+		for (int i = getTransactionCount(); i > 0; i--) {
+			transaction.moveTo(position);
+			consumer.accept(transaction);
+			position = transaction.end();
+		}
+	}
+
+	@Override
+	public String toString() {
+		return String.format("CurrencyBlockView [#%s | Hash=%s | PreviousBlock=%s | QtdeTransaction=%s | Nonce=%s]",
+				getHeight(), getHash(), getPreviousBlock(), getTransactionCount(), getNonce());
+	}
+
+	/**
+	 * A Transaction of the Block, read from the same buffer
+	 */
+	public class TransactionView {
+
+		private int hash;
+		private int value;
+		private int sender;
+		private int inputs;
+
+		private void moveTo(int position) {
+			this.hash   = position;
+			this.value  = CanonicalCodec.skipHash(buffer, hash);
+			this.sender = CanonicalCodec.skipBytes(buffer, CanonicalCodec.skipDecimal(buffer, value));
+			this.inputs = CanonicalCodec.skipBytes(buffer, sender + 8) + 8;
+		}
+
+		private int end() {
+			int position = inputs + 4;
+			for (int i = buffer.getInt(inputs); i > 0; i--) {
+				position = CanonicalCodec.skipHash(buffer, position);
+				boolean hasUTXO = buffer.get(position++) != 0;
+				if ( hasUTXO ) {
+					position = CanonicalCodec.skipOutput(buffer, position);
+				}
+			}
+			int outputs = buffer.getInt(position);
+			position += 4;
+			for (int i = 0; i < outputs; i++) {
+				position = CanonicalCodec.skipOutput(buffer, position);
+			}
+			return position;
+		}
+
+		public String getHash() {
+			return CanonicalCodec.hashAt(buffer, hash);
+		}
+
+		public BigDecimal getValue() {
+			return CanonicalCodec.decimalAt(buffer, value);
+		}
+
+		public byte[] getSignature() {
+			return CanonicalCodec.bytesAt(buffer, CanonicalCodec.skipDecimal(buffer, value));
+		}
+
+		/**
+		 * Index of the sender in the Wallets of the Block
+		 */
+		public int getSender() {
+			return buffer.getInt(sender);
+		}
+
+		/**
+		 * Index of the recipient in the Wallets of the Block
+		 */
+		public int getRecipient() {
+			return buffer.getInt(sender + 4);
+		}
+
+		public String getNonce() {
+			return CanonicalCodec.textAt(buffer, sender + 8);
+		}
+
+		public long getTimeStamp() {
+			return buffer.getLong(inputs - 8);
+		}
+
+		@Override
+		public String toString() {
+			return String.format("TransactionView [hash=%s, value=%s, sender=%s, recipient=%s, nonce=%s, timeStamp=%s, signature=%s]",
+					getHash(), getValue(), getOwner(getSender()), getOwner(getRecipient()), getNonce(), getTimeStamp(), Arrays.toString(getSignature()));
+		}
+	}
+
+}
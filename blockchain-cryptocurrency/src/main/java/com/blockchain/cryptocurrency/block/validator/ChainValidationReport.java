@@ -0,0 +1,139 @@
+package com.blockchain.cryptocurrency.block.validator;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import lombok.Getter;
+
+/**
+ * What the {@link ChainValidator} found: the problems of each Block (only the first {@value #MAX_ISSUES} are kept, all of them are counted)
+ * and the time spent in each phase. The Blocks validated are the ones from <code>fromHeight</code>, the one after its checkpoint.
+ *
+ * The phases checked Block by Block run together on the workers, their times are summed over all of them (time of CPU, not of the clock);
+ * the time of the clock is the one of the whole validation.
+ */
+public class ChainValidationReport {
+
+	public static final int MAX_ISSUES = 1000;
+
+	public enum Phase {
+		/** The Hash of each Block mined from its data, with the zeros of the difficulty, pointing to the previous one */
+		LINKAGE,
+		/** The Merkle Root of each Block, from the hashes of its Transactions calculated again */
+		MERKLE_ROOT,
+		/** The signatures of all the Transactions */
+		SIGNATURES,
+		/** The Transactions replayed in order: each input spends an unspent output, the values add up, the UTXOs end up as the ones kept */
+		UTXO
+	}
+
+	@Getter private int        fromHeight;
+	@Getter private int        blocks;
+	@Getter private long       transactions;
+	@Getter private long       issueCount;
+	@Getter private long       elapsedNanos;
+	/** The one the validation started after, null from the Genesis Block */
+	@Getter private Checkpoint checkpoint;
+	/** The one of the last Block, recorded when the chain is valid */
+	@Getter private Checkpoint recorded;
+	private List<Issue>        issues     = new ArrayList<Issue>();
+	private Map<Phase,Long> phaseNanos = new EnumMap<Phase,Long>(Phase.class);
+
+	public boolean isValid() {
+		return issueCount == 0;
+	}
+
+	public List<Issue> getIssues() {
+		return Collections.unmodifiableList(issues);
+	}
+
+	public long getPhaseNanos(Phase phase) {
+		return phaseNanos.getOrDefault(phase, 0L);
+	}
+
+	void setFromHeight(int fromHeight) {
+		this.fromHeight = fromHeight;
+	}
+
+	void setCheckpoint(Checkpoint checkpoint) {
+		this.checkpoint = checkpoint;
+	}
+
+	void setRecorded(Checkpoint recorded) {
+		this.recorded = recorded;
+	}
+
+	void setBlocks(int blocks) {
+		this.blocks = blocks;
+	}
+
+	void setTransactions(long transactions) {
+		this.transactions = transactions;
+	}
+
+	void setElapsedNanos(long elapsedNanos) {
+		this.elapsedNanos = elapsedNanos;
+	}
+
+	void addPhaseNanos(Phase phase, long nanos) {
+		phaseNanos.merge(phase, nanos, Long::sum);
+	}
+
+	synchronized void addIssue(int height, Phase phase, String message) {
+		issueCount++;
+		if ( issues.size() < MAX_ISSUES ) {
+			issues.add(new Issue(height, phase, message));
+		}
+	}
+
+	/**
+	 * The issues in the order of the chain (found in parallel, they were added in any order)
+	 */
+	void sortIssues() {
+		issues.sort((a, b) -> a.height != b.height ? Integer.compare(a.height, b.height) : a.phase.compareTo(b.phase));
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		builder.append(String.format("BlockChain %s from the Block #%d: %d Blocks, %d Transactions, %d issues, in %d ms%n",
+				isValid() ? "valid" : "INVALID", fromHeight, blocks, transactions, issueCount, TimeUnit.NANOSECONDS.toMillis(elapsedNanos)));
+		for (Phase phase : Phase.values()) {
+			builder.append(String.format("  %-12s %10d ms%n", phase, TimeUnit.NANOSECONDS.toMillis(getPhaseNanos(phase))));
+		}
+		for (Issue issue : issues) {
+			builder.append("  ").append(issue).append(String.format("%n"));
+		}
+		if ( issueCount > issues.size() ) {
+			builder.append(String.format("  ... and %d more%n", issueCount - issues.size()));
+		}
+		return builder.toString();
+	}
+
+	/**
+	 * A problem of a Block
+	 */
+	@Getter
+	public static class Issue {
+
+		private final int    height;
+		private final Phase  phase;
+		private final String message;
+
+		Issue(int height, Phase phase, String message) {
+			this.height  = height;
+			this.phase   = phase;
+			this.message = message;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("#%d %s: %s", height, phase, message);
+		}
+	}
+
+}
@@ -0,0 +1,459 @@
+package com.blockchain.cryptocurrency.block.validator;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.KeyPair;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+
+import org.apache.commons.lang.StringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.blockchain.cryptocurrency.block.CurrencyBlock;
+import com.blockchain.cryptocurrency.block.CurrencyBlockChain;
+import com.blockchain.cryptocurrency.block.repo.CurrencyBlockRepository;
+import com.blockchain.cryptocurrency.block.validator.ChainValidationReport.Phase;
+import com.blockchain.cryptocurrency.codec.CanonicalCodec;
+import com.blockchain.cryptocurrency.concurrent.WorkerPool;
+import com.blockchain.cryptocurrency.transaction.Transaction;
+import com.blockchain.cryptocurrency.transaction.TransactionInput;
+import com.blockchain.cryptocurrency.transaction.TransactionOutput;
+import com.blockchain.cryptocurrency.utxo.UTXODigest;
+import com.blockchain.cryptocurrency.utxo.UTXOService;
+import com.blockchain.security.KeyIdentity;
+import com.blockchain.security.Security;
+import com.blockchain.security.SecurityEncryption;
+import com.blockchain.security.SecurityEncryption.Algorithm;
+import com.blockchain.utils.MerkleRoot;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Audit the BlockChain and report every problem found ({@link ChainValidationReport}).
+ *
+ * The checks of a Block that need nothing else (its Hash and proof of work, its Merkle Root, the signatures of its Transactions) run in parallel
+ * on the workers of the {@link WorkerPool}, each one taking the next chunk of {@value #CHUNK} Blocks.
+ * The link of each Block to the previous one is checked inside the chunk, and between the chunks once all of them are done.
+ * The Blocks are read once, by the workers, as they are stored (on disk, decoded without going through the recent Blocks kept by the repository).
+ *
+ * Meanwhile the calling thread replays the Transactions of the chunks read, in the order of the chain, the only check that needs the state left by the previous ones:
+ * every input spends an output still unspent, the outputs are the ones of their Transaction and add up to its inputs, and the unspent outputs left
+ * at the end are the ones kept by the {@link UTXOService} (a Transaction processed but not yet in a Block is reported too).
+ *
+ * A valid chain is recorded as a {@link Checkpoint} of its last Block, signed with the key pair of the validator (<code>blockchain.validator.keys</code>,
+ * by default <code>validator.keys</code> in the directory of the chain, a new one each run for a chain in memory) and kept by the {@link CurrencyBlockRepository}.
+ * {@link #validate()} starts after the newest checkpoint it trusts (signed with its key pair, its Block still the one in the chain), so it costs only the
+ * Blocks added since then: the UTXOs are then checked by their digest, the one of the checkpoint plus the outputs created and minus the ones spent after it.
+ */
+@Slf4j
+@Service
+public class ChainValidator {
+
+	private static final int        CHUNK     = 256;
+	// The chunks read ahead of the replay, per worker
+	private static final int        AHEAD     = 2;
+	private static final String     KEYS      = "validator.keys";
+	// The change of a Transaction is calculated in float
+	private static final BigDecimal TOLERANCE = new BigDecimal("0.01");
+
+	private static final CompletableFuture<List<CurrencyBlock>> REPLAYED = CompletableFuture.completedFuture(null);
+
+	@Value("${blockchain.validator.keys:}")
+	private String keys;
+
+	@Autowired
+	private CurrencyBlockChain currencyBlockChain;
+
+	@Autowired
+	private CurrencyBlockRepository currencyBlockRepository;
+
+	@Autowired
+	private UTXOService utxoService;
+
+	@Autowired
+	private WorkerPool workers;
+
+	@Autowired
+	@SecurityEncryption(Algorithm.ECDSA)
+	private Security security;
+
+	@Getter private KeyIdentity identity;
+	private KeyPair             keyPair;
+
+	@PostConstruct
+	public void start() {
+		this.keyPair  = loadKeyPair();
+		this.identity = KeyIdentity.of(keyPair.getPublic());
+	}
+
+	/**
+	 * Validate the Blocks after the newest trusted checkpoint (the whole chain if there is none)
+	 */
+	public ChainValidationReport validate() {
+		return validate(findTrustedCheckpoint());
+	}
+
+	/**
+	 * Validate the whole chain, from the Genesis Block, whatever the checkpoints
+	 */
+	public ChainValidationReport validateFull() {
+		return validate(null);
+	}
+
+	/**
+	 * The newest checkpoint signed with the key pair of this validator whose Block is still the one at its height in the chain
+	 */
+	public Checkpoint findTrustedCheckpoint() {
+		List<byte[]> checkpoints = currencyBlockRepository.listCheckpoints();
+		int          size        = currencyBlockChain.listBlockChain().size();
+		for (int i = checkpoints.size() - 1; i >= 0; i--) {
+			Checkpoint checkpoint = Checkpoint.fromBytes(checkpoints.get(i));
+			if ( checkpoint.getHeight() < size && isTrusted(checkpoint)
+			  && checkpoint.getBlockHash().equals(currencyBlockChain.findBlock(checkpoint.getHeight()).getHash()) ) {
+				return checkpoint;
+			}
+		}
+		return null;
+	}
+
+	private boolean isTrusted(Checkpoint checkpoint) {
+		return identity.equals(checkpoint.getSigner())
+			&& security.verifySignature(keyPair.getPublic(), CanonicalCodec.signedData(checkpoint), checkpoint.getSignature());
+	}
+
+	private ChainValidationReport validate(Checkpoint checkpoint) {
+		long                  start  = System.nanoTime();
+		ChainValidationReport report = new ChainValidationReport();
+		int                   from   = checkpoint == null ? 0 : checkpoint.getHeight() + 1;
+		int                   to     = currencyBlockRepository.size();
+		int                   chunks = (to - from + CHUNK - 1) / CHUNK;
+		report.setFromHeight(from);
+		report.setCheckpoint(checkpoint);
+		report.setBlocks(to - from);
+
+		// The first previous Hash and the last Hash of each chunk, to check the links between them
+		String[]             firstPrevious = new String[chunks];
+		String[]             lastHash      = new String[chunks];
+		Map<Phase,LongAdder> nanos         = new EnumMap<Phase,LongAdder>(Phase.class);
+		for (Phase phase : Phase.values()) {
+			nanos.put(phase, new LongAdder());
+		}
+
+		// Each chunk is read once, by its worker, and handed to the replay, which lets it go once replayed
+		List<CompletableFuture<List<CurrencyBlock>>> read = new ArrayList<CompletableFuture<List<CurrencyBlock>>>(chunks);
+		for (int chunk = 0; chunk < chunks; chunk++) {
+			read.add(new CompletableFuture<List<CurrencyBlock>>());
+		}
+		AtomicInteger      next     = new AtomicInteger();
+		int                workload = Math.min(workers.getParallelism(), chunks);
+		Semaphore          ahead    = new Semaphore(workload * AHEAD);
+		List<Future<Void>> checking = new ArrayList<Future<Void>>(workload);
+		for (int w = 0; w < workload; w++) {
+			Callable<Void> worker = () -> {
+				try {
+					// The chunks are taken in the order of the chain, the one the replay waits for is always taken before the ones after it
+					while ( true ) {
+						ahead.acquire();
+						int chunk = next.getAndIncrement();
+						if ( chunk >= chunks ) {
+							return null;
+						}
+						int                 height = from + chunk * CHUNK;
+						List<CurrencyBlock> blocks = readChunk(height, Math.min(to, height + CHUNK));
+						read.get(chunk).complete(blocks);
+						checkChunk(blocks, height, chunk, firstPrevious, lastHash, nanos, report);
+					}
+				} catch (Throwable e) {
+					// The replay must not wait for a chunk that will never be read
+					read.forEach(future -> future.completeExceptionally(e));
+					throw e;
+				}
+			};
+			checking.add(workers.submit(worker));
+		}
+
+		// The replay needs the order of the chain, it goes on in this thread while the workers check the Blocks
+		Replay replay = new Replay(checkpoint, report);
+		try {
+			for (int chunk = 0; chunk < chunks; chunk++) {
+				List<CurrencyBlock> blocks      = read.get(chunk).get();
+				long                replayStart = System.nanoTime();
+				for (int i = 0; i < blocks.size(); i++) {
+					replay.block(from + chunk * CHUNK + i, blocks.get(i));
+				}
+				nanos.get(Phase.UTXO).add(System.nanoTime() - replayStart);
+				read.set(chunk, REPLAYED);
+				ahead.release();
+			}
+			long replayStart = System.nanoTime();
+			replay.finish(to - 1);
+			report.setTransactions(replay.transactions);
+			nanos.get(Phase.UTXO).add(System.nanoTime() - replayStart);
+
+			for (Future<Void> worker : checking) {
+				worker.get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException("Interrupted while validating the BlockChain", e);
+		} catch (ExecutionException e) {
+			throw new RuntimeException("Error validating the BlockChain", e.getCause());
+		} finally {
+			// No worker left waiting for the replay
+			ahead.release(chunks);
+		}
+
+		// The first chunk after a checkpoint is linked to its Block
+		for (int chunk = checkpoint == null ? 1 : 0; chunk < chunks; chunk++) {
+			String previous = chunk == 0 ? checkpoint.getBlockHash() : lastHash[chunk - 1];
+			if ( !StringUtils.equals(previous, firstPrevious[chunk]) ) {
+				report.addIssue(from + chunk * CHUNK, Phase.LINKAGE, "The previous Block is not the one before it in the chain");
+			}
+		}
+
+		nanos.forEach((phase, adder) -> report.addPhaseNanos(phase, adder.sum()));
+		report.sortIssues();
+		if ( report.isValid() && to > from ) {
+			report.setRecorded(recordCheckpoint(to - 1, lastHash[chunks - 1], replay.digest.toHex(), replay.accumulator));
+		}
+		report.setElapsedNanos(System.nanoTime() - start);
+		log.info("The BlockChain validated from the Block #{}, {} Blocks, {} issues, in {} ms", from, report.getBlocks(), report.getIssueCount(), report.getElapsedNanos() / 1_000_000);
+		return report;
+	}
+
+	private Checkpoint recordCheckpoint(int height, String blockHash, String utxoDigest, String accumulator) {
+		Checkpoint unsigned   = new Checkpoint(height, blockHash, utxoDigest, accumulator, identity, new byte[0]);
+		byte[]     signature  = security.sign(keyPair.getPrivate(), CanonicalCodec.signedData(unsigned));
+		Checkpoint checkpoint = new Checkpoint(height, blockHash, utxoDigest, accumulator, identity, signature);
+		currencyBlockRepository.addCheckpoint(checkpoint.toBytes());
+		return checkpoint;
+	}
+
+	/**
+	 * The Blocks as they are stored, without going through the recent ones kept by the repository
+	 */
+	private List<CurrencyBlock> readChunk(int from, int to) {
+		List<CurrencyBlock> blocks = new ArrayList<CurrencyBlock>(to - from);
+		for (int height = from; height < to; height++) {
+			blocks.add(currencyBlockRepository.readBlock(height));
+		}
+		return blocks;
+	}
+
+	private void checkChunk(List<CurrencyBlock> blocks, int from, int chunk, String[] firstPrevious, String[] lastHash, Map<Phase,LongAdder> nanos, ChainValidationReport report) {
+		String previousHash = null;
+		for (int i = 0; i < blocks.size(); i++) {
+			CurrencyBlock block  = blocks.get(i);
+			int           height = from + i;
+			long          start  = System.nanoTime();
+
+			checkLinkage(block, height, previousHash, report);
+			long linked = System.nanoTime();
+			nanos.get(Phase.LINKAGE).add(linked - start);
+
+			checkMerkleRoot(block, height, report);
+			long merkle = System.nanoTime();
+			nanos.get(Phase.MERKLE_ROOT).add(merkle - linked);
+
+			for (Transaction transaction : block.getTransactions()) {
+				if ( !transaction.verifySignature() ) {
+					report.addIssue(height, Phase.SIGNATURES, String.format("The signature of the Transaction %s does not match", transaction.getHash()));
+				}
+			}
+			nanos.get(Phase.SIGNATURES).add(System.nanoTime() - merkle);
+
+			if ( height == from ) {
+				firstPrevious[chunk] = block.getPreviousBlock();
+			}
+			previousHash = block.getHash();
+		}
+		lastHash[chunk] = previousHash;
+	}
+
+	private void checkLinkage(CurrencyBlock block, int height, String previousHash, ChainValidationReport report) {
+		if ( block.getHeight() == null || block.getHeight() != height ) {
+			report.addIssue(height, Phase.LINKAGE, String.format("The Block says it is at the height %d", block.getHeight()));
+		}
+		if ( !block.verifyHashBlock() ) {
+			report.addIssue(height, Phase.LINKAGE, "The Hash is not the one mined from its data, or it has not the zeros of the difficulty");
+		}
+		if ( height == 0 ) {
+			if ( !StringUtils.repeat("0", CurrencyBlockChain.DIFFICULTY).equals(block.getPreviousBlock()) ) {
+				report.addIssue(height, Phase.LINKAGE, "The Genesis Block is linked to a previous one");
+			}
+		} else
+		if ( previousHash != null && !previousHash.equals(block.getPreviousBlock()) ) {
+			report.addIssue(height, Phase.LINKAGE, "The previous Block is not the one before it in the chain");
+		}
+	}
+
+	/**
+	 * Calculated from scratch, the hashes of the Transactions and the whole tree (the one kept by the Block is not trusted)
+	 */
+	private void checkMerkleRoot(CurrencyBlock block, int height, ChainValidationReport report) {
+		List<String> hashs = new ArrayList<String>(block.getTransactions().size());
+		for (Transaction transaction : block.getTransactions()) {
+			String hash = CanonicalCodec.hashTransaction(transaction);
+			if ( !hash.equals(transaction.getHash()) ) {
+				report.addIssue(height, Phase.MERKLE_ROOT, String.format("The Transaction %s is not the one of its hash", transaction.getHash()));
+			}
+			hashs.add(hash);
+		}
+		if ( hashs.isEmpty() || !MerkleRoot.calculate(hashs).equals(block.getMerkleRoot()) ) {
+			report.addIssue(height, Phase.MERKLE_ROOT, "The Merkle Root does not match the Transactions of the Block");
+		}
+	}
+
+	private KeyPair loadKeyPair() {
+		Path directory = currencyBlockRepository.getDirectory();
+		Path file      = StringUtils.isNotBlank(keys) ? Paths.get(keys) : directory != null ? directory.resolve(KEYS) : null;
+		if ( file == null ) {
+			// A chain in memory, its checkpoints are gone with it
+			return security.generateKeyPairs();
+		}
+		if ( !Files.exists(file) ) {
+			try {
+				Files.createDirectories(file.toAbsolutePath().getParent());
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+			security.saveKeyPairsToFile(file.toString());
+			log.info("New key pair of the validator of the BlockChain in {}", file);
+		}
+		return security.loadKeyPairsFromFile(file.toString());
+	}
+
+	/**
+	 * The Transactions replayed in the order of the chain, from the Genesis Block or from a checkpoint
+	 */
+	private class Replay {
+
+		private final Checkpoint             checkpoint;
+		private final ChainValidationReport  report;
+		// The outputs created by the Blocks replayed, still unspent
+		private final Map<String,BigDecimal> created     = new HashMap<String,BigDecimal>();
+		// The outputs of before the checkpoint spent by them
+		private final Set<String>            spentBefore = new HashSet<String>();
+		private final UTXODigest             digest;
+		private String                       accumulator;
+		private long                         transactions;
+
+		Replay(Checkpoint checkpoint, ChainValidationReport report) {
+			this.checkpoint  = checkpoint;
+			this.report      = report;
+			this.digest      = checkpoint == null ? new UTXODigest() : UTXODigest.fromHex(checkpoint.getUtxoDigest());
+			this.accumulator = checkpoint == null ? "" : checkpoint.getAccumulator();
+		}
+
+		void block(int height, CurrencyBlock block) {
+			accumulator = Checkpoint.accumulate(accumulator, block.getHash(), block.getMerkleRoot());
+			for (Transaction transaction : block.getTransactions()) {
+				transaction(height, transaction);
+				transactions++;
+			}
+		}
+
+		private void transaction(int height, Transaction transaction) {
+			List<TransactionInput> inputs = transaction.getInputs();
+			BigDecimal             spent  = BigDecimal.ZERO;
+			if ( inputs == null || inputs.isEmpty() ) {
+				if ( height != 0 ) {
+					report.addIssue(height, Phase.UTXO, String.format("The Transaction %s creates coins, without inputs, out of the Genesis Block", transaction.getHash()));
+				}
+			} else {
+				for (TransactionInput input : inputs) {
+					BigDecimal value = spend(height, transaction, input);
+					if ( value != null ) {
+						spent = spent.add(value);
+					}
+				}
+			}
+
+			BigDecimal outputs = BigDecimal.ZERO;
+			for (TransactionOutput output : transaction.getOutputs()) {
+				if ( !transaction.getHash().equals(output.getParentTransactionHash())
+				  || !output.getHash().equals(CanonicalCodec.hashOutput(output.getRecipient().getKeyIdentity(), output.getValue(), output.getParentTransactionHash())) ) {
+					report.addIssue(height, Phase.UTXO, String.format("The output %s is not the one of the Transaction %s", output.getHash(), transaction.getHash()));
+				}
+				created.put(output.getHash(), output.getValue());
+				digest.add(output.getHash());
+				outputs = outputs.add(output.getValue());
+			}
+
+			if ( inputs != null && !inputs.isEmpty() && spent.subtract(outputs).abs().compareTo(TOLERANCE) > 0 ) {
+				report.addIssue(height, Phase.UTXO, String.format("The Transaction %s spends %s but its outputs are %s", transaction.getHash(), spent, outputs));
+			}
+		}
+
+		/**
+		 * @return the value of the output spent by the input, null if it is not known
+		 */
+		private BigDecimal spend(int height, Transaction transaction, TransactionInput input) {
+			BigDecimal value = created.remove(input.getHash());
+			if ( value == null ) {
+				if ( checkpoint == null || !spentBefore.add(input.getHash()) ) {
+					report.addIssue(height, Phase.UTXO, String.format("The Transaction %s spends %s, unknown or already spent", transaction.getHash(), input.getHash()));
+					return null;
+				}
+				// An output of before the checkpoint: whether it was still unspent there is told by the digest, at the end,
+				// its copy carried by the input must be the output of that hash (its value is trusted from it)
+				TransactionOutput utxo = input.getUTXO();
+				if ( utxo == null ) {
+					report.addIssue(height, Phase.UTXO, String.format("The Transaction %s spends %s, of before the checkpoint, without its value", transaction.getHash(), input.getHash()));
+				} else if ( !CanonicalCodec.hashOutput(utxo.getRecipient().getKeyIdentity(), utxo.getValue(), utxo.getParentTransactionHash()).equals(input.getHash()) ) {
+					report.addIssue(height, Phase.UTXO, String.format("The Transaction %s spends %s, of before the checkpoint, with a copy that is not that output", transaction.getHash(), input.getHash()));
+				} else {
+					value = utxo.getValue();
+				}
+			}
+			digest.subtract(input.getHash());
+			return value;
+		}
+
+		/**
+		 * The UTXOs kept must be exactly the outputs left unspent by the chain (after a checkpoint, the ones of their digest)
+		 */
+		void finish(int last) {
+			Set<Map.Entry<String,TransactionOutput>> kept = utxoService.listTransactions();
+			if ( checkpoint != null ) {
+				if ( !digest.equals(UTXODigest.of(kept.stream().map(Map.Entry::getKey).collect(Collectors.toList()))) ) {
+					report.addIssue(last, Phase.UTXO, String.format("The UTXOs are not the ones left by the checkpoint of the Block #%d and the Blocks after it", checkpoint.getHeight()));
+				}
+				return;
+			}
+			for (Map.Entry<String,TransactionOutput> entry : kept) {
+				if ( !created.containsKey(entry.getKey()) ) {
+					report.addIssue(last, Phase.UTXO, String.format("The UTXO %s is not an output left unspent by the chain", entry.getKey()));
+				}
+			}
+			for (String hash : created.keySet()) {
+				if ( utxoService.getTransaction(hash) == null ) {
+					report.addIssue(last, Phase.UTXO, String.format("The output %s left unspent by the chain is not in the UTXOs", hash));
+				}
+			}
+		}
+	}
+
+}
@@ -0,0 +1,97 @@
+package com.blockchain.cryptocurrency.block.validator;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import com.blockchain.security.KeyIdentity;
+import com.blockchain.security.Security;
+
+import lombok.Getter;
+
+/**
+ * The state of the BlockChain up to a Block, as validated by the {@link ChainValidator}, signed by it:
+ * <ul>
+ * <li>the height and the Hash of the Block (which is linked to all the ones before it)</li>
+ * <li>the digest of the UTXOs left by the Blocks up to it ({@link com.blockchain.cryptocurrency.utxo.UTXODigest})</li>
+ * <li>the accumulator of the Merkle Roots, the SHA-256 of the previous accumulator, the Hash and the Merkle Root of each Block, from the Genesis one</li>
+ * </ul>
+ * The signed data is its canonical encoding ({@link com.blockchain.cryptocurrency.codec.CanonicalCodec#signedData(Checkpoint)}).
+ */
+@Getter
+public class Checkpoint {
+
+	private final int         height;
+	private final String      blockHash;
+	private final String      utxoDigest;
+	private final String      accumulator;
+	private final KeyIdentity signer;
+	private final byte[]      signature;
+
+	public Checkpoint(int height, String blockHash, String utxoDigest, String accumulator, KeyIdentity signer, byte[] signature) {
+		this.height      = height;
+		this.blockHash   = blockHash;
+		this.utxoDigest  = utxoDigest;
+		this.accumulator = accumulator;
+		this.signer      = signer;
+		this.signature   = signature;
+	}
+
+	/**
+	 * The accumulator after one more Block
+	 */
+	public static String accumulate(String accumulator, String blockHash, String merkleRoot) {
+		return Security.applySHA256(accumulator + blockHash + merkleRoot);
+	}
+
+	/**
+	 * How it is stored: height(4) blockHash utxoDigest accumulator signer signature (the texts in modified UTF-8, the bytes length-prefixed)
+	 */
+	public byte[] toBytes() {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+		try (DataOutputStream out = new DataOutputStream(bytes)) {
+			out.writeInt(height);
+			out.writeUTF(blockHash);
+			out.writeUTF(utxoDigest);
+			out.writeUTF(accumulator);
+			out.writeInt(signer.length());
+			signer.writeTo(out);
+			out.writeInt(signature.length);
+			out.write(signature);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return bytes.toByteArray();
+	}
+
+	public static Checkpoint fromBytes(byte[] bytes) {
+		ByteBuffer in          = ByteBuffer.wrap(bytes);
+		int        height      = in.getInt();
+		String     blockHash   = readUTF(in);
+		String     utxoDigest  = readUTF(in);
+		String     accumulator = readUTF(in);
+		byte[]     signer      = new byte[in.getInt()];
+		in.get(signer);
+		byte[]     signature   = new byte[in.getInt()];
+		in.get(signature);
+		return new Checkpoint(height, blockHash, utxoDigest, accumulator, KeyIdentity.of(signer), signature);
+	}
+
+	/**
+	 * The hashes are hex, the modified UTF-8 of {@link DataOutputStream#writeUTF(String)} is plain ASCII for them
+	 */
+	private static String readUTF(ByteBuffer in) {
+		byte[] text = new byte[in.getShort() & 0xFFFF];
+		in.get(text);
+		return new String(text, StandardCharsets.UTF_8);
+	}
+
+	@Override
+	public String toString() {
+		return String.format("Checkpoint [#%d | Hash=%s | UTXOs=%s | Accumulator=%s | Signer=%s]", height, blockHash, utxoDigest, accumulator, signer);
+	}
+
+}
@@ -0,0 +1,542 @@
+package com.blockchain.cryptocurrency.codec;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.blockchain.cryptocurrency.block.CurrencyBlock;
+import com.blockchain.cryptocurrency.block.validator.Checkpoint;
+import com.blockchain.cryptocurrency.transaction.Transaction;
+import com.blockchain.cryptocurrency.transaction.TransactionInput;
+import com.blockchain.cryptocurrency.transaction.TransactionOutput;
+import com.blockchain.cryptocurrency.wallet.Wallet;
+import com.blockchain.security.KeyIdentity;
+import com.blockchain.security.Security;
+import com.blockchain.utils.HexEncoder;
+
+/**
+ * The canonical binary encoding of the BlockChain objects: one and only one form of bytes for each of them, the one that is hashed and signed,
+ * stored (the Blocks of the {@link com.blockchain.cryptocurrency.block.repo.BlockStore}, the UTXOs of the {@link com.blockchain.cryptocurrency.utxo.UTXOStore})
+ * and sent over the network.
+ *
+ * <pre>
+ * every encoding:  version(1) type(1) ...
+ * signed data:     sender recipient value                                   (what the sender of a Transaction signs)
+ * transaction id:  sender recipient value timeStamp(8) nonce                (its hash)
+ * output id:       recipient value parentTransactionHash                    (the hash of a TransactionOutput)
+ * checkpoint:      height(4) blockHash utxoDigest accumulator                 (what the ChainValidator signs)
+ * input:           hash                                                     (the output it spends)
+ * output:          wallets [output]
+ * transaction:     wallets [transaction]
+ * block:           height(4) hash previousBlock timeStamp(8) nonce(4) merkleRoot wallets transactions: count(4) [transaction]...
+ *
+ * wallets:         count(4) [owner key]...                                  (each Wallet written once, by its key, the others refer to its index)
+ * [transaction]:   hash value signature sender(4) recipient(4) nonce timeStamp(8)
+ *                  inputs: count(4), -1 if none [hash 0 | hash 1 [output]]... (the copy of the output spent, once processed)
+ *                  outputs: count(4) [output]...
+ * [output]:        hash recipient(4) value parentTransactionHash
+ *
+ * key:      length(4) bytes (the encoded PublicKey, X.509, as kept by its KeyIdentity)
+ * value:    scale(4) length(4) unscaled bytes, with the trailing zeros stripped (10, 10.0 and 10.00 are the same value, the same bytes)
+ * hash:     0 (null) | 1 + 32 raw bytes (a SHA-256 hex) | 2 + length(4) UTF-8 (any other text)
+ * text:     length(4) UTF-8
+ * </pre>
+ *
+ * The objects are written into a buffer of the calling thread, reused (and grown when needed) from one encoding to the next: the ByteBuffer
+ * returned is a read-only view of it, valid only until the next encoding of the same thread.
+ *
+ * The Wallets and the Transactions decoded are the ones of a BlockChain, they are given by its {@link Resolver}.
+ * The absolute reads (<code>...At</code>, <code>skip...</code>) are for the views over the encoded bytes, which do not decode them.
+ */
+public final class CanonicalCodec {
+
+	public static final byte VERSION = 1;
+
+	private static final byte SIGNED_DATA    = 1;
+	private static final byte TRANSACTION_ID = 2;
+	private static final byte OUTPUT_ID      = 3;
+	private static final byte INPUT          = 4;
+	private static final byte OUTPUT         = 5;
+	private static final byte TRANSACTION    = 6;
+	private static final byte BLOCK          = 7;
+	private static final byte CHECKPOINT     = 8;
+
+	private static final byte NULL   = 0;
+	private static final byte DIGEST = 1;
+	private static final byte TEXT   = 2;
+
+	/** Where the fields of an encoded Block start, after its version and type */
+	public static final int BLOCK_HEIGHT = 2;
+	public static final int BLOCK_HASH   = BLOCK_HEIGHT + 4;
+
+	private static final ThreadLocal<CanonicalCodec> CODECS = ThreadLocal.withInitial(CanonicalCodec::new);
+
+	private ByteBuffer buffer = ByteBuffer.allocate(1024);
+
+	private CanonicalCodec() {
+	}
+
+	/**
+	 * The Wallets of the BlockChain, by their owner and encoded PublicKey
+	 */
+	@FunctionalInterface
+	public interface WalletResolver {
+		Wallet resolveWallet(String owner, byte[] publicKey);
+	}
+
+	/**
+	 * The Wallets and the Transactions of the BlockChain, the Transactions decoded are bound to its services
+	 */
+	public interface Resolver extends WalletResolver {
+		Transaction newTransaction(String hash, BigDecimal value, byte[] signature, Wallet sender, Wallet recipient, String nonce, long timeStamp,
+				                   List<TransactionInput> inputs, List<TransactionOutput> outputs);
+	}
+
+	/**
+	 * The data signed by the sender of a Transaction
+	 */
+	public static ByteBuffer signedData(Transaction transaction) {
+		return signedData(transaction.getSender().getKeyIdentity(), transaction.getRecipient().getKeyIdentity(), transaction.getValue());
+	}
+
+	public static ByteBuffer signedData(KeyIdentity sender, KeyIdentity recipient, BigDecimal value) {
+		CanonicalCodec codec = start(SIGNED_DATA);
+		codec.putKey(sender).putKey(recipient).putDecimal(value);
+		return codec.finish();
+	}
+
+	/**
+	 * The data signed by the ChainValidator of a Checkpoint
+	 */
+	public static ByteBuffer signedData(Checkpoint checkpoint) {
+		CanonicalCodec codec = start(CHECKPOINT);
+		codec.putInt(checkpoint.getHeight()).putHash(checkpoint.getBlockHash()).putHash(checkpoint.getUtxoDigest()).putHash(checkpoint.getAccumulator());
+		return codec.finish();
+	}
+
+	/**
+	 * The hash of a Transaction, from the fields that identify it
+	 */
+	public static String hashTransaction(Transaction transaction) {
+		CanonicalCodec codec = start(TRANSACTION_ID);
+		codec.putKey(transaction.getSender().getKeyIdentity()).putKey(transaction.getRecipient().getKeyIdentity())
+		     .putDecimal(transaction.getValue()).putLong(transaction.getTimeStamp()).putText(transaction.getNonce());
+		return Security.applySHA256(codec.finish());
+	}
+
+	/**
+	 * The same hash of {@link #hashTransaction(Transaction)}, from the encoded keys as they were read (e.g. from a stored Block)
+	 */
+	public static String hashTransaction(byte[] sender, byte[] recipient, BigDecimal value, long timeStamp, String nonce) {
+		CanonicalCodec codec = start(TRANSACTION_ID);
+		codec.putBytes(sender).putBytes(recipient).putDecimal(value).putLong(timeStamp).putText(nonce);
+		return Security.applySHA256(codec.finish());
+	}
+
+	/**
+	 * The hash of a TransactionOutput
+	 */
+	public static String hashOutput(KeyIdentity recipient, BigDecimal value, String parentTransactionHash) {
+		CanonicalCodec codec = start(OUTPUT_ID);
+		codec.putKey(recipient).putDecimal(value).putHash(parentTransactionHash);
+		return Security.applySHA256(codec.finish());
+	}
+
+	public static ByteBuffer encode(TransactionInput input) {
+		CanonicalCodec codec = start(INPUT);
+		codec.putHash(input.getHash());
+		return codec.finish();
+	}
+
+	public static ByteBuffer encode(TransactionOutput output) {
+		CanonicalCodec codec   = start(OUTPUT);
+		WalletTable    wallets = new WalletTable();
+		wallets.add(output.getRecipient());
+		codec.putWallets(wallets).putOutput(output, wallets);
+		return codec.finish();
+	}
+
+	public static ByteBuffer encode(Transaction transaction) {
+		CanonicalCodec codec   = start(TRANSACTION);
+		WalletTable    wallets = new WalletTable();
+		wallets.add(transaction);
+		codec.putWallets(wallets).putTransaction(transaction, wallets);
+		return codec.finish();
+	}
+
+	public static ByteBuffer encode(CurrencyBlock block) {
+		CanonicalCodec codec = start(BLOCK);
+		codec.putInt(block.getHeight() == null ? -1 : block.getHeight())
+		     .putHash(block.getHash())
+		     .putHash(block.getPreviousBlock())
+		     .putLong(block.getTimeStamp())
+		     .putInt(block.getNonce() == null ? 0 : block.getNonce())
+		     .putHash(block.getMerkleRoot());
+		WalletTable wallets = new WalletTable();
+		block.getTransactions().forEach(wallets::add);
+		codec.putWallets(wallets);
+		codec.putInt(block.getTransactions().size());
+		for (Transaction transaction : block.getTransactions()) {
+			codec.putTransaction(transaction, wallets);
+		}
+		return codec.finish();
+	}
+
+	public static TransactionInput decodeInput(ByteBuffer in) {
+		checkHeader(in, INPUT);
+		return new TransactionInput(readHash(in));
+	}
+
+	public static TransactionOutput decodeOutput(ByteBuffer in, WalletResolver resolver) {
+		checkHeader(in, OUTPUT);
+		return readOutput(in, readWallets(in, resolver));
+	}
+
+	public static Transaction decodeTransaction(ByteBuffer in, Resolver resolver) {
+		checkHeader(in, TRANSACTION);
+		return readTransaction(in, readWallets(in, resolver), resolver);
+	}
+
+	public static CurrencyBlock decodeBlock(ByteBuffer in, Resolver resolver) {
+		checkHeader(in, BLOCK);
+		int      height        = in.getInt();
+		String   hash          = readHash(in);
+		String   previousBlock = readHash(in);
+		long     timeStamp     = in.getLong();
+		int      nonce         = in.getInt();
+		String   merkleRoot    = readHash(in);
+		Wallet[] wallets       = readWallets(in, resolver);
+
+		int               count        = in.getInt();
+		List<Transaction> transactions = new ArrayList<Transaction>(count);
+		for (int i = 0; i < count; i++) {
+			transactions.add(readTransaction(in, wallets, resolver));
+		}
+		return new CurrencyBlock(height, hash, previousBlock, timeStamp, nonce, merkleRoot, transactions);
+	}
+
+	/**
+	 * Only the hash of an encoded Block, without decoding the rest of it
+	 */
+	public static String decodeBlockHash(ByteBuffer in) {
+		checkHeader(in.duplicate(), BLOCK);
+		return hashAt(in, in.position() + BLOCK_HASH);
+	}
+
+	/**
+	 * Check the version and the type of an encoded Block, at the start of this buffer (its position is not moved)
+	 */
+	public static void checkBlock(ByteBuffer in) {
+		checkHeader(in.duplicate(), BLOCK);
+	}
+
+	private static void checkHeader(ByteBuffer in, byte type) {
+		byte version = in.get();
+		if ( version != VERSION ) {
+			throw new IllegalArgumentException("Unknown version of the encoding: " + version);
+		}
+		byte found = in.get();
+		if ( found != type ) {
+			throw new IllegalArgumentException("Encoded type " + found + " where the type " + type + " was expected");
+		}
+	}
+
+	private static CanonicalCodec start(byte type) {
+		CanonicalCodec codec = CODECS.get();
+		codec.buffer.clear();
+		codec.buffer.put(VERSION).put(type);
+		return codec;
+	}
+
+	private ByteBuffer finish() {
+		ByteBuffer encoded = buffer.duplicate();
+		encoded.flip();
+		return encoded.asReadOnlyBuffer();
+	}
+
+	private CanonicalCodec putWallets(WalletTable wallets) {
+		putInt(wallets.list.size());
+		for (Wallet wallet : wallets.list) {
+			putText(wallet.getOwner());
+			putKey(wallet.getKeyIdentity());
+		}
+		return this;
+	}
+
+	private void putTransaction(Transaction transaction, WalletTable wallets) {
+		putHash(transaction.getHash());
+		putDecimal(transaction.getValue());
+		putBytes(transaction.getSignature());
+		putInt(wallets.indexOf(transaction.getSender()));
+		putInt(wallets.indexOf(transaction.getRecipient()));
+		putText(transaction.getNonce());
+		putLong(transaction.getTimeStamp());
+
+		List<TransactionInput> inputs = transaction.getInputs();
+		putInt(inputs == null ? -1 : inputs.size());
+		if ( inputs != null ) {
+			for (TransactionInput input : inputs) {
+				putHash(input.getHash());
+				if ( input.getUTXO() == null ) {
+					ensure(1).put((byte) 0);
+				} else {
+					ensure(1).put((byte) 1);
+					putOutput(input.getUTXO(), wallets);
+				}
+			}
+		}
+		putInt(transaction.getOutputs().size());
+		for (TransactionOutput output : transaction.getOutputs()) {
+			putOutput(output, wallets);
+		}
+	}
+
+	private void putOutput(TransactionOutput output, WalletTable wallets) {
+		putHash(output.getHash());
+		putInt(wallets.indexOf(output.getRecipient()));
+		putDecimal(output.getValue());
+		putHash(output.getParentTransactionHash());
+	}
+
+	private CanonicalCodec putInt(int value) {
+		ensure(4).putInt(value);
+		return this;
+	}
+
+	private CanonicalCodec putLong(long value) {
+		ensure(8).putLong(value);
+		return this;
+	}
+
+	private CanonicalCodec putBytes(byte[] bytes) {
+		ensure(4 + bytes.length).putInt(bytes.length).put(bytes);
+		return this;
+	}
+
+	private CanonicalCodec putKey(KeyIdentity key) {
+		ensure(4 + key.length()).putInt(key.length());
+		key.writeTo(buffer);
+		return this;
+	}
+
+	private CanonicalCodec putText(String text) {
+		return putBytes(text.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private CanonicalCodec putDecimal(BigDecimal value) {
+		// Java 8 strips the zeros of zero itself too (0.00 is 0)
+		BigDecimal canonical = value.stripTrailingZeros();
+		putInt(canonical.scale());
+		return putBytes(canonical.unscaledValue().toByteArray());
+	}
+
+	private CanonicalCodec putHash(String hash) {
+		if ( hash == null ) {
+			ensure(1).put(NULL);
+		} else
+		if ( isDigest(hash) ) {
+			ByteBuffer out = ensure(1 + 32).put(DIGEST);
+			for (int i = 0; i < 64; i += 2) {
+				out.put((byte) (Character.digit(hash.charAt(i), 16) << 4 | Character.digit(hash.charAt(i + 1), 16)));
+			}
+		} else {
+			ensure(1).put(TEXT);
+			putText(hash);
+		}
+		return this;
+	}
+
+	private ByteBuffer ensure(int bytes) {
+		if ( buffer.remaining() < bytes ) {
+			ByteBuffer grown = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + bytes));
+			buffer.flip();
+			grown.put(buffer);
+			buffer = grown;
+		}
+		return buffer;
+	}
+
+	private static boolean isDigest(String hash) {
+		if ( hash.length() != 64 ) {
+			return false;
+		}
+		for (int i = 0; i < hash.length(); i++) {
+			char c = hash.charAt(i);
+			if ( !((c >= '0' && c <= '9') || (c >= 'a' && c <= 'f')) ) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static Wallet[] readWallets(ByteBuffer in, WalletResolver resolver) {
+		Wallet[] wallets = new Wallet[in.getInt()];
+		for (int i = 0; i < wallets.length; i++) {
+			String owner = readText(in);
+			wallets[i]   = resolver.resolveWallet(owner, readBytes(in));
+		}
+		return wallets;
+	}
+
+	private static Transaction readTransaction(ByteBuffer in, Wallet[] wallets, Resolver resolver) {
+		String     hash      = readHash(in);
+		BigDecimal value     = readDecimal(in);
+		byte[]     signature = readBytes(in);
+		Wallet     sender    = wallets[in.getInt()];
+		Wallet     recipient = wallets[in.getInt()];
+		String     nonce     = readText(in);
+		long       timeStamp = in.getLong();
+
+		List<TransactionInput> inputs = null;
+		int countInputs = in.getInt();
+		if ( countInputs >= 0 ) {
+			inputs = new ArrayList<TransactionInput>(countInputs);
+			for (int i = 0; i < countInputs; i++) {
+				TransactionInput input = new TransactionInput(readHash(in));
+				if ( in.get() != 0 ) {
+					input.setUTXO(readOutput(in, wallets));
+				}
+				inputs.add(input);
+			}
+		}
+
+		int                     countOutputs = in.getInt();
+		List<TransactionOutput> outputs      = new ArrayList<TransactionOutput>(countOutputs);
+		for (int i = 0; i < countOutputs; i++) {
+			outputs.add(readOutput(in, wallets));
+		}
+		return resolver.newTransaction(hash, value, signature, sender, recipient, nonce, timeStamp, inputs, outputs);
+	}
+
+	private static TransactionOutput readOutput(ByteBuffer in, Wallet[] wallets) {
+		String     hash      = readHash(in);
+		Wallet     recipient = wallets[in.getInt()];
+		BigDecimal value     = readDecimal(in);
+		String     parent    = readHash(in);
+		return new TransactionOutput(hash, recipient, value, parent);
+	}
+
+	private static String readHash(ByteBuffer in) {
+		String hash = hashAt(in, in.position());
+		in.position(skipHash(in, in.position()));
+		return hash;
+	}
+
+	private static String readText(ByteBuffer in) {
+		return new String(readBytes(in), StandardCharsets.UTF_8);
+	}
+
+	private static byte[] readBytes(ByteBuffer in) {
+		byte[] bytes = new byte[in.getInt()];
+		in.get(bytes);
+		return bytes;
+	}
+
+	private static BigDecimal readDecimal(ByteBuffer in) {
+		int scale = in.getInt();
+		return new BigDecimal(new BigInteger(readBytes(in)), scale);
+	}
+
+	/*
+	 * Absolute reads of the encoded fields (the position of the buffer is not moved)
+	 */
+
+	public static int skipHash(ByteBuffer in, int position) {
+		byte type = in.get(position);
+		if ( type == NULL ) {
+			return position + 1;
+		}
+		if ( type == DIGEST ) {
+			return position + 1 + 32;
+		}
+		return skipBytes(in, position + 1);
+	}
+
+	public static String hashAt(ByteBuffer in, int position) {
+		byte type = in.get(position);
+		if ( type == NULL ) {
+			return null;
+		}
+		if ( type == DIGEST ) {
+			return HexEncoder.toHexString(bytesAt(in, position + 1, 32));
+		}
+		return textAt(in, position + 1);
+	}
+
+	public static int skipBytes(ByteBuffer in, int position) {
+		return position + 4 + in.getInt(position);
+	}
+
+	public static byte[] bytesAt(ByteBuffer in, int position) {
+		return bytesAt(in, position + 4, in.getInt(position));
+	}
+
+	public static String textAt(ByteBuffer in, int position) {
+		return new String(bytesAt(in, position), StandardCharsets.UTF_8);
+	}
+
+	public static int skipDecimal(ByteBuffer in, int position) {
+		return skipBytes(in, position + 4);
+	}
+
+	public static BigDecimal decimalAt(ByteBuffer in, int position) {
+		return new BigDecimal(new BigInteger(bytesAt(in, position + 4)), in.getInt(position));
+	}
+
+	/**
+	 * The end of a Wallet of the table, its owner and key
+	 */
+	public static int skipWallet(ByteBuffer in, int position) {
+		return skipBytes(in, skipBytes(in, position));
+	}
+
+	public static int skipOutput(ByteBuffer in, int position) {
+		position = skipHash(in, position) + 4;
+		return skipHash(in, skipDecimal(in, position));
+	}
+
+	private static byte[] bytesAt(ByteBuffer in, int position, int length) {
+		byte[]     bytes = new byte[length];
+		ByteBuffer slice = in.duplicate();
+		slice.position(position);
+		slice.get(bytes);
+		return bytes;
+	}
+
+	/**
+	 * The Wallets of an encoding, each one written once, by the identity of its PublicKey (the one they are resolved by when decoded)
+	 */
+	private static final class WalletTable {
+		private final Map<KeyIdentity,Integer> indexes = new HashMap<KeyIdentity,Integer>();
+		private final List<Wallet>             list    = new ArrayList<Wallet>();
+
+		private void add(Transaction transaction) {
+			add(transaction.getSender());
+			add(transaction.getRecipient());
+			if ( transaction.getInputs() != null ) {
+				transaction.getInputs().stream().filter(i -> i.getUTXO() != null).forEach(i -> add(i.getUTXO().getRecipient()));
+			}
+			transaction.getOutputs().forEach(o -> add(o.getRecipient()));
+		}
+
+		private void add(Wallet wallet) {
+			if ( indexes.putIfAbsent(wallet.getKeyIdentity(), list.size()) == null ) {
+				list.add(wallet);
+			}
+		}
+
+		private int indexOf(Wallet wallet) {
+			Integer index = indexes.get(wallet.getKeyIdentity());
+			if ( index == null ) {
+				throw new IllegalStateException("Wallet not collected: " + wallet.getOwner());
+			}
+			return index;
+		}
+	}
+
+}
@@ -0,0 +1,57 @@
+package com.blockchain.cryptocurrency.concurrent;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import lombok.Getter;
+
+/**
+ * The pool of <code>blockchain.workers.threads</code> daemon workers (by default one per processor) shared by the services that split their work in parallel
+ * (the signatures of a batch of Transactions, the checks of the chain, the formatting of the Blocks).
+ *
+ * The tasks submitted here must never wait for other tasks of the pool, only the threads of the callers wait for them.
+ */
+@Component
+public class WorkerPool {
+
+	@Value("${blockchain.workers.threads:0}")
+	private int threads;
+
+	@Getter private int     parallelism;
+	private ExecutorService executor;
+
+	@PostConstruct
+	public void start() {
+		this.parallelism = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+		AtomicInteger count = new AtomicInteger();
+		this.executor = Executors.newFixedThreadPool(parallelism, r -> {
+			Thread thread = new Thread(r, "blockchain-worker-" + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		executor.shutdownNow();
+	}
+
+	public <T> Future<T> submit(Callable<T> task) {
+		return executor.submit(task);
+	}
+
+	public <T> List<Future<T>> invokeAll(List<Callable<T>> tasks) throws InterruptedException {
+		return executor.invokeAll(tasks);
+	}
+
+}
@@ -0,0 +1,288 @@
+package com.blockchain.cryptocurrency.mempool;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.blockchain.cryptocurrency.block.CurrencyBlock;
+import com.blockchain.cryptocurrency.block.CurrencyBlockChain;
+import com.blockchain.cryptocurrency.codec.CanonicalCodec;
+import com.blockchain.cryptocurrency.transaction.Transaction;
+import com.blockchain.cryptocurrency.transaction.TransactionInput;
+import com.blockchain.cryptocurrency.transaction.TransactionOutput;
+import com.blockchain.cryptocurrency.utxo.UTXOService;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * The Transactions waiting for a Block: signed, verified, their inputs unspent, not yet processed (the UTXOs are only touched when their Block is).
+ *
+ * Safe to be used by many threads, without a global lock:
+ * <ul>
+ * <li>the pending Transactions by their hash, a concurrent map (the duplicates are rejected)</li>
+ * <li>the inputs claimed, a concurrent map of the output hash to the Transaction spending it: the claim is a <code>putIfAbsent</code>,
+ *     so two Transactions spending the same output are never both pending, the second one is rejected as a conflict</li>
+ * <li>the priority order, a skip list: the value paid per byte of the Block first (there are no fees in this chain, the value stands for them),
+ *     then the oldest one first</li>
+ * </ul>
+ * So the admission of a Transaction is a few hash lookups and one O(log n) insertion (plus its signature, usually already in the {@link com.blockchain.cryptocurrency.transaction.SignatureCache}).
+ *
+ * Bounded to <code>blockchain.mempool.maxTransactions</code>: when full a new Transaction takes the place of the lowest one only if its priority is higher.
+ */
+@Slf4j
+@Service
+public class Mempool {
+
+	// The outputs a pending Transaction gets when processed (the payment and the change, the copies of the ones spent by its inputs) are not encoded yet:
+	// at most their hashes, the index of their Wallet, and a value of 16 bytes
+	private static final int OUTPUT_BYTES = 33 + 4 + 4 + 4 + 16 + 33;
+
+	public enum Admission {
+		ACCEPTED, DUPLICATE, MISSING_INPUTS, INSUFFICIENT_INPUTS, BELOW_MINIMUM, INVALID_SIGNATURE, CONFLICT, FULL
+	}
+
+	@Value("${blockchain.mempool.maxTransactions:50000}")
+	private int maxTransactions;
+
+	@Autowired
+	private UTXOService utxoService;
+
+	private final Map<String,Pending>     pending  = new ConcurrentHashMap<String,Pending>();
+	private final Map<String,Pending>     claims   = new ConcurrentHashMap<String,Pending>();
+	private final NavigableSet<Pending>   priority = new ConcurrentSkipListSet<Pending>(Pending.ORDER);
+	private final AtomicLong              arrivals = new AtomicLong();
+
+	/**
+	 * Admit a signed Transaction, not processed yet, to be included in a next Block
+	 */
+	public Admission admit(Transaction transaction) {
+		if ( pending.containsKey(transaction.getHash()) ) {
+			return Admission.DUPLICATE;
+		}
+		List<TransactionInput> inputs = transaction.getInputs();
+		if ( inputs == null || inputs.isEmpty() ) {
+			return Admission.MISSING_INPUTS;
+		}
+		BigDecimal total = BigDecimal.ZERO;
+		for (TransactionInput input : inputs) {
+			TransactionOutput output = utxoService.getTransaction(input.getHash());
+			if ( output == null ) {
+				return Admission.MISSING_INPUTS;
+			}
+			total = total.add(output.getValue());
+		}
+		if ( total.compareTo(transaction.getValue()) < 0 ) {
+			return Admission.INSUFFICIENT_INPUTS;
+		}
+		// The same check of the processing (in float), it could never be processed
+		if ( total.floatValue() < CurrencyBlockChain.MINIMUM_TRANSACTION ) {
+			return Admission.BELOW_MINIMUM;
+		}
+		if ( !transaction.verifySignature() ) {
+			log.warn("The signature of the Transaction {} do not match, not admitted", transaction.getHash());
+			return Admission.INVALID_SIGNATURE;
+		}
+
+		Pending candidate = new Pending(transaction, sizeOf(transaction), arrivals.incrementAndGet());
+		if ( pending.putIfAbsent(transaction.getHash(), candidate) != null ) {
+			return Admission.DUPLICATE;
+		}
+		for (int i = 0; i < inputs.size(); i++) {
+			Pending holder = claims.putIfAbsent(inputs.get(i).getHash(), candidate);
+			if ( holder != null ) {
+				release(candidate, i);
+				pending.remove(transaction.getHash(), candidate);
+				return Admission.CONFLICT;
+			}
+		}
+		if ( pending.size() > maxTransactions && !evictLowerThan(candidate) ) {
+			discard(candidate);
+			return Admission.FULL;
+		}
+		priority.add(candidate);
+		if ( pending.get(transaction.getHash()) != candidate ) {
+			// Removed meanwhile (before it was in the priority order, or while its inputs were claimed): nothing of it must be left behind
+			priority.remove(candidate);
+			release(candidate, inputs.size());
+		}
+		return Admission.ACCEPTED;
+	}
+
+	/**
+	 * Assemble a Block with the pending Transactions of highest priority, up to <code>maxBytes</code> of its encoding, in a single pass:
+	 * a Transaction too big for the room left is skipped, a smaller one after it may still fit, as one whose inputs are not unspent anymore
+	 * (spent by a Transaction out of the mempool, or by one processed for a Block not added yet). They are added straight to the list of the Block,
+	 * its Merkle tree is built once, from all of them, when the Block is added (not one append, and its hashing up the levels, for each one).
+	 *
+	 * The Transactions stay pending, they leave only when their Block was added ({@link #confirm(CurrencyBlock)}): the template is added
+	 * by {@link CurrencyBlockChain#addBlockTemplate(CurrencyBlock)}, which processes it and takes out the Transactions rejected.
+	 */
+	public CurrencyBlock buildBlockTemplate(int maxBytes) {
+		CurrencyBlock     block        = new CurrencyBlock();
+		List<Transaction> transactions = block.getTransactions();
+		int               room         = maxBytes;
+		for (Pending candidate : priority) {
+			if ( candidate.size <= room && pending.get(candidate.transaction.getHash()) == candidate && isUnspent(candidate.transaction.getInputs()) ) {
+				transactions.add(candidate.transaction);
+				room -= candidate.size;
+			}
+		}
+		return block;
+	}
+
+	/**
+	 * A Block was added to the chain: its Transactions leave the mempool, and so do the pending ones spending the same outputs (they can never be included now)
+	 */
+	public void confirm(CurrencyBlock block) {
+		for (Transaction transaction : block.getTransactions()) {
+			remove(transaction.getHash());
+			if ( transaction.getInputs() == null ) {
+				continue;
+			}
+			for (TransactionInput input : transaction.getInputs()) {
+				Pending holder = claims.get(input.getHash());
+				if ( holder != null ) {
+					remove(holder.transaction.getHash());
+				}
+			}
+		}
+	}
+
+	/**
+	 * Take out the Transactions dropped, their inputs are free to be claimed again
+	 */
+	public void remove(Collection<Transaction> transactions) {
+		for (Transaction transaction : transactions) {
+			remove(transaction.getHash());
+		}
+	}
+
+	public boolean remove(String hash) {
+		Pending removed = pending.remove(hash);
+		if ( removed == null ) {
+			return false;
+		}
+		priority.remove(removed);
+		release(removed, removed.transaction.getInputs().size());
+		return true;
+	}
+
+	public boolean contains(String hash) {
+		return pending.containsKey(hash);
+	}
+
+	/**
+	 * The pending Transaction spending this output, if any
+	 */
+	public Transaction findSpender(String outputHash) {
+		Pending holder = claims.get(outputHash);
+		return holder == null ? null : holder.transaction;
+	}
+
+	public int size() {
+		return pending.size();
+	}
+
+	/**
+	 * The pending Transactions, the highest priority first
+	 */
+	public List<Transaction> listTransactions() {
+		List<Transaction> transactions = new ArrayList<Transaction>(priority.size());
+		priority.forEach(p -> transactions.add(p.transaction));
+		return transactions;
+	}
+
+	public void clear() {
+		pending.clear();
+		claims.clear();
+		priority.clear();
+	}
+
+	private boolean evictLowerThan(Pending candidate) {
+		while ( pending.size() > maxTransactions ) {
+			Pending lowest = priority.pollLast();
+			if ( lowest == null ) {
+				return false;
+			}
+			if ( Pending.ORDER.compare(candidate, lowest) > 0 ) {
+				// The candidate is not better than the lowest one, it goes back
+				priority.add(lowest);
+				return false;
+			}
+			if ( pending.remove(lowest.transaction.getHash(), lowest) ) {
+				release(lowest, lowest.transaction.getInputs().size());
+				log.debug("The Transaction {} evicted by {}, a higher priority", lowest.transaction.getHash(), candidate.transaction.getHash());
+			}
+		}
+		return true;
+	}
+
+	private boolean isUnspent(List<TransactionInput> inputs) {
+		for (TransactionInput input : inputs) {
+			if ( utxoService.getTransaction(input.getHash()) == null ) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private void discard(Pending candidate) {
+		pending.remove(candidate.transaction.getHash(), candidate);
+		release(candidate, candidate.transaction.getInputs().size());
+	}
+
+	/**
+	 * Free the first <code>count</code> inputs claimed by this Transaction (only those still claimed by it)
+	 */
+	private void release(Pending holder, int count) {
+		List<TransactionInput> inputs = holder.transaction.getInputs();
+		for (int i = 0; i < count; i++) {
+			claims.remove(inputs.get(i).getHash(), holder);
+		}
+	}
+
+	/**
+	 * Bytes of the Transaction in the Block, as encoded by the {@link CanonicalCodec} once processed
+	 */
+	static int sizeOf(Transaction transaction) {
+		int size = CanonicalCodec.encode(transaction).remaining();
+		if ( transaction.getOutputs().isEmpty() ) {
+			size += 2 * OUTPUT_BYTES;
+		}
+		for (TransactionInput input : transaction.getInputs()) {
+			if ( input.getUTXO() == null ) {
+				size += OUTPUT_BYTES;
+			}
+		}
+		return size;
+	}
+
+	private static final class Pending {
+
+		static final Comparator<Pending> ORDER = Comparator.comparingDouble((Pending p) -> -p.valuePerByte).thenComparingLong(p -> p.arrival);
+
+		final Transaction transaction;
+		final int         size;
+		final long        arrival;
+		final double      valuePerByte;
+
+		Pending(Transaction transaction, int size, long arrival) {
+			this.transaction  = transaction;
+			this.size         = size;
+			this.arrival      = arrival;
+			this.valuePerByte = transaction.getValue().doubleValue() / size;
+		}
+	}
+
+}
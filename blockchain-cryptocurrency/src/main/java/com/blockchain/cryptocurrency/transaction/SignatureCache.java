@@ -0,0 +1,131 @@
+package com.blockchain.cryptocurrency.transaction;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+
+import javax.annotation.PostConstruct;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.blockchain.security.KeyIdentity;
+
+/**
+ * The signatures already verified, so a Transaction checked again (a Block validated after its Transactions were processed, an audit...) skips the ECDSA.
+ *
+ * An entry is the SHA-256 of the whole check: the Transaction's hash, the PublicKey, the signed data and the signature. A Transaction tampered
+ * after signed (its data changed, its hash not) is not found, so it is verified again and fails. Only the successful verifications are kept.
+ *
+ * Bounded to <code>blockchain.signatureCache.size</code> entries (0 disables it), split in {@value #SEGMENTS} segments by the first byte of the entry,
+ * each one an LRU guarded by its own lock, so the workers of the {@link TransactionVerifier} rarely wait for each other.
+ */
+@Service
+public class SignatureCache {
+
+	private static final int SEGMENTS = 16;
+
+	@Value("${blockchain.signatureCache.size:100000}")
+	private int size;
+
+	private final LongAdder hits   = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private Segment[]       segments;
+
+	@PostConstruct
+	public void init() {
+		this.segments = new Segment[SEGMENTS];
+		for (int i = 0; i < SEGMENTS; i++) {
+			segments[i] = new Segment((size + SEGMENTS - 1) / SEGMENTS);
+		}
+	}
+
+	/**
+	 * Verify a signature (by the <code>verification</code>), unless it was already verified successfully
+	 */
+	public boolean verify(String transactionHash, KeyIdentity publicKey, ByteBuffer data, byte[] signature, BooleanSupplier verification) {
+		if ( size <= 0 ) {
+			return verification.getAsBoolean();
+		}
+		ByteBuffer entry   = entryOf(transactionHash, publicKey, data, signature);
+		Segment    segment = segments[(entry.get(0) & 0xFF) % SEGMENTS];
+		synchronized (segment) {
+			if ( segment.get(entry) != null ) {
+				hits.increment();
+				return true;
+			}
+		}
+		misses.increment();
+		boolean verified = verification.getAsBoolean();
+		if ( verified ) {
+			synchronized (segment) {
+				segment.put(entry, Boolean.TRUE);
+			}
+		}
+		return verified;
+	}
+
+	public long getHits() {
+		return hits.sum();
+	}
+
+	public long getMisses() {
+		return misses.sum();
+	}
+
+	public int getSize() {
+		int entries = 0;
+		for (Segment segment : segments) {
+			synchronized (segment) {
+				entries += segment.size();
+			}
+		}
+		return entries;
+	}
+
+	public void clear() {
+		for (Segment segment : segments) {
+			synchronized (segment) {
+				segment.clear();
+			}
+		}
+		hits.reset();
+		misses.reset();
+	}
+
+	private static ByteBuffer entryOf(String transactionHash, KeyIdentity publicKey, ByteBuffer data, byte[] signature) {
+		MessageDigest digest = DigestUtils.getSha256Digest();
+		for (byte[] part : new byte[][] { transactionHash.getBytes(StandardCharsets.UTF_8), publicKey.getEncoded(), signature }) {
+			// Each part with its length, no two different checks give the same bytes
+			digest.update(ByteBuffer.allocate(4).putInt(part.length).array());
+			digest.update(part);
+		}
+		// The signed data last, it is the only part not prefixed by its length
+		digest.update(data.duplicate());
+		return ByteBuffer.wrap(digest.digest());
+	}
+
+	/**
+	 * LRU of one segment (the eldest accessed entry is dropped when it is full)
+	 */
+	private static final class Segment extends LinkedHashMap<ByteBuffer,Boolean> {
+		private static final long serialVersionUID = 1L;
+		private final int         capacity;
+
+		private Segment(int capacity) {
+			super(16, 0.75f, true);
+			this.capacity = capacity;
+		}
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<ByteBuffer,Boolean> eldest) {
+			return size() > capacity;
+		}
+	}
+
+}
@@ -1,6 +1,7 @@
 package com.blockchain.cryptocurrency.transaction;
 
 import java.math.BigDecimal;
+import java.nio.ByteBuffer;
 import java.text.NumberFormat;
 import java.time.Instant;
 import java.util.ArrayList;
@@ -13,6 +14,7 @@ import org.springframework.context.annotation.Scope;
 import org.springframework.stereotype.Component;
 
 import com.blockchain.cryptocurrency.block.CurrencyBlockChain;
+import com.blockchain.cryptocurrency.codec.CanonicalCodec;
 import com.blockchain.cryptocurrency.wallet.Wallet;
 import com.blockchain.security.Security;
 
@@ -55,6 +57,24 @@ public class Transaction {
 		this.generateSignature();
 	}
 	
+	/**
+	 * A Transaction already made, restored as it was (from the stored BlockChain)
+	 */
+	public Transaction(Security security, CurrencyBlockChain currencyBlockChain, String hash, BigDecimal value, byte[] signature, Wallet sender, Wallet recipient, 
+			           String nonce, Long timeStamp, List<TransactionInput> inputs, List<TransactionOutput> outputs) {
+		this.security           = security;
+		this.currencyBlockChain = currencyBlockChain;
+		this.hash               = hash;
+		this.value              = value;
+		this.signature          = signature;
+		this.sender             = sender;
+		this.recipient          = recipient;
+		this.nonce              = nonce;
+		this.timeStamp          = timeStamp;
+		this.inputs             = inputs;
+		this.outputs            = outputs;
+	}
+	
 	public void addOutput(Wallet recipient, BigDecimal value) {
 		TransactionOutput transactionOutput = new TransactionOutput(recipient, value, this.hash);
 		this.outputs.add(transactionOutput);
@@ -65,26 +85,38 @@ public class Transaction {
 
 	public boolean processTransaction() {
 
-		if (!checkSignature()) {
+		if (!verifySignature()) {
 			log.error("Error, signature do not match!");
 			return false;
 		}
 
-		// Check the transaction inputs, verifying that they were not spent and, use it so... otherwise discard it
-		currencyBlockChain.confirmIfTransactionInputAreAvailableToSpent(this);
+		return processVerifiedTransaction();
+	}
+
+	/**
+	 * The same of {@link #processTransaction()} without checking the signature again, already verified (e.g. by the {@link TransactionVerifier}, with its batch)
+	 */
+	public boolean processVerifiedTransaction() {
+		if ( StringUtils.isBlank(this.hash) ) {
+			throw new RuntimeException("The Hash of the Transaction were not calculated yet, must be done before it be processed");
+		}
+		
+		// Spend the transaction inputs, all at once and only if none of them was spent (by any other Transaction, even a concurrent one)... otherwise discard it
+		if ( !currencyBlockChain.spendTransactionInputs(this) ) {
+			log.warn("The inputs of the Transaction {} are not available to be spent anymore", this.hash);
+			return false;
+		}
 		
 		// Checks the value of transaction
 		float totalTransaction = processTotalTransaction(); 
 		if (  totalTransaction < CurrencyBlockChain.MINIMUM_TRANSACTION ) {
 			log.warn("Total of Transaction is too small: {}, the minimum amount allowed is:{}", totalTransaction, CurrencyBlockChain.MINIMUM_TRANSACTION);
+			currencyBlockChain.returnToUTXOs(this);
 			return false;
 		}
 		
 		// What is left after pay the sent value (This is the change for the Sender) 
 		float leftOver = totalTransaction - this.value.floatValue();
-		if ( StringUtils.isBlank(this.hash) ) {
-			throw new RuntimeException("The Hash of the Transaction were not calculated yet, must be done before it be processed");
-		}
 		
 		// Send the coins to the Recipient
 		this.outputs.add(new TransactionOutput(this.recipient, value, this.hash));
@@ -92,24 +124,15 @@ public class Transaction {
 		this.outputs.add(new TransactionOutput(this.sender, BigDecimal.valueOf(leftOver),this.hash));
 		
 		// Add the Transactions Output generated in this transaction as Unspent Transaction Output (UTXO), that can be spent as an input in a new transaction
+		// (the Inputs were already removed from the UTXOs when they were spent)
 		currencyBlockChain.addToUTXOs(this);
-		// Remove the Transactions Input from the UTXOs (they cannot be used anymore, as they were already spent)
-		currencyBlockChain.removeFromUTXOs(this);
 		
 		return true;
 	}
 
 	private String calculateTransactionHash() {
-		String nonce = UUID.randomUUID().toString();
-		this.nonce   = nonce;
-		
-		return Security.applySHA256(
-			   Security.encodeBase64(this.sender.getPublicKey()) + 
-			   Security.encodeBase64(this.recipient.getPublicKey()) + 
-			   String.valueOf(this.value.floatValue()) + 
-			   Long.toString(this.getTimeStamp()) +
-			   nonce
-		);
+		this.nonce = UUID.randomUUID().toString();
+		return CanonicalCodec.hashTransaction(this);
 	}
 	
 	private float processTotalTransaction() {
@@ -128,13 +151,12 @@ public class Transaction {
 	 * 
 	 * @return
 	 */
-	private boolean checkSignature() {
-		//@formatter:off
-		String data = Security.encodeBase64(this.sender.getPublicKey()) +
-				      Security.encodeBase64(this.recipient.getPublicKey()) + 
-				      this.value.toString();
-		//@formatter:on
-		return security.verifySignature(sender.getPublicKey(), data, signature);
+	public boolean verifySignature() {
+		// The signed data is in the encoding buffer of this thread, it is not touched by the cache nor by the verification
+		ByteBuffer data = CanonicalCodec.signedData(this);
+		// Already verified before? (e.g. when it was processed, now its Block is validated)
+		return currencyBlockChain.getSignatureCache().verify(hash, sender.getKeyIdentity(), data, signature,
+				() -> security.verifySignature(sender.getPublicKey(), data, signature));
 	}
 	
 	/**
@@ -142,12 +164,7 @@ public class Transaction {
 	 * @param privateKey
 	 */
 	private void generateSignature() {
-		//@formatter:off
-		String data = Security.encodeBase64(this.sender.getPublicKey()) +
-				      Security.encodeBase64(this.recipient.getPublicKey()) + 
-				      this.value.toString();
-		//@formatter:on
-		this.signature = security.sign(this.sender.getPrivateKey(), data);
+		this.signature = security.sign(this.sender.getPrivateKey(), CanonicalCodec.signedData(this));
 	}
 
 	@Override
@@ -1,12 +1,12 @@
 package com.blockchain.cryptocurrency.transaction;
 
 import java.math.BigDecimal;
-import java.security.PublicKey;
 
 import org.apache.commons.lang.StringUtils;
 
+import com.blockchain.cryptocurrency.codec.CanonicalCodec;
 import com.blockchain.cryptocurrency.wallet.Wallet;
-import com.blockchain.security.Security;
+import com.blockchain.security.KeyIdentity;
 
 import lombok.Getter;
 
@@ -18,21 +18,29 @@ public class TransactionOutput {
 	@Getter private String parentTransactionHash;
 	
 	public TransactionOutput(Wallet recipient, BigDecimal value, String parentTransactionHash) {
-		this.recipient          = recipient;
-		this.value               = value;
+		this.recipient             = recipient;
+		this.value                 = value;
 		this.parentTransactionHash = parentTransactionHash;
-		
-		String data              = Security.encodeBase64(this.recipient.getPublicKey()) + this.value.toString() + this.parentTransactionHash;
-		this.hash                = Security.applySHA256(data);
+		this.hash                  = CanonicalCodec.hashOutput(this.recipient.getKeyIdentity(), this.value, this.parentTransactionHash);
 	}
 	
 	/**
-	 * These coins are mine?
-	 * @param publicKey
+	 * An Output already made, restored as it was (from the stored BlockChain)
+	 */
+	public TransactionOutput(String hash, Wallet recipient, BigDecimal value, String parentTransactionHash) {
+		this.hash                  = hash;
+		this.recipient             = recipient;
+		this.value                 = value;
+		this.parentTransactionHash = parentTransactionHash;
+	}
+	
+	/**
+	 * These coins are mine? (the same encoded PublicKey, whatever its instance)
+	 * @param keyIdentity
 	 * @return
 	 */
-	public boolean isMine(PublicKey publicKey) {
-		return publicKey == this.recipient.getPublicKey();
+	public boolean isMine(KeyIdentity keyIdentity) {
+		return this.recipient.getKeyIdentity().equals(keyIdentity);
 	}
 
 	@Override
@@ -0,0 +1,84 @@
+package com.blockchain.cryptocurrency.transaction;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.blockchain.cryptocurrency.concurrent.WorkerPool;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Verify the signatures of a batch of Transactions in parallel, on the workers of the {@link WorkerPool}.
+ *
+ * The batch is split in one slice per worker, so a Block of thousands of Transactions costs a few tasks, not one per Transaction.
+ * {@link #processTransactions(List)} only touches the UTXOs once every signature of the batch was verified.
+ */
+@Slf4j
+@Service
+public class TransactionVerifier {
+
+	@Autowired
+	private WorkerPool workers;
+
+	/**
+	 * @return the result of the signature of each Transaction, in the same order
+	 */
+	public boolean[] verify(List<Transaction> transactions) {
+		boolean[] verified = new boolean[transactions.size()];
+		if ( transactions.size() <= 1 ) {
+			// Not worth a trip to the pool
+			for (int i = 0; i < verified.length; i++) {
+				verified[i] = transactions.get(i).verifySignature();
+			}
+			return verified;
+		}
+
+		int                  slices = Math.min(workers.getParallelism(), transactions.size());
+		List<Callable<Void>> tasks  = new ArrayList<Callable<Void>>(slices);
+		for (int s = 0; s < slices; s++) {
+			int from = (int) ((long) transactions.size() * s / slices);
+			int to   = (int) ((long) transactions.size() * (s + 1) / slices);
+			tasks.add(() -> {
+				for (int i = from; i < to; i++) {
+					verified[i] = transactions.get(i).verifySignature();
+				}
+				return null;
+			});
+		}
+		try {
+			for (Future<Void> task : workers.invokeAll(tasks)) {
+				task.get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(e);
+		} catch (ExecutionException e) {
+			log.error(e.getMessage(), e);
+			throw new RuntimeException(e.getCause());
+		}
+		return verified;
+	}
+
+	/**
+	 * Verify the whole batch first, then process (spend the inputs, add the outputs) the verified Transactions, one after another in their order
+	 * @return the result of each Transaction, false if its signature did not match or its inputs could not be spent
+	 */
+	public boolean[] processTransactions(List<Transaction> transactions) {
+		boolean[] processed = verify(transactions);
+		for (int i = 0; i < processed.length; i++) {
+			if ( !processed[i] ) {
+				log.error("Error, signature do not match! Transaction {}", transactions.get(i).getHash());
+				continue;
+			}
+			processed[i] = transactions.get(i).processVerifiedTransaction();
+		}
+		return processed;
+	}
+
+}
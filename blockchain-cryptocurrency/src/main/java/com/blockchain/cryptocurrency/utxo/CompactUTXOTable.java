@@ -0,0 +1,244 @@
+package com.blockchain.cryptocurrency.utxo;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.blockchain.cryptocurrency.transaction.TransactionOutput;
+import com.blockchain.security.KeyIdentity;
+
+/**
+ * The UTXOs in primitive arrays, an open addressing hash table (linear probing) whose slot is only:
+ * <pre>
+ *   hash      32 bytes   the output's SHA-256, raw (hashes[slot * 32 ...])
+ *   amount     8 bytes   the value as fixed-point, in units of 10^-{@value #AMOUNT_SCALE} (amounts[slot])
+ *   recipient  4 bytes   id of the recipient's PublicKey, interned once per owner in a side table (recipients[slot], 0 is an empty slot)
+ *   ---------
+ *             44 bytes per slot, at most 75% of the slots in use: from ~59 bytes per UTXO (full) to ~117 (just grown)
+ * </pre>
+ * instead of a {@link TransactionOutput} per UTXO (its object, two 64 chars hex Strings, a BigDecimal and the map entries pointing to it,
+ * around 500 bytes, see the <code>UTXOTableBenchmark</code> of the benchmark module). The parent Transaction's hash is not kept, it is not needed to spend the output.
+ *
+ * Not thread safe, the callers guard it (e.g. one table per lock stripe).
+ */
+public class CompactUTXOTable {
+
+	/** Decimal places of the fixed-point amounts, the values with more than that are refused */
+	public static final int AMOUNT_SCALE = 8;
+
+	private static final int   HASH_LENGTH  = 32;
+	private static final float LOAD_FACTOR  = 0.75f;
+	private static final int   MIN_CAPACITY = 16;
+
+	private byte[] hashes;
+	private long[] amounts;
+	private int[]  recipients;
+	private int    size;
+	private int    mask;
+
+	private final byte[]                   scratch = new byte[HASH_LENGTH];
+	private final List<KeyIdentity>        keys    = new ArrayList<KeyIdentity>();
+	private final Map<KeyIdentity,Integer> keyIds  = new HashMap<KeyIdentity,Integer>();
+
+	public CompactUTXOTable() {
+		this(MIN_CAPACITY);
+	}
+
+	public CompactUTXOTable(int expectedSize) {
+		allocate(Math.max(MIN_CAPACITY, Integer.highestOneBit((int) (expectedSize / LOAD_FACTOR)) << 1));
+	}
+
+	/**
+	 * @return false if there was already an output with this hash (it is replaced)
+	 */
+	public boolean add(TransactionOutput output) {
+		return add(output.getHash(), output.getValue(), internKey(output.getRecipient().getKeyIdentity()));
+	}
+
+	public boolean add(String hash, BigDecimal value, int recipient) {
+		if ( recipient < 1 || recipient > keys.size() ) {
+			throw new IllegalArgumentException("Unknown recipient key: " + recipient);
+		}
+		if ( size + 1 > (int) (recipients.length * LOAD_FACTOR) ) {
+			allocate(recipients.length << 1);
+		}
+		decodeHash(hash, scratch);
+		int slot = find(scratch);
+		boolean added = recipients[slot] == 0;
+		if ( added ) {
+			System.arraycopy(scratch, 0, hashes, slot * HASH_LENGTH, HASH_LENGTH);
+			size++;
+		}
+		amounts[slot]    = toFixedPoint(value);
+		recipients[slot] = recipient;
+		return added;
+	}
+
+	/**
+	 * @return false if there is no output with this hash
+	 */
+	public boolean remove(String hash) {
+		decodeHash(hash, scratch);
+		int slot = find(scratch);
+		if ( recipients[slot] == 0 ) {
+			return false;
+		}
+		recipients[slot] = 0;
+		size--;
+		shiftBack(slot);
+		return true;
+	}
+
+	public boolean contains(String hash) {
+		decodeHash(hash, scratch);
+		return recipients[find(scratch)] != 0;
+	}
+
+	/**
+	 * @return the value of the output, null if there is no output with this hash
+	 */
+	public BigDecimal getValue(String hash) {
+		decodeHash(hash, scratch);
+		int slot = find(scratch);
+		return recipients[slot] == 0 ? null : BigDecimal.valueOf(amounts[slot], AMOUNT_SCALE);
+	}
+
+	/**
+	 * @return the id of the recipient's key of the output, 0 if there is no output with this hash
+	 */
+	public int getRecipient(String hash) {
+		decodeHash(hash, scratch);
+		return recipients[find(scratch)];
+	}
+
+	/**
+	 * The id of this PublicKey, the same for all the outputs of its owner
+	 */
+	public int internKey(KeyIdentity keyIdentity) {
+		Integer id = keyIds.get(keyIdentity);
+		if ( id == null ) {
+			keys.add(keyIdentity);
+			id = keys.size();
+			keyIds.put(keyIdentity, id);
+		}
+		return id;
+	}
+
+	/**
+	 * The PublicKey of this id
+	 */
+	public KeyIdentity getKey(int recipient) {
+		return keys.get(recipient - 1);
+	}
+
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Bytes held by the arrays of the table (the side table of the keys apart)
+	 */
+	public long footprint() {
+		return (long) hashes.length + 8L * amounts.length + 4L * recipients.length;
+	}
+
+	private int find(byte[] hash) {
+		int slot = slotOf(hash, 0);
+		while ( recipients[slot] != 0 && !sameHash(slot, hash) ) {
+			slot = (slot + 1) & mask;
+		}
+		return slot;
+	}
+
+	/**
+	 * Removal without tombstones: the next entries of the run are moved back if the emptied slot is on their probing path
+	 */
+	private void shiftBack(int empty) {
+		int slot = (empty + 1) & mask;
+		while ( recipients[slot] != 0 ) {
+			int home = slotOf(hashes, slot * HASH_LENGTH);
+			if ( ((slot - home) & mask) >= ((slot - empty) & mask) ) {
+				System.arraycopy(hashes, slot * HASH_LENGTH, hashes, empty * HASH_LENGTH, HASH_LENGTH);
+				amounts[empty]    = amounts[slot];
+				recipients[empty] = recipients[slot];
+				recipients[slot]  = 0;
+				empty = slot;
+			}
+			slot = (slot + 1) & mask;
+		}
+	}
+
+	private boolean sameHash(int slot, byte[] hash) {
+		int offset = slot * HASH_LENGTH;
+		for (int i = 0; i < HASH_LENGTH; i++) {
+			if ( hashes[offset + i] != hash[i] ) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private int slotOf(byte[] hash, int offset) {
+		// A SHA-256 is already uniform, its first bytes are enough
+		int h = (hash[offset] & 0xFF) << 24 | (hash[offset + 1] & 0xFF) << 16 | (hash[offset + 2] & 0xFF) << 8 | (hash[offset + 3] & 0xFF);
+		return h & mask;
+	}
+
+	private void allocate(int capacity) {
+		byte[] oldHashes     = hashes;
+		long[] oldAmounts    = amounts;
+		int[]  oldRecipients = recipients;
+
+		hashes     = new byte[capacity * HASH_LENGTH];
+		amounts    = new long[capacity];
+		recipients = new int[capacity];
+		mask       = capacity - 1;
+		if ( oldRecipients == null ) {
+			return;
+		}
+		byte[] hash = new byte[HASH_LENGTH];
+		for (int old = 0; old < oldRecipients.length; old++) {
+			if ( oldRecipients[old] != 0 ) {
+				System.arraycopy(oldHashes, old * HASH_LENGTH, hash, 0, HASH_LENGTH);
+				int slot = find(hash);
+				System.arraycopy(hash, 0, hashes, slot * HASH_LENGTH, HASH_LENGTH);
+				amounts[slot]    = oldAmounts[old];
+				recipients[slot] = oldRecipients[old];
+			}
+		}
+	}
+
+	static long toFixedPoint(BigDecimal value) {
+		try {
+			return value.setScale(AMOUNT_SCALE, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+		} catch (ArithmeticException e) {
+			throw new IllegalArgumentException("The value " + value + " does not fit in a fixed-point of " + AMOUNT_SCALE + " decimal places", e);
+		}
+	}
+
+	private static void decodeHash(String hash, byte[] target) {
+		if ( hash.length() != 2 * HASH_LENGTH ) {
+			throw new IllegalArgumentException("Not a SHA-256 hex: " + hash);
+		}
+		for (int i = 0; i < HASH_LENGTH; i++) {
+			target[i] = (byte) (hexValue(hash.charAt(2 * i)) << 4 | hexValue(hash.charAt(2 * i + 1)));
+		}
+	}
+
+	private static int hexValue(char c) {
+		int value = Character.digit(c, 16);
+		if ( value < 0 ) {
+			throw new IllegalArgumentException("Not an hex digit: " + c);
+		}
+		return value;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("CompactUTXOTable [size=%s, capacity=%s, keys=%s, footprint=%s]", size, recipients.length, keys.size(), footprint());
+	}
+
+}
@@ -0,0 +1,114 @@
+package com.blockchain.cryptocurrency.utxo;
+
+import java.util.Arrays;
+
+import org.apache.commons.codec.digest.DigestUtils;
+
+import com.blockchain.utils.HexEncoder;
+
+/**
+ * A digest of a set of UTXOs that does not depend on their order: the sum, modulo 2<sup>256</sup>, of their hashes (each one already the SHA-256
+ * of the output: its recipient, value and Transaction). So it is kept up to date adding the outputs created and subtracting the ones spent,
+ * without going through the whole set again.
+ *
+ * A checksum of the set, to compare two of them (the one replayed from the Blocks and the one kept), not a commitment safe against someone
+ * choosing the outputs to make two sets collide.
+ */
+public class UTXODigest {
+
+	private static final int LIMBS = 4;
+
+	// Big-endian, limbs[0] is the most significant
+	private final long[] limbs = new long[LIMBS];
+
+	public static UTXODigest of(Iterable<String> hashs) {
+		UTXODigest digest = new UTXODigest();
+		for (String hash : hashs) {
+			digest.add(hash);
+		}
+		return digest;
+	}
+
+	public static UTXODigest fromHex(String hex) {
+		UTXODigest digest = new UTXODigest();
+		for (int i = 0; i < LIMBS; i++) {
+			digest.limbs[i] = Long.parseUnsignedLong(hex.substring(i * 16, (i + 1) * 16), 16);
+		}
+		return digest;
+	}
+
+	public UTXODigest add(String hash) {
+		long[] value = valueOf(hash);
+		long   carry = 0;
+		for (int i = LIMBS - 1; i >= 0; i--) {
+			long sum = limbs[i] + value[i] + carry;
+			// Unsigned overflow of the limb, with or without the carry
+			carry    = Long.compareUnsigned(sum, limbs[i]) < 0 || (carry == 1 && sum == limbs[i]) ? 1 : 0;
+			limbs[i] = sum;
+		}
+		return this;
+	}
+
+	public UTXODigest subtract(String hash) {
+		long[] value  = valueOf(hash);
+		long   borrow = 0;
+		for (int i = LIMBS - 1; i >= 0; i--) {
+			long difference = limbs[i] - value[i] - borrow;
+			borrow   = Long.compareUnsigned(limbs[i], value[i]) < 0 || (borrow == 1 && limbs[i] == value[i]) ? 1 : 0;
+			limbs[i] = difference;
+		}
+		return this;
+	}
+
+	public String toHex() {
+		StringBuilder hex = new StringBuilder(LIMBS * 16);
+		for (long limb : limbs) {
+			String digits = Long.toHexString(limb);
+			for (int i = digits.length(); i < 16; i++) {
+				hex.append('0');
+			}
+			hex.append(digits);
+		}
+		return hex.toString();
+	}
+
+	/**
+	 * The hash as a number of 256 bits: a SHA-256 hex as it is, any other text through its own SHA-256
+	 */
+	private static long[] valueOf(String hash) {
+		String hex    = isDigest(hash) ? hash : HexEncoder.toHexString(DigestUtils.sha256(hash));
+		long[] value  = new long[LIMBS];
+		for (int i = 0; i < LIMBS; i++) {
+			value[i] = Long.parseUnsignedLong(hex.substring(i * 16, (i + 1) * 16), 16);
+		}
+		return value;
+	}
+
+	private static boolean isDigest(String hash) {
+		if ( hash.length() != LIMBS * 16 ) {
+			return false;
+		}
+		for (int i = 0; i < hash.length(); i++) {
+			if ( Character.digit(hash.charAt(i), 16) < 0 ) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		return obj instanceof UTXODigest && Arrays.equals(limbs, ((UTXODigest) obj).limbs);
+	}
+
+	@Override
+	public int hashCode() {
+		return Arrays.hashCode(limbs);
+	}
+
+	@Override
+	public String toString() {
+		return toHex();
+	}
+
+}
@@ -1,47 +1,334 @@
 package com.blockchain.cryptocurrency.utxo;
 
-import java.util.HashMap;
+import java.math.BigDecimal;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.function.Consumer;
 
+import javax.annotation.PreDestroy;
+
+import org.apache.commons.lang.StringUtils;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import com.blockchain.cryptocurrency.block.CurrencyBlock;
+import com.blockchain.cryptocurrency.block.repo.CurrencyBlockRepository;
+import com.blockchain.cryptocurrency.transaction.Transaction;
+import com.blockchain.cryptocurrency.transaction.TransactionInput;
 import com.blockchain.cryptocurrency.transaction.TransactionOutput;
+import com.blockchain.cryptocurrency.wallet.WalletService;
+import com.blockchain.security.KeyIdentity;
+
+import lombok.extern.slf4j.Slf4j;
 
 /**
  * Unspent Transaction Output, <a href="https://bitcoin.org/en/glossary/unspent-transaction-output">UTXO</a>
- *  
+ *
+ * Safe to be used by many threads: the outputs are kept in a concurrent map, and their changes are guarded by striped locks (by the hash of the output),
+ * so {@link #spend(List)} can check and remove a set of outputs at once while the spending of other outputs goes on in parallel.
+ *
+ * The outputs are also indexed by the {@link KeyIdentity} of their recipient, the queries of an owner ({@link #listTransactions(KeyIdentity)}) cost
+ * only its own outputs, not the whole set. The balance of each owner is kept up to date (exactly, in BigDecimal) as its outputs are added and spent,
+ * so {@link #getBalance(KeyIdentity)} is just a read.
+ *
+ * When <code>blockchain.utxo.directory</code> is set, every change is also written to the journal of an {@link UTXOStore}, forced at each Block added,
+ * with a snapshot of the whole set every <code>blockchain.utxo.snapshotEvery</code> Blocks: a restart loads the last snapshot and replays only the journal after it.
+ *
  * @see https://bitcoin.org/en/glossary/unspent-transaction-output
  * @author Ualter
  *
  */
+@Slf4j
 @Service
-public class UTXOService {
-	
-	private Map<String,TransactionOutput> UTXOs = new HashMap<String,TransactionOutput>();
+public class UTXOService implements SmartInitializingSingleton {
+
+	private static final int STRIPES = 64;
+
+	@Value("${blockchain.utxo.directory:}")
+	private String directory;
+
+	@Value("${blockchain.utxo.snapshotEvery:100}")
+	private int snapshotEvery;
+
+	@Autowired
+	private WalletService walletService;
+
+	@Autowired
+	private CurrencyBlockRepository currencyBlockRepository;
+
+	private Map<String,TransactionOutput> UTXOs        = new ConcurrentHashMap<String,TransactionOutput>();
+	private Map<KeyIdentity,OwnerUTXOs>   UTXOsByOwner = new ConcurrentHashMap<KeyIdentity,OwnerUTXOs>();
+	private final ReentrantLock[]         locks        = new ReentrantLock[STRIPES];
+	// The changes hold the read lock while they are applied and journaled, the snapshot takes the write lock to see none of them half done
+	private final ReadWriteLock           changes      = new ReentrantReadWriteLock();
+	private UTXOStore                     utxoStore;
+	private int                           height       = -1;
+
+	public UTXOService() {
+		for (int i = 0; i < STRIPES; i++) {
+			locks[i] = new ReentrantLock();
+		}
+	}
+
+	/**
+	 * Open the UTXOs on disk, if configured, once all the beans exist (the Wallets of the outputs read back are resolved by the WalletService).
+	 * When the chain is on disk too, the UTXOs must be the ones of its last Block: the Blocks added after the last one recorded
+	 * (a crash between the two) are applied again, UTXOs of Blocks the chain does not have are refused.
+	 */
+	@Override
+	public void afterSingletonsInstantiated() {
+		if ( StringUtils.isBlank(directory) ) {
+			return;
+		}
+		this.utxoStore = new UTXOStore(Paths.get(directory), walletService::resolveWallet);
+		this.height    = this.utxoStore.recover(this::put, this::remove);
+		log.info("{} UTXOs loaded, up to the Block #{}", UTXOs.size(), height);
+		if ( currencyBlockRepository.isPersistent() ) {
+			catchUp(currencyBlockRepository.size() - 1);
+		}
+	}
+
+	/**
+	 * Apply the Blocks of the chain after the last one recorded, up to this height
+	 */
+	private void catchUp(int lastHeight) {
+		if ( height > lastHeight ) {
+			throw new IllegalStateException(String.format("The UTXOs of %s are recorded up to the Block #%d, but the chain ends at the Block #%d", directory, height, lastHeight));
+		}
+		if ( height < lastHeight ) {
+			log.warn("The UTXOs are recorded up to the Block #{}, the chain ends at the Block #{}: its last Blocks are applied again", height, lastHeight);
+		}
+		for (int blockHeight = height + 1; blockHeight <= lastHeight; blockHeight++) {
+			CurrencyBlock block = currencyBlockRepository.getBlock(blockHeight);
+			for (Transaction transaction : block.getTransactions()) {
+				if ( transaction.getInputs() != null ) {
+					for (TransactionInput input : transaction.getInputs()) {
+						removeTransaction(input.getHash());
+					}
+				}
+				transaction.getOutputs().forEach(this::addTransaction);
+			}
+			commitBlock(blockHeight);
+		}
+	}
+
+	@PreDestroy
+	public void close() {
+		if ( utxoStore != null ) {
+			utxoStore.close();
+		}
+	}
+
+	/**
+	 * Remove all the UTXOs, also from disk (a new BlockChain)
+	 */
+	public void reset() {
+		changes.writeLock().lock();
+		try {
+			UTXOs.clear();
+			UTXOsByOwner.clear();
+			height = -1;
+			if ( utxoStore != null ) {
+				utxoStore.delete();
+			}
+		} finally {
+			changes.writeLock().unlock();
+		}
+	}
 
 	public void addTransaction(TransactionOutput transactionOutput) {
-		UTXOs.put(transactionOutput.getHash(), transactionOutput);
+		// An output given back (a payment refused) may be spent meanwhile, never between its two maps
+		ReentrantLock lock = locks[stripeOf(transactionOutput.getHash())];
+		lock.lock();
+		changes.readLock().lock();
+		try {
+			put(transactionOutput);
+			if ( utxoStore != null ) {
+				utxoStore.add(transactionOutput);
+			}
+		} finally {
+			changes.readLock().unlock();
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * The Block of this height was added to the chain: the journal is forced to disk and, every <code>snapshotEvery</code> Blocks, a snapshot is taken.
+	 * Only the mark of the Block is written holding the changes, they go on while the journal is forced.
+	 */
+	public void commitBlock(int height) {
+		if ( utxoStore == null ) {
+			return;
+		}
+		List<TransactionOutput> snapshot = null;
+		changes.writeLock().lock();
+		try {
+			this.height = height;
+			utxoStore.markBlock(height);
+			if ( height - utxoStore.getJournalHeight() >= snapshotEvery ) {
+				snapshot = new ArrayList<TransactionOutput>(UTXOs.values());
+				utxoStore.rotateJournal(height);
+			}
+		} finally {
+			changes.writeLock().unlock();
+		}
+		utxoStore.force();
+		if ( snapshot != null ) {
+			utxoStore.writeSnapshot(height, snapshot);
+		}
+	}
+
+	public boolean isPersistent() {
+		return utxoStore != null;
 	}
-	
+
+	/**
+	 * Height of the last Block whose UTXO changes are on disk (-1 if none, or if they are only in memory)
+	 */
+	public int getHeight() {
+		return height;
+	}
+
 	public Consumer<TransactionOutput> addTransaction() {
 		Consumer<TransactionOutput> consumer = transactionOutput -> {
 			this.addTransaction(transactionOutput);
 		};
 		return consumer;
 	}
-	
+
 	public void removeTransaction(String hash) {
-		UTXOs.remove(hash);
+		ReentrantLock lock = locks[stripeOf(hash)];
+		lock.lock();
+		changes.readLock().lock();
+		try {
+			if ( remove(hash) && utxoStore != null ) {
+				utxoStore.spend(hash);
+			}
+		} finally {
+			changes.readLock().unlock();
+			lock.unlock();
+		}
 	}
-	
+
+	/**
+	 * Spend these outputs atomically: if all of them are unspent (and none is repeated) they are removed and returned, in the same order of the hashes,
+	 * otherwise nothing is removed and <code>null</code> is returned. Two Transactions can never spend the same output.
+	 */
+	public List<TransactionOutput> spend(List<String> hashs) {
+		if ( hashs.isEmpty() ) {
+			return Collections.emptyList();
+		}
+		// Always locked in the same order, no deadlock between two Transactions sharing some stripes
+		int[] stripes = hashs.stream().mapToInt(UTXOService::stripeOf).distinct().sorted().toArray();
+		for (int stripe : stripes) {
+			locks[stripe].lock();
+		}
+		changes.readLock().lock();
+		try {
+			Set<String> distinct = new HashSet<String>(hashs);
+			if ( distinct.size() != hashs.size() || !UTXOs.keySet().containsAll(distinct) ) {
+				return null;
+			}
+			List<TransactionOutput> spent = new ArrayList<TransactionOutput>(hashs.size());
+			for (String hash : hashs) {
+				TransactionOutput output = UTXOs.remove(hash);
+				unindex(output);
+				spent.add(output);
+				if ( utxoStore != null ) {
+					utxoStore.spend(hash);
+				}
+			}
+			return spent;
+		} finally {
+			changes.readLock().unlock();
+			for (int i = stripes.length - 1; i >= 0; i--) {
+				locks[stripes[i]].unlock();
+			}
+		}
+	}
+
 	public TransactionOutput getTransaction(String hash) {
 		return UTXOs.get(hash);
 	}
-	
+
 	public Set<Map.Entry<String,TransactionOutput>> listTransactions() {
 		return UTXOs.entrySet();
 	}
-	
+
+	/**
+	 * The unspent outputs whose recipient is the owner of this PublicKey
+	 */
+	public Collection<TransactionOutput> listTransactions(KeyIdentity owner) {
+		OwnerUTXOs outputs = UTXOsByOwner.get(owner);
+		return outputs == null ? Collections.<TransactionOutput>emptyList() : outputs.outputs.values();
+	}
+
+	/**
+	 * The sum of the unspent outputs of the owner of this PublicKey, kept as they are added and spent
+	 */
+	public BigDecimal getBalance(KeyIdentity owner) {
+		OwnerUTXOs outputs = UTXOsByOwner.get(owner);
+		return outputs == null ? BigDecimal.ZERO : outputs.balance.get();
+	}
+
+	private void put(TransactionOutput transactionOutput) {
+		UTXOs.put(transactionOutput.getHash(), transactionOutput);
+		UTXOsByOwner.computeIfAbsent(transactionOutput.getRecipient().getKeyIdentity(), o -> new OwnerUTXOs())
+		            .add(transactionOutput);
+	}
+
+	private boolean remove(String hash) {
+		TransactionOutput output = UTXOs.remove(hash);
+		unindex(output);
+		return output != null;
+	}
+
+	private void unindex(TransactionOutput output) {
+		if ( output == null ) {
+			return;
+		}
+		OwnerUTXOs outputs = UTXOsByOwner.get(output.getRecipient().getKeyIdentity());
+		if ( outputs != null ) {
+			outputs.remove(output);
+		}
+	}
+
+	private static int stripeOf(String hash) {
+		int h = hash.hashCode();
+		return (h ^ (h >>> 16)) & (STRIPES - 1);
+	}
+
+	/**
+	 * The unspent outputs of one owner and their sum, only an output really added (or removed) changes the balance
+	 */
+	private static final class OwnerUTXOs {
+		private final Map<String,TransactionOutput> outputs = new ConcurrentHashMap<String,TransactionOutput>();
+		private final AtomicReference<BigDecimal>   balance = new AtomicReference<BigDecimal>(BigDecimal.ZERO);
+
+		private void add(TransactionOutput output) {
+			if ( outputs.put(output.getHash(), output) == null ) {
+				balance.accumulateAndGet(output.getValue(), BigDecimal::add);
+			}
+		}
+
+		private void remove(TransactionOutput output) {
+			if ( outputs.remove(output.getHash()) != null ) {
+				balance.accumulateAndGet(output.getValue(), BigDecimal::subtract);
+			}
+		}
+	}
+
 }
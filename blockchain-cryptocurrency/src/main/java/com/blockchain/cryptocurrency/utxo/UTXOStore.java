@@ -0,0 +1,383 @@
+package com.blockchain.cryptocurrency.utxo;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+import com.blockchain.cryptocurrency.codec.CanonicalCodec;
+import com.blockchain.cryptocurrency.transaction.TransactionInput;
+import com.blockchain.cryptocurrency.transaction.TransactionOutput;
+import com.blockchain.cryptocurrency.wallet.Wallet;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * The UTXOs on disk: a write-ahead journal of their changes plus, from time to time, a snapshot of the whole set.
+ * <ul>
+ *   <li><code>utxo-&lt;height&gt;.journal</code>: the outputs added and spent after the snapshot of that height, as records
+ *       <code>[length(4)][crc32(4)][type(1) ...]</code>, with a mark of the height of each Block added to the chain (when the journal is forced).
+ *       The changes after the last mark were not of a Block added, they are not replayed.</li>
+ *   <li><code>utxo-&lt;height&gt;.snapshot</code>: all the UTXOs after the Block of that height, with a crc32 at its end.</li>
+ *   <li>The outputs added (and the inputs spent) are in their {@link CanonicalCodec} encoding.</li>
+ * </ul>
+ * At startup the latest valid snapshot is loaded and only the journals from its height on are replayed (the last one cut at a torn record),
+ * so the recovery costs the Blocks since the last snapshot, not the whole chain. The previous snapshot is kept, in case the last one is damaged.
+ */
+@Slf4j
+public class UTXOStore implements Closeable {
+
+	private static final String PREFIX           = "utxo-";
+	private static final String JOURNAL_SUFFIX   = ".journal";
+	private static final String SNAPSHOT_SUFFIX  = ".snapshot";
+	private static final int    RECORD_HEADER    = 8;
+	private static final int    SNAPSHOT_VERSION = 2;
+
+	private static final byte ADD   = 1;
+	private static final byte SPEND = 2;
+	private static final byte BLOCK = 3;
+
+	private final Path                                directory;
+	private final BiFunction<String,byte[],Wallet>    walletResolver;
+	private FileChannel                               journal;
+	private int                                       journalHeight;
+
+	/**
+	 * @param walletResolver the Wallet of an owner and its encoded PublicKey, for the outputs read back
+	 */
+	public UTXOStore(Path directory, BiFunction<String,byte[],Wallet> walletResolver) {
+		this.directory      = directory;
+		this.walletResolver = walletResolver;
+	}
+
+	/**
+	 * Load the latest snapshot and replay the journals after it, the journal is then open to be appended
+	 * @return the height of the last Block recorded, -1 if none
+	 */
+	public synchronized int recover(Consumer<TransactionOutput> add, Consumer<String> spend) {
+		try {
+			Files.createDirectories(directory);
+			List<Path> snapshots = list(SNAPSHOT_SUFFIX);
+			int        height    = -1;
+			for (int i = snapshots.size() - 1; i >= 0 && height < 0; i--) {
+				height = loadSnapshot(snapshots.get(i), add);
+			}
+			int snapshotHeight = height;
+
+			Path last = null;
+			for (Path file : list(JOURNAL_SUFFIX)) {
+				if ( heightOf(file, JOURNAL_SUFFIX) < snapshotHeight ) {
+					continue;
+				}
+				height = Math.max(height, replay(file, add, spend));
+				last   = file;
+			}
+
+			if ( last == null ) {
+				newJournal(Math.max(snapshotHeight, 0));
+			} else {
+				journal       = FileChannel.open(last, StandardOpenOption.WRITE);
+				journalHeight = heightOf(last, JOURNAL_SUFFIX);
+				journal.position(journal.size());
+			}
+			log.info("UTXOs {} recovered up to the Block #{} (snapshot of the Block #{})", directory, height, snapshotHeight);
+			return height;
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	public synchronized void add(TransactionOutput output) {
+		append(ADD, CanonicalCodec.encode(output));
+	}
+
+	public synchronized void spend(String hash) {
+		append(SPEND, CanonicalCodec.encode(new TransactionInput(hash)));
+	}
+
+	/**
+	 * Mark the Block of this height as added and force the journal to disk
+	 */
+	public void commitBlock(int height) {
+		markBlock(height);
+		force();
+	}
+
+	/**
+	 * Mark the Block of this height as added, it is on disk only once the journal is forced ({@link #force()})
+	 */
+	public synchronized void markBlock(int height) {
+		ByteBuffer mark = ByteBuffer.allocate(4).putInt(height);
+		mark.flip();
+		append(BLOCK, mark);
+	}
+
+	/**
+	 * Force the journal to disk, without holding the store: the changes can go on being appended meanwhile
+	 */
+	public void force() {
+		FileChannel channel;
+		synchronized (this) {
+			channel = journal;
+		}
+		try {
+			channel.force(false);
+		} catch (ClosedChannelException e) {
+			// Rotated or closed meanwhile, it was forced before being closed
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * From now on the changes go to a new journal, of the snapshot of this height. Called with no change going on,
+	 * the snapshot itself ({@link #writeSnapshot(int, Collection)}) can then be written while the UTXOs change again.
+	 */
+	public synchronized void rotateJournal(int height) {
+		try {
+			journal.force(false);
+			journal.close();
+			newJournal(height);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Write the snapshot of the UTXOs after the Block of this height, then remove the files no longer needed (all but the previous snapshot and its journals)
+	 */
+	public void writeSnapshot(int height, Collection<TransactionOutput> outputs) {
+		Path file      = directory.resolve(String.format("%s%08d%s", PREFIX, height, SNAPSHOT_SUFFIX));
+		Path temporary = directory.resolve(file.getFileName() + ".tmp");
+		try {
+			CRC32 crc = new CRC32();
+			try (OutputStream stream = Files.newOutputStream(temporary);
+				 DataOutputStream out = new DataOutputStream(new CheckedOutputStream(new BufferedOutputStream(stream, 64 * 1024), crc))) {
+				out.writeInt(SNAPSHOT_VERSION);
+				out.writeInt(height);
+				out.writeInt(outputs.size());
+				byte[] bytes = new byte[256];
+				for (TransactionOutput output : outputs) {
+					ByteBuffer encoded = CanonicalCodec.encode(output);
+					int        length  = encoded.remaining();
+					if ( length > bytes.length ) {
+						bytes = new byte[Math.max(length, bytes.length * 2)];
+					}
+					encoded.get(bytes, 0, length);
+					out.writeInt(length);
+					out.write(bytes, 0, length);
+				}
+				out.flush();
+				// The crc itself is out of the checked bytes
+				DataOutputStream trailer = new DataOutputStream(stream);
+				trailer.writeLong(crc.getValue());
+				trailer.flush();
+			}
+			try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+				channel.force(true);
+			}
+			Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			synchronized (this) {
+				removeBefore(height);
+			}
+			log.info("Snapshot of {} UTXOs at the Block #{}", outputs.size(), height);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * The height of the snapshot the current journal follows
+	 */
+	public synchronized int getJournalHeight() {
+		return journalHeight;
+	}
+
+	@Override
+	public synchronized void close() {
+		if ( journal == null ) {
+			return;
+		}
+		try {
+			journal.force(false);
+			journal.close();
+		} catch (IOException e) {
+			log.warn("Closing the UTXO journal: {}", e.getMessage());
+		}
+		journal = null;
+	}
+
+	/**
+	 * Close the store and remove all of its files, it starts again empty
+	 */
+	public synchronized void delete() {
+		close();
+		try {
+			List<Path> files = list(JOURNAL_SUFFIX);
+			files.addAll(list(SNAPSHOT_SUFFIX));
+			for (Path file : files) {
+				Files.delete(file);
+			}
+			newJournal(0);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private void append(byte type, ByteBuffer body) {
+		if ( journal == null ) {
+			throw new IllegalStateException("The UTXO store " + directory + " is not open");
+		}
+		int        length = 1 + body.remaining();
+		ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER + length);
+		record.position(RECORD_HEADER);
+		record.put(type).put(body);
+		CRC32 crc = new CRC32();
+		crc.update(record.array(), RECORD_HEADER, length);
+		record.putInt(0, length).putInt(4, (int) crc.getValue());
+		record.flip();
+		try {
+			while ( record.hasRemaining() ) {
+				journal.write(record);
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Only the changes up to the last Block mark are applied, the ones after it (of a Block never added) are cut with a torn record
+	 * @return the height of its last Block mark, -1 if none
+	 */
+	private int replay(Path file, Consumer<TransactionOutput> add, Consumer<String> spend) throws IOException {
+		byte[]           bytes     = Files.readAllBytes(file);
+		ByteBuffer       in        = ByteBuffer.wrap(bytes);
+		List<ByteBuffer> unmarked  = new ArrayList<ByteBuffer>();
+		int              height    = -1;
+		int              valid     = 0;
+		int              committed = 0;
+		while ( in.remaining() >= RECORD_HEADER ) {
+			int length   = in.getInt();
+			int checksum = in.getInt();
+			if ( length <= 0 || length > in.remaining() ) {
+				break;
+			}
+			CRC32 crc = new CRC32();
+			crc.update(bytes, in.position(), length);
+			if ( (int) crc.getValue() != checksum ) {
+				break;
+			}
+			ByteBuffer record = (ByteBuffer) in.slice().limit(length);
+			in.position(in.position() + length);
+			valid = in.position();
+
+			if ( record.get(0) != BLOCK ) {
+				unmarked.add(record);
+				continue;
+			}
+			for (ByteBuffer change : unmarked) {
+				if ( change.get() == ADD ) {
+					add.accept(CanonicalCodec.decodeOutput(change, walletResolver::apply));
+				} else {
+					spend.accept(CanonicalCodec.decodeInput(change).getHash());
+				}
+			}
+			unmarked.clear();
+			height    = record.getInt(1);
+			committed = valid;
+		}
+		if ( valid < bytes.length ) {
+			log.warn("UTXO journal {} cut at {} of {} bytes, its last record was not completely written", file, valid, bytes.length);
+		}
+		if ( committed < valid ) {
+			log.warn("UTXO journal {} cut at {} of {} bytes, {} changes after the mark of the Block #{} are of no Block added", file, committed, valid, unmarked.size(), height);
+		}
+		if ( committed < bytes.length ) {
+			try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+				channel.truncate(committed);
+				channel.force(true);
+			}
+		}
+		return height;
+	}
+
+	/**
+	 * @return the height of the snapshot, -1 if it is not valid
+	 */
+	private int loadSnapshot(Path file, Consumer<TransactionOutput> add) throws IOException {
+		byte[] bytes = Files.readAllBytes(file);
+		if ( bytes.length < 12 + 8 ) {
+			return -1;
+		}
+		CRC32 crc = new CRC32();
+		crc.update(bytes, 0, bytes.length - 8);
+		ByteBuffer in = ByteBuffer.wrap(bytes);
+		if ( in.getLong(bytes.length - 8) != crc.getValue() || in.getInt() != SNAPSHOT_VERSION ) {
+			log.warn("UTXO snapshot {} is damaged, ignored", file);
+			return -1;
+		}
+		int height = in.getInt();
+		for (int count = in.getInt(); count > 0; count--) {
+			int        length = in.getInt();
+			ByteBuffer output = (ByteBuffer) in.slice().limit(length);
+			in.position(in.position() + length);
+			add.accept(CanonicalCodec.decodeOutput(output, walletResolver::apply));
+		}
+		return height;
+	}
+
+	private void newJournal(int height) throws IOException {
+		Path file     = directory.resolve(String.format("%s%08d%s", PREFIX, height, JOURNAL_SUFFIX));
+		journal       = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+		journalHeight = height;
+	}
+
+	private void removeBefore(int height) throws IOException {
+		List<Path> snapshots = list(SNAPSHOT_SUFFIX);
+		// The previous snapshot stays, with the journals from its height on
+		int keep = snapshots.size() >= 2 ? heightOf(snapshots.get(snapshots.size() - 2), SNAPSHOT_SUFFIX) : 0;
+		for (Path snapshot : snapshots) {
+			if ( heightOf(snapshot, SNAPSHOT_SUFFIX) < keep ) {
+				Files.delete(snapshot);
+			}
+		}
+		for (Path file : list(JOURNAL_SUFFIX)) {
+			int journalStart = heightOf(file, JOURNAL_SUFFIX);
+			if ( journalStart < keep && journalStart != journalHeight ) {
+				Files.delete(file);
+			}
+		}
+	}
+
+	private List<Path> list(String suffix) throws IOException {
+		List<Path> files = new ArrayList<Path>();
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, PREFIX + "*" + suffix)) {
+			stream.forEach(files::add);
+		}
+		files.sort((a, b) -> Integer.compare(heightOf(a, suffix), heightOf(b, suffix)));
+		return files;
+	}
+
+	private static int heightOf(Path file, String suffix) {
+		String name = file.getFileName().toString();
+		return Integer.parseInt(name.substring(PREFIX.length(), name.length() - suffix.length()));
+	}
+
+}
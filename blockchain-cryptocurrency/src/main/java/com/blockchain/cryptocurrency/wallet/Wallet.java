@@ -8,9 +8,7 @@ import java.security.KeyPair;
 import java.security.PrivateKey;
 import java.security.PublicKey;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 import org.apache.commons.lang.StringUtils;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -22,6 +20,7 @@ import com.blockchain.cryptocurrency.transaction.Transaction;
 import com.blockchain.cryptocurrency.transaction.TransactionInput;
 import com.blockchain.cryptocurrency.transaction.TransactionOutput;
 import com.blockchain.cryptocurrency.transaction.TransactionService;
+import com.blockchain.security.KeyIdentity;
 import com.blockchain.security.Security;
 
 import lombok.Data;
@@ -44,9 +43,10 @@ public class Wallet {
 	private Security           security;
 	private CurrencyBlockChain currencyBlockChain;
 	
-	private String  owner;
-	private KeyPair keyPairs;
-	private Map<String,TransactionOutput> UTXOs = new HashMap<String,TransactionOutput>();
+	private String      owner;
+	private KeyPair     keyPairs;
+	// Who this Wallet is, computed once from its PublicKey
+	private KeyIdentity keyIdentity;
 
 	@Autowired
 	public Wallet(Security security, CurrencyBlockChain currencyBlockChain, String owner) {
@@ -54,6 +54,18 @@ public class Wallet {
 		this.currencyBlockChain = currencyBlockChain;
 		this.owner              = owner;
 		this.generateOrLoadKeyPair();
+		this.keyIdentity        = KeyIdentity.of(this.keyPairs.getPublic());
+	}
+	
+	/**
+	 * A Wallet known only by its PublicKey (restored from the stored BlockChain), without the PrivateKey it cannot send money
+	 */
+	public Wallet(Security security, CurrencyBlockChain currencyBlockChain, String owner, PublicKey publicKey) {
+		this.security           = security;
+		this.currencyBlockChain = currencyBlockChain;
+		this.owner              = owner;
+		this.keyPairs           = new KeyPair(publicKey, null);
+		this.keyIdentity        = KeyIdentity.of(publicKey);
 	}
 	
 	private void generateOrLoadKeyPair() {
@@ -77,50 +89,41 @@ public class Wallet {
 		return this.keyPairs.getPrivate();
 	}
 	
-	public void addTransactionOuput(TransactionOutput transactionOutput) {
-		this.UTXOs.put(transactionOutput.getHash(), transactionOutput);
-	}
-	
 	public BigDecimal requestBalance() {
 		return currencyBlockChain.requestBalance( this );
 	}
 	
 	public Transaction sendMoney(Wallet recipient, float amount) {
-		if ( this.getPublicKey() == recipient ) {
+		if ( this.keyIdentity.equals(recipient.getKeyIdentity()) ) {
 			throw new RuntimeException("Transaction invalid! The sender cannot be the recipient of the own money");
 		}
 		
-		isThereFundsToPerformPayment(amount);
+		isThereFundsToPerformPayment(BigDecimal.valueOf(amount));
 		
 		List<TransactionInput> inputs = new ArrayList<TransactionInput>();
-		collectAvailableMoneyForPayment(amount, inputs);
+		collectAvailableMoneyForPayment(BigDecimal.valueOf(amount), inputs);
 		
 		Transaction transaction = transactionServices.createTransaction(this, recipient , amount, inputs);
 		if ( !transaction.processTransaction() ) {
 			throw new RuntimeException("The transaction could no be processed");
 		}
 		
-		removeFromAvailableTheMoneySpent(inputs);
-		
 		return transaction;
 	}
 
-	private void removeFromAvailableTheMoneySpent(List<TransactionInput> inputs) {
-		inputs.forEach( ti -> this.UTXOs.remove(ti.getHash()) );
-	}
-
-	private void collectAvailableMoneyForPayment(float amount, List<TransactionInput> inputs) {
-		float total = 0;
-		for ( TransactionOutput to : this.UTXOs.values() ) {
-			total += to.getValue().floatValue();
+	private void collectAvailableMoneyForPayment(BigDecimal amount, List<TransactionInput> inputs) {
+		BigDecimal total = BigDecimal.ZERO;
+		for ( TransactionOutput to : currencyBlockChain.listUnspentOutputs(this) ) {
+			total = total.add(to.getValue());
 			inputs.add( new TransactionInput(to.getHash()) );
-			if( total > amount ) break;
+			if( total.compareTo(amount) > 0 ) break;
 		}
 	}
 
-	private void isThereFundsToPerformPayment(float amount) {
-		if ( requestBalance().floatValue() < amount) {
-			String msg = String.format("Not enough money to \"%s\" to commit this transaction of %01.2f the available funds now are: %01.2f", owner, amount, requestBalance().floatValue());
+	private void isThereFundsToPerformPayment(BigDecimal amount) {
+		BigDecimal balance = requestBalance();
+		if ( balance.compareTo(amount) < 0 ) {
+			String msg = String.format("Not enough money to \"%s\" to commit this transaction of %01.2f the available funds now are: %01.2f", owner, amount, balance);
 			log.error(msg);
 			throw new RuntimeException(msg);
 		}
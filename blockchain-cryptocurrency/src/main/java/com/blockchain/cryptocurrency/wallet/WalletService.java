@@ -1,9 +1,17 @@
 package com.blockchain.cryptocurrency.wallet;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.ApplicationContext;
 import org.springframework.stereotype.Service;
 
+import com.blockchain.security.KeyIdentity;
+import com.blockchain.security.Security;
+import com.blockchain.security.SecurityEncryption;
+import com.blockchain.security.SecurityEncryption.Algorithm;
+
 
 @Service
 public class WalletService {
@@ -11,12 +19,31 @@ public class WalletService {
 	@Autowired
 	ApplicationContext context;
 	
+	@Autowired
+	@SecurityEncryption(Algorithm.ECDSA)
+	private Security security;
+	
+	// The Wallets known by this node, by the identity of their PublicKey
+	private Map<KeyIdentity,Wallet> wallets = new ConcurrentHashMap<KeyIdentity,Wallet>();
+	
 	public Wallet createWallet(String owner) {
-		return context.getBean(Wallet.class,owner); 
+		return register(context.getBean(Wallet.class,owner)); 
 	}
 	
 	public Wallet createGenesisWallet() {
-		return context.getBean(Wallet.class); 
+		return register(context.getBean(Wallet.class)); 
+	}
+	
+	/**
+	 * The Wallet of this PublicKey, if it is not known (a BlockChain read from disk) a Wallet only able to receive money is created
+	 */
+	public Wallet resolveWallet(String owner, byte[] encodedPublicKey) {
+		return wallets.computeIfAbsent(KeyIdentity.of(encodedPublicKey), k -> context.getBean(Wallet.class, owner, security.decodePublicKey(encodedPublicKey)));
+	}
+	
+	private Wallet register(Wallet wallet) {
+		wallets.put(wallet.getKeyIdentity(), wallet);
+		return wallet;
 	}
 
 }
@@ -1,10 +1,12 @@
 package com.blockchain.cryptocurrency;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 
 import java.io.FileOutputStream;
 import java.math.BigDecimal;
+import java.util.Arrays;
 
 import org.junit.Before;
 import org.junit.FixMethodOrder;
@@ -23,6 +25,8 @@ import com.blockchain.cryptocurrency.block.printer.CurrencyBlockPrinterType;
 import com.blockchain.cryptocurrency.block.printer.CurrencyBlockPrinterType.OutputType;
 import com.blockchain.cryptocurrency.block.printer.format.CurrencyBlockPrinterDefaultTemplate;
 import com.blockchain.cryptocurrency.transaction.Transaction;
+import com.blockchain.cryptocurrency.transaction.TransactionInput;
+import com.blockchain.cryptocurrency.transaction.TransactionService;
 import com.blockchain.cryptocurrency.wallet.Wallet;
 import com.blockchain.cryptocurrency.wallet.WalletService;
 
@@ -40,6 +44,9 @@ public class CurrencyBlockChainTest {
 	@Autowired
 	private WalletService walletServices;
 	
+	@Autowired
+	private TransactionService transactionService;
+	
 	@Autowired
 	@CurrencyBlockPrinterType(OutputType.Console)
 	private CurrencyBlockPrinter printerConsole;
@@ -85,6 +92,13 @@ public class CurrencyBlockChainTest {
 
 		assertNotNull("Merkle Root is Null?",blockMerkleRoot);
 		assertEquals("Block is valid? (MerkleRoot value is OK?)", true, currencyBlockChain.validateBlock(block));
+		assertEquals("Signatures of the Block are valid?", true, currencyBlockChain.verifySignatures(block));
+		assertEquals("Transaction is in the Block? (only with its Merkle Root)", true, block.getInclusionProof(transaction5).verify(transaction5.getHash(), blockMerkleRoot));
+		assertEquals("Blocks valid when read without decoding them?", true, currencyBlockChain.streamBlockViews().allMatch(currencyBlockChain::validateBlock));
+		assertEquals("Block found by its hash", block.getHash(), currencyBlockChain.findBlock(block.getHash()).getHash());
+		assertEquals("Previous Block found by its hash", block.getPreviousBlock(), currencyBlockChain.findPreviousBlock(block).getHash());
+		assertEquals("Next Block of the last one", null, currencyBlockChain.findNextBlock(block));
+		assertEquals("Blocks of the range", 1, currencyBlockChain.listBlockChain(1, 10).size());
 		
 		
 		double janeWalletBalance    = currencyBlockChain.queryBalance(janeWallet).doubleValue();
@@ -131,6 +145,7 @@ public class CurrencyBlockChainTest {
 		// Change the value of the Transaction from 25 to whatever different
 		block.getTransactions().stream().skip(1).skip(1).findFirst().get().setValue(new BigDecimal(44));
 		assertEquals("Block is valid? (MerkleRoot value is OK?) In this case it shouldn't", false, currencyBlockChain.validateBlock(block));
+		assertEquals("Signatures of the Block are valid? In this case they shouldn't", false, currencyBlockChain.verifySignatures(block));
 		
 		printerFile.print(currencyBlockChain.listBlockChain());
 		printerConsole.print(currencyBlockChain.listBlockChain());
@@ -188,4 +203,23 @@ public class CurrencyBlockChainTest {
 		printerFile.print(currencyBlockChain.listBlockChain());
 		printerConsole.print(currencyBlockChain.listBlockChain());
 	}
-}
+
+	@Test
+	public void thirdTestBatchOfTransactions() {
+		Wallet janeWallet    = walletServices.createWallet("jane");
+		Wallet johnWallet    = walletServices.createWallet("john");
+		String genesisOutput = currencyBlockChain.listUnspentOutputs(genesisWallet).iterator().next().getHash();
+		
+		Transaction payment     = transactionService.createTransaction(genesisWallet, janeWallet, 100f, Arrays.asList(new TransactionInput(genesisOutput)));
+		// The same coins again, to someone else
+		Transaction doubleSpent = transactionService.createTransaction(genesisWallet, johnWallet, 100f, Arrays.asList(new TransactionInput(genesisOutput)));
+		// Tampered after signed
+		Transaction forged      = transactionService.createTransaction(genesisWallet, johnWallet, 100f, Arrays.asList(new TransactionInput(genesisOutput)));
+		forged.setValue(new BigDecimal(900));
+		
+		assertArrayEquals(new boolean[] {true, false, false}, currencyBlockChain.processTransactions(Arrays.asList(payment, forged, doubleSpent)));
+		assertEquals("Jane Wallet",100d, currencyBlockChain.queryBalance(janeWallet).doubleValue(),0);
+		assertEquals("John Wallet",0d, currencyBlockChain.queryBalance(johnWallet).doubleValue(),0);
+		assertEquals("Genesis Wallet",900d, currencyBlockChain.queryBalance(genesisWallet).doubleValue(),0);
+	}
+}
\ No newline at end of file
@@ -0,0 +1,56 @@
+package com.blockchain.cryptocurrency;
+
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPairGenerator;
+import java.security.PublicKey;
+import java.security.spec.X509EncodedKeySpec;
+
+import com.blockchain.cryptocurrency.wallet.Wallet;
+
+/**
+ * Wallets and keys of the tests that need no BlockChain: known only by their PublicKey, without the services of a Wallet (they cannot send money)
+ */
+public final class TestWallets {
+
+	private TestWallets() {
+	}
+
+	/**
+	 * A new EC PublicKey, thrown away with the test
+	 */
+	public static PublicKey publicKey() {
+		try {
+			return KeyPairGenerator.getInstance("EC").generateKeyPair().getPublic();
+		} catch (GeneralSecurityException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	/**
+	 * The EC PublicKey of this X.509 encoding (e.g. read back from disk), another instance of the same key
+	 */
+	public static PublicKey publicKey(byte[] encoded) {
+		try {
+			return KeyFactory.getInstance("EC").generatePublic(new X509EncodedKeySpec(encoded));
+		} catch (GeneralSecurityException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	/**
+	 * The Wallet of a new key
+	 */
+	public static Wallet wallet(String owner) {
+		return wallet(owner, publicKey());
+	}
+
+	public static Wallet wallet(String owner, PublicKey publicKey) {
+		return new Wallet(null, null, owner, publicKey);
+	}
+
+	public static Wallet wallet(String owner, byte[] encodedPublicKey) {
+		return wallet(owner, publicKey(encodedPublicKey));
+	}
+
+}
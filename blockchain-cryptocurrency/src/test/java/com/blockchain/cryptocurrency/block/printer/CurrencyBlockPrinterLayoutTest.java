@@ -0,0 +1,139 @@
+package com.blockchain.cryptocurrency.block.printer;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.TimeZone;
+
+import org.apache.commons.lang.StringUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.blockchain.cryptocurrency.TestWallets;
+import com.blockchain.cryptocurrency.block.CurrencyBlock;
+import com.blockchain.cryptocurrency.block.printer.format.CurrencyBlockPrinterDefaultTemplate;
+import com.blockchain.cryptocurrency.concurrent.WorkerPool;
+import com.blockchain.cryptocurrency.transaction.Transaction;
+import com.blockchain.cryptocurrency.transaction.TransactionInput;
+import com.blockchain.cryptocurrency.transaction.TransactionOutput;
+import com.blockchain.cryptocurrency.wallet.Wallet;
+import com.blockchain.security.Security;
+import com.blockchain.security.SecurityECDSA;
+
+/**
+ * The layout of a fixed chain (hashes, timestamps, nonces, keys) against the report printed by the template before it was streamed,
+ * in a fixed locale and time zone, so any change of the layout shows up here
+ */
+public class CurrencyBlockPrinterLayoutTest {
+
+	private static final Path GOLDEN = Paths.get("src/test/resources/printer/layout.txt");
+
+	private Locale   locale;
+	private TimeZone timeZone;
+
+	@Before
+	public void fixTheFormats() {
+		locale   = Locale.getDefault();
+		timeZone = TimeZone.getDefault();
+		Locale.setDefault(Locale.US);
+		TimeZone.setDefault(TimeZone.getTimeZone("UTC"));
+	}
+
+	@After
+	public void restoreTheFormats() {
+		Locale.setDefault(locale);
+		TimeZone.setDefault(timeZone);
+	}
+
+	@Test
+	public void sameLayoutOfTheReport() throws IOException {
+		assertEquals(golden(), print(1, 64));
+	}
+
+	@Test
+	public void sameLayoutFormattedInParallel() throws IOException {
+		assertEquals(golden(), print(3, 1));
+	}
+
+	private static String golden() throws IOException {
+		return new String(Files.readAllBytes(GOLDEN), StandardCharsets.UTF_8);
+	}
+
+	private static String print(int threads, int chunkSize) {
+		WorkerPool workers = new WorkerPool();
+		ReflectionTestUtils.setField(workers, "threads", threads);
+		workers.start();
+		try {
+			// A new template, its formatters are made in the locale and time zone of the test
+			CurrencyBlockPrinterDefaultTemplate template = new CurrencyBlockPrinterDefaultTemplate();
+			ReflectionTestUtils.setField(template, "workers", workers);
+			ReflectionTestUtils.setField(template, "chunkSize", chunkSize);
+			return template.applyLayout(fixedChain());
+		} finally {
+			workers.shutdown();
+		}
+	}
+
+	/**
+	 * The Genesis Block and two Blocks after it, the change of every Transaction back to its sender
+	 */
+	static List<CurrencyBlock> fixedChain() {
+		Wallet genesis = wallet("genesis", "src/test/resources/printer/genesis.keys");
+		Wallet jane    = wallet("jane", "src/main/resources/jane.keys");
+		Wallet john    = wallet("john", "src/main/resources/john.keys");
+
+		Transaction bigBan = transaction("big-ban", genesis, genesis, "1000", 1514764800000L, null);
+		TransactionOutput genesisCoins = bigBan.getOutputs().get(0);
+
+		Transaction toJane = transaction("to-jane", genesis, jane, "50", 1514811723456L, genesisCoins);
+		Transaction toJohn = transaction("to-john", genesis, john, "180.5", 1514811724001L, toJane.getOutputs().get(1));
+
+		Transaction janeToJohn    = transaction("jane-to-john", jane, john, "25.25", 1514898183999L, toJane.getOutputs().get(0));
+		Transaction johnToGenesis = transaction("john-to-genesis", john, genesis, "0.75", 1514898184500L, toJohn.getOutputs().get(0));
+
+		List<CurrencyBlock> chain = new ArrayList<CurrencyBlock>();
+		chain.add(block(0, StringUtils.repeat("0", 5), 1514764800123L, 12, bigBan));
+		chain.add(block(1, chain.get(0).getHash(), 1514811725000L, 1234567, toJane, toJohn));
+		chain.add(block(2, chain.get(1).getHash(), 1514898185250L, 98, janeToJohn, johnToGenesis));
+		for (int height = 0; height < chain.size() - 1; height++) {
+			chain.get(height).setNextBlock(chain.get(height + 1).getHash());
+		}
+		return chain;
+	}
+
+	private static Wallet wallet(String owner, String keys) {
+		return TestWallets.wallet(owner, new SecurityECDSA().loadKeyPairsFromFile(keys).getPublic());
+	}
+
+	private static Transaction transaction(String name, Wallet sender, Wallet recipient, String value, long timeStamp, TransactionOutput spent) {
+		String                  hash    = Security.applySHA256(name);
+		BigDecimal              amount  = new BigDecimal(value);
+		List<TransactionInput>  inputs  = null;
+		List<TransactionOutput> outputs = new ArrayList<TransactionOutput>();
+		outputs.add(new TransactionOutput(Security.applySHA256(name + "-0"), recipient, amount, hash));
+		if ( spent != null ) {
+			TransactionInput input = new TransactionInput(spent.getHash());
+			input.setUTXO(spent);
+			inputs = Arrays.asList(input);
+			outputs.add(new TransactionOutput(Security.applySHA256(name + "-1"), sender, spent.getValue().subtract(amount), hash));
+		}
+		return new Transaction(null, null, hash, amount, new byte[0], sender, recipient, name, timeStamp, inputs, outputs);
+	}
+
+	private static CurrencyBlock block(int height, String previous, long timeStamp, int nonce, Transaction... transactions) {
+		String hash = Security.applySHA256("block-" + height);
+		return new CurrencyBlock(height, hash, previous, timeStamp, nonce, Security.applySHA256("merkle-" + height), Arrays.asList(transactions));
+	}
+
+}
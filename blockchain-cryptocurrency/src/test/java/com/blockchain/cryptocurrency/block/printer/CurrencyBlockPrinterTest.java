@@ -0,0 +1,179 @@
+package com.blockchain.cryptocurrency.block.printer;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.blockchain.cryptocurrency.block.CurrencyBlock;
+import com.blockchain.cryptocurrency.block.CurrencyBlockChain;
+import com.blockchain.cryptocurrency.block.CurrencyBlockChainConfig;
+import com.blockchain.cryptocurrency.block.printer.CurrencyBlockPrinterType.OutputType;
+import com.blockchain.cryptocurrency.block.printer.format.CurrencyBlockPrinterCsvTemplate;
+import com.blockchain.cryptocurrency.block.printer.format.CurrencyBlockPrinterDefaultTemplate;
+import com.blockchain.cryptocurrency.block.printer.format.CurrencyBlockPrinterFormat;
+import com.blockchain.cryptocurrency.block.printer.format.CurrencyBlockPrinterFormat.Format;
+import com.blockchain.cryptocurrency.block.printer.format.CurrencyBlockPrinterTemplate;
+import com.blockchain.cryptocurrency.concurrent.WorkerPool;
+import com.blockchain.cryptocurrency.wallet.Wallet;
+import com.blockchain.cryptocurrency.wallet.WalletService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@RunWith(SpringRunner.class)
+@ContextConfiguration(classes = CurrencyBlockChainConfig.class)
+public class CurrencyBlockPrinterTest {
+
+	private static final Path REPORTS = Paths.get("src/main/resources/reports");
+
+	@Autowired
+	private CurrencyBlockChain currencyBlockChain;
+
+	@Autowired
+	private WalletService walletServices;
+
+	@Autowired
+	private CurrencyBlockPrinterTemplate template;
+
+	@Autowired
+	@CurrencyBlockPrinterFormat(Format.NDJSON)
+	private CurrencyBlockPrinterTemplate ndjsonTemplate;
+
+	@Autowired
+	@CurrencyBlockPrinterFormat(Format.CSV)
+	private CurrencyBlockPrinterTemplate csvTemplate;
+
+	@Autowired
+	@CurrencyBlockPrinterType(OutputType.Console)
+	private CurrencyBlockPrinter printerConsole;
+
+	@Autowired
+	@CurrencyBlockPrinterType(OutputType.File)
+	private CurrencyBlockPrinter printerFile;
+
+	@Before
+	public void createTheWorld() {
+		Wallet genesisWallet = currencyBlockChain.bigBan();
+		Wallet janeWallet    = walletServices.createWallet("jane");
+		Wallet johnWallet    = walletServices.createWallet("john");
+		for (int i = 0; i < 5; i++) {
+			CurrencyBlock block = new CurrencyBlock();
+			block.addTransaction(genesisWallet.sendMoney(janeWallet, 50f));
+			block.addTransaction(janeWallet.sendMoney(johnWallet, 20f));
+			block.addTransaction(johnWallet.sendMoney(genesisWallet, 5f));
+			currencyBlockChain.addBlock(block);
+		}
+	}
+
+	@Test
+	public void streamedToFileAsTheLayout() throws IOException {
+		List<CurrencyBlock> chain    = currencyBlockChain.listBlockChain();
+		String              expected = template.applyLayout(chain);
+
+		Set<Path> before = listReports();
+		printerFile.print(currencyBlockChain.streamBlockChain(), chain.size());
+		Set<Path> printed = listReports();
+		printed.removeAll(before);
+		assertEquals(1, printed.size());
+		// In the platform charset, as the report was always written
+		assertArrayEquals(expected.getBytes(), Files.readAllBytes(printed.iterator().next()));
+	}
+
+	@Test
+	public void streamedToConsoleAsTheLayout() {
+		List<CurrencyBlock>   chain    = currencyBlockChain.listBlockChain();
+		String                expected = template.applyLayout(chain) + System.lineSeparator();
+		ByteArrayOutputStream console  = new ByteArrayOutputStream();
+		PrintStream           out      = System.out;
+		System.setOut(new PrintStream(console, true));
+		try {
+			printerConsole.print(currencyBlockChain.streamBlockChain(), chain.size());
+		} finally {
+			System.setOut(out);
+		}
+		assertArrayEquals(expected.getBytes(), console.toByteArray());
+	}
+
+	@Test
+	public void formattedInParallelInTheOrderOfTheChain() throws IOException {
+		WorkerPool workers = new WorkerPool();
+		ReflectionTestUtils.setField(workers, "threads", 3);
+		workers.start();
+		CurrencyBlockPrinterDefaultTemplate parallel = new CurrencyBlockPrinterDefaultTemplate();
+		ReflectionTestUtils.setField(parallel, "workers", workers);
+		ReflectionTestUtils.setField(parallel, "chunkSize", 1);
+		try {
+			List<CurrencyBlock> chain    = currencyBlockChain.listBlockChain();
+			StringWriter        expected = new StringWriter();
+			for (CurrencyBlock block : chain) {
+				// One by one, in this thread
+				template.applyLayout(Collections.singletonList(block).iterator(), chain.size(), expected);
+			}
+			for (int i = 0; i < 10; i++) {
+				assertEquals(expected.toString(), parallel.applyLayout(chain));
+			}
+		} finally {
+			workers.shutdown();
+		}
+	}
+
+	@Test
+	public void exportedAsNdjson() throws IOException {
+		List<CurrencyBlock> chain  = currencyBlockChain.listBlockChain();
+		String[]            lines  = ndjsonTemplate.applyLayout(chain).split("\n");
+		ObjectMapper        mapper = new ObjectMapper();
+		assertEquals(chain.size(), lines.length);
+		for (int height = 0; height < chain.size(); height++) {
+			JsonNode block = mapper.readTree(lines[height]);
+			assertEquals(height, block.get("height").asInt());
+			assertEquals(chain.get(height).getHash(), block.get("hash").asText());
+			assertEquals(chain.get(height).getTransactions().size(), block.get("transactions").size());
+		}
+		JsonNode payment = mapper.readTree(lines[1]).get("transactions").get(0);
+		assertEquals("jane", payment.get("recipient").get("owner").asText());
+		assertEquals(0, new BigDecimal("50").compareTo(payment.get("value").decimalValue()));
+		assertEquals("The payment and the change", 2, payment.get("outputs").size());
+	}
+
+	@Test
+	public void exportedAsCsv() {
+		List<CurrencyBlock> chain = currencyBlockChain.listBlockChain();
+		String[]            rows  = csvTemplate.applyLayout(chain).split("\r\n");
+		assertEquals(CurrencyBlockPrinterCsvTemplate.HEADER, rows[0]);
+		assertEquals("A row per Transaction", 1 + chain.stream().mapToInt(block -> block.getTransactions().size()).sum(), rows.length);
+		// The first one of the Block #1, after the ones of the Genesis Block
+		String[] columns = rows[1 + chain.get(0).getTransactions().size()].split(",");
+		assertEquals(CurrencyBlockPrinterCsvTemplate.HEADER.split(",").length, columns.length);
+		assertEquals("1", columns[0]);
+		assertEquals(chain.get(1).getHash(), columns[1]);
+		assertEquals("jane", columns[10]);
+	}
+
+	private static Set<Path> listReports() throws IOException {
+		Files.createDirectories(REPORTS);
+		try (Stream<Path> files = Files.list(REPORTS)) {
+			return files.collect(Collectors.toSet());
+		}
+	}
+
+}
@@ -0,0 +1,104 @@
+package com.blockchain.cryptocurrency.block.repo;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class BlockStoreTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void appendRollAndReopen() throws IOException {
+		Path       directory = folder.getRoot().toPath();
+		BlockStore store     = open(directory);
+		for (int i = 0; i < 100; i++) {
+			assertEquals(i, store.append(payload(i), hash(i)));
+		}
+		store.close();
+		assertEquals("Sealed segments, each one with its index", true, Files.list(directory).filter(f -> f.toString().endsWith(".idx")).count() > 1);
+
+		store = open(directory);
+		assertEquals(100, store.size());
+		for (int i = 0; i < 100; i++) {
+			assertEquals(text(i), StandardCharsets.UTF_8.decode(store.read(i)).toString());
+			assertEquals(hash(i), store.hashAt(i));
+			assertEquals(i, store.heightOf(hash(i)));
+		}
+		assertEquals(-1, store.heightOf(hash(100)));
+		assertEquals(100, store.append(payload(100), hash(100)));
+		store.close();
+	}
+
+	@Test
+	public void tornRecordIsCutAtStartup() throws IOException {
+		Path       directory = folder.getRoot().toPath();
+		BlockStore store     = open(directory);
+		for (int i = 0; i < 10; i++) {
+			store.append(payload(i), hash(i));
+		}
+		store.close();
+
+		// A crash in the middle of the last append
+		Path tail = Files.list(directory).filter(f -> f.toString().endsWith(".log")).sorted().reduce((a, b) -> b).get();
+		try (FileChannel channel = FileChannel.open(tail, StandardOpenOption.WRITE)) {
+			channel.truncate(channel.size() - 3);
+		}
+
+		store = open(directory);
+		assertEquals(9, store.size());
+		assertEquals(9, store.append(payload(9), hash(9)));
+		assertEquals(text(9), StandardCharsets.UTF_8.decode(store.read(9)).toString());
+		store.close();
+	}
+
+	@Test
+	public void mappedWhileAppending() {
+		BlockStore store = open(folder.getRoot().toPath());
+		for (int i = 0; i < 100; i++) {
+			store.append(payload(i), hash(i));
+			// The current segment grows under the reads, only the sealed ones are mapped
+			for (int height : new int[] {0, i / 2, i}) {
+				ByteBuffer block = store.map(height);
+				assertTrue(block.isReadOnly());
+				assertEquals(text(height), StandardCharsets.UTF_8.decode(block).toString());
+			}
+		}
+		assertTrue("The first segment is sealed, mapped", store.map(0).isDirect());
+		assertFalse("The last Block is read, the current segment is not mapped", store.map(99).isDirect());
+		store.close();
+	}
+
+	private static BlockStore open(Path directory) {
+		BlockStore store = new BlockStore(directory, 256, 4, payload -> DigestUtils.sha256Hex(StandardCharsets.UTF_8.decode(payload.duplicate()).toString()));
+		store.open();
+		return store;
+	}
+
+	private static String text(int i) {
+		return "block " + i;
+	}
+
+	private static ByteBuffer payload(int i) {
+		return ByteBuffer.wrap(text(i).getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static String hash(int i) {
+		return DigestUtils.sha256Hex(text(i));
+	}
+
+}
@@ -0,0 +1,58 @@
+package com.blockchain.cryptocurrency.block.repo;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class CheckpointStoreTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void reopenAndCutTornRecord() throws IOException {
+		Path            directory = folder.getRoot().toPath();
+		CheckpointStore store     = open(directory);
+		for (int i = 0; i < 3; i++) {
+			store.append(payload(i));
+		}
+		store.close();
+
+		// A crash in the middle of the last append
+		try (FileChannel channel = FileChannel.open(directory.resolve("checkpoints.log"), StandardOpenOption.WRITE)) {
+			channel.truncate(channel.size() - 3);
+		}
+
+		store = open(directory);
+		assertEquals(2, store.list().size());
+		store.append(payload(2));
+		store.close();
+
+		store = open(directory);
+		assertEquals(3, store.list().size());
+		for (int i = 0; i < 3; i++) {
+			assertArrayEquals(payload(i), store.list().get(i));
+		}
+		store.close();
+	}
+
+	private static CheckpointStore open(Path directory) {
+		CheckpointStore store = new CheckpointStore(directory);
+		store.open();
+		return store;
+	}
+
+	private static byte[] payload(int i) {
+		return ("checkpoint " + i).getBytes(StandardCharsets.UTF_8);
+	}
+
+}
@@ -0,0 +1,99 @@
+package com.blockchain.cryptocurrency.block.repo;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+
+import com.blockchain.cryptocurrency.block.CurrencyBlock;
+import com.blockchain.cryptocurrency.block.CurrencyBlockChain;
+import com.blockchain.cryptocurrency.block.CurrencyBlockChainConfig;
+import com.blockchain.cryptocurrency.block.validator.ChainValidationReport;
+import com.blockchain.cryptocurrency.block.validator.ChainValidator;
+import com.blockchain.cryptocurrency.transaction.Transaction;
+import com.blockchain.cryptocurrency.utxo.UTXOService;
+import com.blockchain.cryptocurrency.wallet.Wallet;
+import com.blockchain.cryptocurrency.wallet.WalletService;
+import com.blockchain.security.KeyIdentity;
+
+/**
+ * The BlockChain on disk read again by another context, without a new Big Ban
+ */
+public class PersistentBlockChainTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void sameChainAfterARestart() throws IOException {
+		File         chain = folder.newFolder("chain");
+		File         utxos = folder.newFolder("utxo");
+		List<String> hashes;
+		KeyIdentity  genesis;
+		KeyIdentity  jane;
+		KeyIdentity  john;
+		try (AnnotationConfigApplicationContext context = open(chain, utxos)) {
+			CurrencyBlockChain currencyBlockChain = context.getBean(CurrencyBlockChain.class);
+			WalletService      walletService      = context.getBean(WalletService.class);
+			Wallet             genesisWallet      = currencyBlockChain.bigBan();
+			Wallet             janeWallet         = walletService.createWallet("jane");
+			Wallet             johnWallet         = walletService.createWallet("john");
+			addBlock(currencyBlockChain, genesisWallet.sendMoney(janeWallet, 50f), genesisWallet.sendMoney(johnWallet, 180f));
+			addBlock(currencyBlockChain, johnWallet.sendMoney(janeWallet, 25f), janeWallet.sendMoney(johnWallet, 5f));
+			addBlock(currencyBlockChain, janeWallet.sendMoney(genesisWallet, 10f));
+			hashes  = currencyBlockChain.streamBlockChain().map(CurrencyBlock::getHash).collect(Collectors.toList());
+			genesis = genesisWallet.getKeyIdentity();
+			jane    = janeWallet.getKeyIdentity();
+			john    = johnWallet.getKeyIdentity();
+		}
+
+		try (AnnotationConfigApplicationContext context = open(chain, utxos)) {
+			CurrencyBlockChain currencyBlockChain = context.getBean(CurrencyBlockChain.class);
+			UTXOService        utxoService        = context.getBean(UTXOService.class);
+			assertEquals(4, currencyBlockChain.listBlockChain().size());
+			assertEquals(hashes, currencyBlockChain.streamBlockChain().map(CurrencyBlock::getHash).collect(Collectors.toList()));
+			assertEquals(3, utxoService.getHeight());
+			assertEquals(780d, utxoService.getBalance(genesis).doubleValue(), 0);
+			assertEquals(60d, utxoService.getBalance(jane).doubleValue(), 0);
+			assertEquals(160d, utxoService.getBalance(john).doubleValue(), 0);
+
+			assertTrue("Decoded", currencyBlockChain.streamBlockChain().allMatch(currencyBlockChain::validateBlock));
+			assertTrue("Signed", currencyBlockChain.streamBlockChain().allMatch(currencyBlockChain::verifySignatures));
+			assertTrue("Read in place", currencyBlockChain.streamBlockViews().allMatch(currencyBlockChain::validateBlock));
+			ChainValidationReport report = context.getBean(ChainValidator.class).validate();
+			assertTrue(report.toString(), report.isValid());
+			assertEquals(4, report.getBlocks());
+		}
+	}
+
+	private static AnnotationConfigApplicationContext open(File chain, File utxos) {
+		Map<String,Object> properties = new HashMap<String,Object>();
+		properties.put("blockchain.repository.directory", chain.getAbsolutePath());
+		properties.put("blockchain.utxo.directory", utxos.getAbsolutePath());
+		AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+		context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("test", properties));
+		context.register(CurrencyBlockChainConfig.class);
+		context.refresh();
+		return context;
+	}
+
+	private static void addBlock(CurrencyBlockChain currencyBlockChain, Transaction... transactions) {
+		CurrencyBlock block = new CurrencyBlock();
+		for (Transaction transaction : transactions) {
+			block.addTransaction(transaction);
+		}
+		currencyBlockChain.addBlock(block);
+	}
+
+}
@@ -0,0 +1,250 @@
+package com.blockchain.cryptocurrency.block.validator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import com.blockchain.cryptocurrency.block.CurrencyBlock;
+import com.blockchain.cryptocurrency.block.CurrencyBlockChain;
+import com.blockchain.cryptocurrency.block.CurrencyBlockChainConfig;
+import com.blockchain.cryptocurrency.block.repo.CurrencyBlockRepository;
+import com.blockchain.cryptocurrency.block.validator.ChainValidationReport.Issue;
+import com.blockchain.cryptocurrency.block.validator.ChainValidationReport.Phase;
+import com.blockchain.cryptocurrency.transaction.Transaction;
+import com.blockchain.cryptocurrency.transaction.TransactionInput;
+import com.blockchain.cryptocurrency.transaction.TransactionOutput;
+import com.blockchain.cryptocurrency.wallet.Wallet;
+import com.blockchain.cryptocurrency.wallet.WalletService;
+
+@RunWith(SpringRunner.class)
+@ContextConfiguration(classes = CurrencyBlockChainConfig.class)
+public class ChainValidatorTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Autowired
+	private CurrencyBlockChain currencyBlockChain;
+
+	@Autowired
+	private WalletService walletServices;
+
+	@Autowired
+	private CurrencyBlockRepository currencyBlockRepository;
+
+	@Autowired
+	private ChainValidator chainValidator;
+
+	private Wallet genesisWallet;
+	private Wallet janeWallet;
+	private Wallet johnWallet;
+
+	@Before
+	public void createTheWorld() {
+		genesisWallet = currencyBlockChain.bigBan();
+		janeWallet    = walletServices.createWallet("jane");
+		johnWallet    = walletServices.createWallet("john");
+	}
+
+	@Test
+	public void validChain() {
+		addBlock(genesisWallet.sendMoney(janeWallet, 50f), genesisWallet.sendMoney(johnWallet, 180f));
+		addBlock(johnWallet.sendMoney(janeWallet, 25f), janeWallet.sendMoney(johnWallet, 5f));
+
+		ChainValidationReport report = chainValidator.validate();
+		assertTrue(report.toString(), report.isValid());
+		assertEquals(3, report.getBlocks());
+		assertEquals(5, report.getTransactions());
+		for (Phase phase : Phase.values()) {
+			assertTrue(phase + " timed", report.getPhaseNanos(phase) > 0);
+		}
+	}
+
+	@Test
+	public void tamperedTransaction() {
+		Transaction payment = genesisWallet.sendMoney(janeWallet, 50f);
+		addBlock(payment);
+		addBlock(genesisWallet.sendMoney(johnWallet, 180f));
+
+		// On disk the Blocks are audited as they were stored, a Block tampered on the heap is not the one read
+		Assume.assumeFalse(currencyBlockRepository.isPersistent());
+		payment.setValue(new BigDecimal(500));
+		ChainValidationReport report = chainValidator.validate();
+		assertFalse(report.isValid());
+		assertEquals("Only the Block of the Transaction", 1, report.getIssues().stream().mapToInt(Issue::getHeight).distinct().count());
+		assertEquals(phases(Phase.LINKAGE, Phase.MERKLE_ROOT, Phase.SIGNATURES), report.getIssues().stream().map(Issue::getPhase).collect(Collectors.toSet()));
+	}
+
+	@Test
+	public void transactionOutOfTheChain() {
+		addBlock(genesisWallet.sendMoney(janeWallet, 50f));
+		// Processed, its outputs are UTXOs, but it was never added to a Block
+		genesisWallet.sendMoney(johnWallet, 180f);
+
+		ChainValidationReport report = chainValidator.validate();
+		assertEquals(phases(Phase.UTXO), report.getIssues().stream().map(Issue::getPhase).collect(Collectors.toSet()));
+		assertEquals("Its two outputs are not in the chain, the one it spent is", 3, report.getIssueCount());
+	}
+
+	@Test
+	public void brokenLinkBetweenChunks() {
+		// More Blocks than a chunk of the workers
+		for (int i = 0; i < 260; i++) {
+			addBlock(i % 2 == 0 ? genesisWallet.sendMoney(janeWallet, 5f) : janeWallet.sendMoney(genesisWallet, 5f));
+		}
+		assertTrue(chainValidator.validate().isValid());
+
+		// On disk only the last Blocks stay on the heap, a Block tampered there would be read again as it was stored
+		Assume.assumeFalse(currencyBlockRepository.isPersistent());
+		currencyBlockChain.findBlock(256).setPreviousBlock(currencyBlockChain.findBlock(254).getHash());
+		ChainValidationReport report = chainValidator.validateFull();
+		assertEquals(261, report.getBlocks());
+		assertEquals(phases(Phase.LINKAGE), report.getIssues().stream().map(Issue::getPhase).collect(Collectors.toSet()));
+		assertTrue(report.getIssues().stream().allMatch(issue -> issue.getHeight() == 256));
+		assertEquals("Its Hash is not mined from the previous one, and it is not linked to it", 2, report.getIssueCount());
+	}
+
+	@Test
+	public void startAfterTheCheckpoint() {
+		addBlock(genesisWallet.sendMoney(janeWallet, 50f), genesisWallet.sendMoney(johnWallet, 180f));
+		Checkpoint checkpoint = chainValidator.validate().getRecorded();
+		assertEquals(1, checkpoint.getHeight());
+		assertEquals(chainValidator.getIdentity(), checkpoint.getSigner());
+
+		addBlock(johnWallet.sendMoney(janeWallet, 25f), janeWallet.sendMoney(johnWallet, 5f));
+		addBlock(janeWallet.sendMoney(genesisWallet, 10f));
+		ChainValidationReport report = chainValidator.validate();
+		assertTrue(report.toString(), report.isValid());
+		assertEquals(2, report.getFromHeight());
+		assertEquals(2, report.getBlocks());
+		assertEquals(3, report.getTransactions());
+		assertEquals(checkpoint.getBlockHash(), report.getCheckpoint().getBlockHash());
+		assertEquals(3, report.getRecorded().getHeight());
+
+		// Both ways to the same state of the chain
+		ChainValidationReport full = chainValidator.validateFull();
+		assertTrue(full.toString(), full.isValid());
+		assertEquals(report.getRecorded().getUtxoDigest(), full.getRecorded().getUtxoDigest());
+		assertEquals(report.getRecorded().getAccumulator(), full.getRecorded().getAccumulator());
+		assertEquals(0, chainValidator.validate().getBlocks());
+	}
+
+	@Test
+	public void forgedCheckpointIsNotTrusted() {
+		addBlock(genesisWallet.sendMoney(janeWallet, 50f));
+		Checkpoint trusted = chainValidator.validate().getRecorded();
+		addBlock(janeWallet.sendMoney(johnWallet, 20f));
+
+		// The signature of the trusted one over a checkpoint of the new Block
+		Checkpoint forged = new Checkpoint(2, currencyBlockChain.findBlock(2).getHash(), trusted.getUtxoDigest(), trusted.getAccumulator(), trusted.getSigner(), trusted.getSignature());
+		currencyBlockRepository.addCheckpoint(forged.toBytes());
+		assertEquals(trusted.getHeight(), chainValidator.findTrustedCheckpoint().getHeight());
+
+		ChainValidationReport report = chainValidator.validate();
+		assertTrue(report.toString(), report.isValid());
+		assertEquals(2, report.getFromHeight());
+	}
+
+	@Test
+	public void utxosNotTheOnesOfTheCheckpoint() {
+		addBlock(genesisWallet.sendMoney(janeWallet, 50f));
+		assertTrue(chainValidator.validate().isValid());
+		addBlock(janeWallet.sendMoney(johnWallet, 20f));
+		// Processed, its outputs are UTXOs, but it was never added to a Block
+		genesisWallet.sendMoney(johnWallet, 180f);
+
+		ChainValidationReport report = chainValidator.validate();
+		assertEquals(2, report.getFromHeight());
+		assertEquals(1, report.getIssueCount());
+		assertEquals(Phase.UTXO, report.getIssues().get(0).getPhase());
+		assertNull("Not recorded", report.getRecorded());
+	}
+
+	@Test
+	public void forgedCopyOfAnOutputOfBeforeTheCheckpoint() {
+		addBlock(genesisWallet.sendMoney(janeWallet, 50f));
+		assertTrue(chainValidator.validate().isValid());
+		Transaction payment = janeWallet.sendMoney(johnWallet, 20f);
+		addBlock(payment);
+
+		// On disk only the last Blocks stay on the heap, a Block tampered there would be read again as it was stored
+		Assume.assumeFalse(currencyBlockRepository.isPersistent());
+		TransactionInput  input = payment.getInputs().get(0);
+		TransactionOutput spent = input.getUTXO();
+		// The same hash and value, but of John: the hash of the output is not the one of its data
+		input.setUTXO(new TransactionOutput(spent.getHash(), johnWallet, spent.getValue(), spent.getParentTransactionHash()));
+
+		ChainValidationReport report = chainValidator.validate();
+		assertEquals(2, report.getFromHeight());
+		assertEquals("The copy is refused, without its value the outputs do not add up", 2, report.getIssueCount());
+		assertEquals(phases(Phase.UTXO), report.getIssues().stream().map(Issue::getPhase).collect(Collectors.toSet()));
+		assertTrue(report.getIssues().stream().allMatch(issue -> issue.getHeight() == 2));
+	}
+
+	@Test
+	public void diskChainLongerThanItsRecentBlocks() throws IOException {
+		Map<String,Object> properties = new HashMap<String,Object>();
+		properties.put("blockchain.repository.directory", folder.newFolder("chain").getAbsolutePath());
+		properties.put("blockchain.utxo.directory", folder.newFolder("utxo").getAbsolutePath());
+		properties.put("blockchain.repository.cacheSize", 8);
+		properties.put("blockchain.workers.threads", 3);
+		try (AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext()) {
+			context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("test", properties));
+			context.register(CurrencyBlockChainConfig.class);
+			context.refresh();
+			CurrencyBlockChain chain     = context.getBean(CurrencyBlockChain.class);
+			ChainValidator     validator = context.getBean(ChainValidator.class);
+			Wallet             genesis   = chain.bigBan();
+			Wallet             jane      = context.getBean(WalletService.class).createWallet("jane");
+			// More chunks than workers, each one far more Blocks than the ones kept on the heap
+			for (int i = 0; i < 600; i++) {
+				CurrencyBlock block = new CurrencyBlock();
+				block.addTransaction(i % 2 == 0 ? genesis.sendMoney(jane, 5f) : jane.sendMoney(genesis, 5f));
+				chain.addBlock(block);
+			}
+			CurrencyBlock recent = chain.findBlock(300);
+
+			ChainValidationReport report = validator.validate();
+			assertTrue(report.toString(), report.isValid());
+			assertEquals(601, report.getBlocks());
+			assertEquals(601, report.getTransactions());
+			assertEquals(chain.findBlock(600).getHash(), report.getRecorded().getBlockHash());
+			assertSame("The recent Blocks are not evicted by the audit", recent, chain.findBlock(300));
+		}
+	}
+
+	private void addBlock(Transaction... transactions) {
+		CurrencyBlock block = new CurrencyBlock();
+		for (Transaction transaction : transactions) {
+			block.addTransaction(transaction);
+		}
+		currencyBlockChain.addBlock(block);
+	}
+
+	private static Set<Phase> phases(Phase... phases) {
+		return Stream.of(phases).collect(Collectors.toSet());
+	}
+
+}
@@ -0,0 +1,159 @@
+package com.blockchain.cryptocurrency.codec;
+
+import static com.blockchain.cryptocurrency.TestWallets.publicKey;
+import static com.blockchain.cryptocurrency.TestWallets.wallet;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.security.PublicKey;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.junit.Test;
+
+import com.blockchain.cryptocurrency.block.CurrencyBlock;
+import com.blockchain.cryptocurrency.block.repo.CurrencyBlockView;
+import com.blockchain.cryptocurrency.transaction.Transaction;
+import com.blockchain.cryptocurrency.transaction.TransactionInput;
+import com.blockchain.cryptocurrency.transaction.TransactionOutput;
+import com.blockchain.cryptocurrency.wallet.Wallet;
+import com.blockchain.security.KeyIdentity;
+
+public class CanonicalCodecTest {
+
+	private final PublicKey sender    = publicKey();
+	private final PublicKey recipient = publicKey();
+
+	private final Map<KeyIdentity,Wallet> wallets = new HashMap<KeyIdentity,Wallet>();
+
+	@Test
+	public void sameValueSameBytes() {
+		String hash = CanonicalCodec.hashTransaction(sender.getEncoded(), recipient.getEncoded(), new BigDecimal("10.00"), 1L, "nonce");
+		assertEquals(hash, CanonicalCodec.hashTransaction(sender.getEncoded(), recipient.getEncoded(), BigDecimal.TEN, 1L, "nonce"));
+		assertEquals(hash, CanonicalCodec.hashTransaction(sender.getEncoded(), recipient.getEncoded(), BigDecimal.valueOf(10f), 1L, "nonce"));
+		assertNotEquals(hash, CanonicalCodec.hashTransaction(sender.getEncoded(), recipient.getEncoded(), new BigDecimal("10.01"), 1L, "nonce"));
+		assertNotEquals("The sender and the recipient swapped", hash, CanonicalCodec.hashTransaction(recipient.getEncoded(), sender.getEncoded(), BigDecimal.TEN, 1L, "nonce"));
+		assertEquals(CanonicalCodec.hashOutput(KeyIdentity.of(recipient), BigDecimal.ZERO, null), CanonicalCodec.hashOutput(KeyIdentity.of(recipient), new BigDecimal("0.000"), null));
+	}
+
+	@Test
+	public void bufferReusedAndGrown() {
+		ByteBuffer signed = CanonicalCodec.signedData(KeyIdentity.of(sender), KeyIdentity.of(recipient), BigDecimal.ONE);
+		int        length = signed.remaining();
+		assertEquals(CanonicalCodec.VERSION, signed.get(0));
+		assertTrue(signed.isReadOnly());
+
+		// Bigger than the initial buffer of the thread
+		StringBuilder nonce = new StringBuilder();
+		for (int i = 0; i < 500; i++) {
+			nonce.append("nonce ");
+		}
+		String big = CanonicalCodec.hashTransaction(sender.getEncoded(), recipient.getEncoded(), BigDecimal.ONE, 1L, nonce.toString());
+		assertEquals(big, CanonicalCodec.hashTransaction(sender.getEncoded(), recipient.getEncoded(), BigDecimal.ONE, 1L, nonce.toString()));
+		assertEquals(length, CanonicalCodec.signedData(KeyIdentity.of(sender), KeyIdentity.of(recipient), BigDecimal.ONE).remaining());
+	}
+
+	@Test
+	public void outputHashedFromItsFields() {
+		Wallet            wallet = wallet("jane", recipient);
+		String            parent = DigestUtils.sha256Hex("parent");
+		TransactionOutput output = new TransactionOutput(wallet, new BigDecimal("12.50"), parent);
+		assertEquals(CanonicalCodec.hashOutput(KeyIdentity.of(recipient), new BigDecimal("12.5"), parent), output.getHash());
+
+		TransactionOutput decoded = CanonicalCodec.decodeOutput(CanonicalCodec.encode(output), this::resolveWallet);
+		assertEquals(output.getHash(), decoded.getHash());
+		assertEquals("jane", decoded.getRecipient().getOwner());
+		assertEquals(KeyIdentity.of(recipient), decoded.getRecipient().getKeyIdentity());
+		assertEquals("In its canonical form", new BigDecimal("12.5"), decoded.getValue());
+		assertEquals(parent, decoded.getParentTransactionHash());
+	}
+
+	@Test
+	public void blockDecodedAsEncoded() {
+		Wallet            jane     = wallet("jane", sender);
+		Wallet            john     = wallet("john", recipient);
+		Transaction       genesis  = transaction("genesis", jane, jane, "1000", null);
+		TransactionOutput coins    = new TransactionOutput(jane, new BigDecimal("1000"), genesis.getHash());
+		genesis.getOutputs().add(coins);
+		TransactionInput  spent    = new TransactionInput(coins.getHash());
+		spent.setUTXO(coins);
+		Transaction       payment  = transaction("payment", jane, john, "20.50", Arrays.asList(spent, new TransactionInput(DigestUtils.sha256Hex("not processed"))));
+		payment.getOutputs().add(new TransactionOutput(john, new BigDecimal("20.50"), payment.getHash()));
+		payment.getOutputs().add(new TransactionOutput(wallet("jane", sender), new BigDecimal("979.5"), payment.getHash()));
+		CurrencyBlock     block    = new CurrencyBlock(7, DigestUtils.sha256Hex("block"), "000", 1234L, 42, DigestUtils.sha256Hex("root"), Arrays.asList(genesis, payment));
+
+		ByteBuffer    encoded = copy(CanonicalCodec.encode(block));
+		CurrencyBlock decoded = CanonicalCodec.decodeBlock(encoded.duplicate(), resolver());
+		assertEquals(block.getHash(), CanonicalCodec.decodeBlockHash(encoded));
+		assertEquals(Integer.valueOf(7), decoded.getHeight());
+		assertEquals("000", decoded.getPreviousBlock());
+		assertEquals(Long.valueOf(1234L), decoded.getTimeStamp());
+		assertEquals(Integer.valueOf(42), decoded.getNonce());
+		assertEquals(block.getMerkleRoot(), decoded.getMerkleRoot());
+		assertNull("Without inputs", decoded.getTransactions().get(0).getInputs());
+		Transaction paid = decoded.getTransactions().get(1);
+		assertEquals(payment.getHash(), paid.getHash());
+		assertArrayEquals(payment.getSignature(), paid.getSignature());
+		assertEquals("john", paid.getRecipient().getOwner());
+		assertEquals(coins.getHash(), paid.getInputs().get(0).getUTXO().getHash());
+		assertNull(paid.getInputs().get(1).getUTXO());
+		assertEquals(2, paid.getOutputs().size());
+		assertEquals("The same Wallet once, by its key", paid.getSender(), paid.getOutputs().get(1).getRecipient());
+
+		// The same bytes again, and the same fields read by a view of them
+		assertEquals(encoded, CanonicalCodec.encode(decoded));
+		CurrencyBlockView view = new CurrencyBlockView(encoded);
+		assertEquals(block.getHash(), view.getHash());
+		assertEquals(2, view.getTransactionCount());
+		List<String> hashes = new ArrayList<String>();
+		view.forEachTransaction(t -> hashes.add(t.getHash() + " " + t.getValue() + " " + view.getOwner(t.getRecipient())));
+		assertEquals(Arrays.asList(genesis.getHash() + " 1E+3 jane", payment.getHash() + " 20.5 john"), hashes);
+
+		// A standalone Transaction carries its own Wallets
+		Transaction alone = CanonicalCodec.decodeTransaction(CanonicalCodec.encode(payment), resolver());
+		assertEquals(payment.getHash(), alone.getHash());
+		assertEquals(copy(CanonicalCodec.encode(payment)), CanonicalCodec.encode(alone));
+	}
+
+	private Transaction transaction(String nonce, Wallet sender, Wallet recipient, String value, List<TransactionInput> inputs) {
+		return new Transaction(null, null, DigestUtils.sha256Hex(nonce), new BigDecimal(value), nonce.getBytes(), sender, recipient, nonce, 1L, inputs,
+				               new ArrayList<TransactionOutput>());
+	}
+
+	/**
+	 * The same Wallet for the same key, as the WalletService
+	 */
+	private Wallet resolveWallet(String owner, byte[] publicKey) {
+		return wallets.computeIfAbsent(KeyIdentity.of(publicKey), k -> wallet(owner, publicKey));
+	}
+
+	private CanonicalCodec.Resolver resolver() {
+		return new CanonicalCodec.Resolver() {
+			@Override
+			public Wallet resolveWallet(String owner, byte[] publicKey) {
+				return CanonicalCodecTest.this.resolveWallet(owner, publicKey);
+			}
+			@Override
+			public Transaction newTransaction(String hash, BigDecimal value, byte[] signature, Wallet sender, Wallet recipient, String nonce, long timeStamp,
+					                          List<TransactionInput> inputs, List<TransactionOutput> outputs) {
+				return new Transaction(null, null, hash, value, signature, sender, recipient, nonce, timeStamp, inputs, outputs);
+			}
+		};
+	}
+
+	private static ByteBuffer copy(ByteBuffer encoded) {
+		ByteBuffer copy = ByteBuffer.allocate(encoded.remaining()).put(encoded);
+		copy.flip();
+		return copy;
+	}
+
+}
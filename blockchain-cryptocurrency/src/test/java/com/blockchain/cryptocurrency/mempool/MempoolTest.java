@@ -0,0 +1,235 @@
+package com.blockchain.cryptocurrency.mempool;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.blockchain.cryptocurrency.block.CurrencyBlock;
+import com.blockchain.cryptocurrency.block.CurrencyBlockChain;
+import com.blockchain.cryptocurrency.block.CurrencyBlockChainConfig;
+import com.blockchain.cryptocurrency.codec.CanonicalCodec;
+import com.blockchain.cryptocurrency.mempool.Mempool.Admission;
+import com.blockchain.cryptocurrency.transaction.Transaction;
+import com.blockchain.cryptocurrency.transaction.TransactionInput;
+import com.blockchain.cryptocurrency.transaction.TransactionOutput;
+import com.blockchain.cryptocurrency.transaction.TransactionService;
+import com.blockchain.cryptocurrency.wallet.Wallet;
+import com.blockchain.cryptocurrency.wallet.WalletService;
+
+@RunWith(SpringRunner.class)
+@ContextConfiguration(classes = CurrencyBlockChainConfig.class)
+public class MempoolTest {
+
+	@Autowired
+	private CurrencyBlockChain currencyBlockChain;
+
+	@Autowired
+	private WalletService walletServices;
+
+	@Autowired
+	private TransactionService transactionService;
+
+	@Autowired
+	private Mempool mempool;
+
+	private Wallet genesisWallet;
+	private Wallet janeWallet;
+	private Wallet johnWallet;
+
+	@Before
+	public void createTheWorld() {
+		genesisWallet = currencyBlockChain.bigBan();
+		janeWallet    = walletServices.createWallet("jane");
+		johnWallet    = walletServices.createWallet("john");
+		mempool.clear();
+	}
+
+	@Test
+	public void admission() {
+		String      genesisOutput = genesisOutput();
+		Transaction payment       = pay(genesisWallet, janeWallet, 100f, genesisOutput);
+		Transaction doubleSpent   = pay(genesisWallet, johnWallet, 100f, genesisOutput);
+		Transaction forged        = pay(genesisWallet, johnWallet, 100f, genesisOutput);
+		forged.setValue(new BigDecimal(900));
+
+		assertEquals(Admission.ACCEPTED, mempool.admit(payment));
+		assertEquals(Admission.DUPLICATE, mempool.admit(payment));
+		assertEquals(Admission.CONFLICT, mempool.admit(doubleSpent));
+		assertEquals(Admission.INVALID_SIGNATURE, mempool.admit(forged));
+		assertEquals(Admission.MISSING_INPUTS, mempool.admit(pay(genesisWallet, johnWallet, 100f, "unknown")));
+		assertEquals(Admission.INSUFFICIENT_INPUTS, mempool.admit(pay(genesisWallet, johnWallet, 2000f, genesisOutput)));
+		assertEquals("Who spends the output", payment, mempool.findSpender(genesisOutput));
+		assertEquals(1, mempool.size());
+		assertEquals("Pending, the UTXOs are untouched", 1000d, currencyBlockChain.queryBalance(genesisWallet).doubleValue(), 0);
+
+		// The output is free again once the first one is gone
+		assertTrue(mempool.remove(payment.getHash()));
+		assertEquals(Admission.ACCEPTED, mempool.admit(doubleSpent));
+	}
+
+	@Test
+	public void belowTheMinimumIsNeverAdmitted() {
+		genesisWallet.sendMoney(janeWallet, 3f);
+		String janeOutput = currencyBlockChain.listUnspentOutputs(janeWallet).iterator().next().getHash();
+
+		// Inputs enough for the value, but less than the minimum of a Transaction: its processing would always refuse it
+		Transaction tooSmall = pay(janeWallet, johnWallet, 2f, janeOutput);
+		assertEquals(Admission.BELOW_MINIMUM, mempool.admit(tooSmall));
+		assertArrayEquals(new boolean[] {false}, currencyBlockChain.processTransactions(Arrays.asList(tooSmall)));
+		assertEquals(0, mempool.size());
+	}
+
+	@Test
+	public void onlyOneOfConcurrentDoubleSpends() {
+		String            genesisOutput = genesisOutput();
+		List<Transaction> spends        = IntStream.range(0, 16).mapToObj(i -> pay(genesisWallet, janeWallet, 10f + i, genesisOutput)).collect(Collectors.toList());
+
+		Map<Admission,Long> admissions = spends.parallelStream().map(mempool::admit).collect(Collectors.groupingBy(Function.identity(), Collectors.counting()));
+		assertEquals(Long.valueOf(1), admissions.get(Admission.ACCEPTED));
+		assertEquals(Long.valueOf(15), admissions.get(Admission.CONFLICT));
+		assertEquals(1, mempool.size());
+	}
+
+	@Test
+	public void blockTemplateByPriority() {
+		List<String> janeOutputs = janeOutputs(5);
+		List<Transaction> payments = new ArrayList<Transaction>();
+		for (int i = 0; i < janeOutputs.size(); i++) {
+			payments.add(pay(janeWallet, johnWallet, 10f * (i + 1), janeOutputs.get(i)));
+		}
+		payments.forEach(p -> assertEquals(Admission.ACCEPTED, mempool.admit(p)));
+
+		// The highest value first
+		List<Transaction> ordered = mempool.listTransactions();
+		assertEquals(Arrays.asList(50d, 40d, 30d, 20d, 10d), ordered.stream().map(t -> t.getValue().doubleValue()).collect(Collectors.toList()));
+
+		// Room for the three first ones, not for any other (the signatures differ in a few bytes)
+		int           room     = Mempool.sizeOf(ordered.get(0)) + Mempool.sizeOf(ordered.get(1)) + Mempool.sizeOf(ordered.get(2))
+				               + Math.min(Mempool.sizeOf(ordered.get(3)), Mempool.sizeOf(ordered.get(4))) - 1;
+		CurrencyBlock template = mempool.buildBlockTemplate(room);
+		assertEquals(ordered.subList(0, 3), template.getTransactions());
+		assertEquals(0, mempool.buildBlockTemplate(0).getTransactions().size());
+
+		// Mined: processed, added, out of the mempool
+		int[] estimated = template.getTransactions().stream().mapToInt(Mempool::sizeOf).toArray();
+		assertTrue(currencyBlockChain.addBlockTemplate(template));
+		assertEquals(ordered.subList(0, 3), template.getTransactions());
+		for (int i = 0; i < estimated.length; i++) {
+			assertTrue("The estimate is an upper bound", CanonicalCodec.encode(template.getTransactions().get(i)).remaining() <= estimated[i]);
+		}
+		assertEquals(ordered.subList(3, 5), mempool.listTransactions());
+		assertFalse(mempool.contains(ordered.get(0).getHash()));
+		assertEquals("John Wallet", 120d, currencyBlockChain.queryBalance(johnWallet).doubleValue(), 0);
+	}
+
+	@Test
+	public void spentOutOfTheMempool() {
+		String      genesisOutput = genesisOutput();
+		Transaction payment       = pay(genesisWallet, janeWallet, 100f, genesisOutput);
+		Transaction doubleSpent   = pay(genesisWallet, johnWallet, 100f, genesisOutput);
+		assertEquals(Admission.ACCEPTED, mempool.admit(payment));
+
+		// The other one spends the output without passing by the mempool
+		assertArrayEquals(new boolean[] {true}, currencyBlockChain.processTransactions(Arrays.asList(doubleSpent)));
+		assertEquals("Its input is not unspent anymore", 0, mempool.buildBlockTemplate(Integer.MAX_VALUE).getTransactions().size());
+
+		// Once in a Block, the pending one spending the same output is gone too
+		CurrencyBlock block = new CurrencyBlock();
+		block.addTransaction(doubleSpent);
+		currencyBlockChain.addBlock(block);
+		assertEquals(0, mempool.size());
+		assertFalse(mempool.contains(payment.getHash()));
+		assertEquals(null, mempool.findSpender(genesisOutput));
+	}
+
+	@Test
+	public void templateSpentMeanwhile() {
+		List<String>      janeOutputs = janeOutputs(3);
+		List<Transaction> payments    = new ArrayList<Transaction>();
+		for (int i = 0; i < janeOutputs.size(); i++) {
+			payments.add(pay(janeWallet, johnWallet, 10f * (i + 1), janeOutputs.get(i)));
+			assertEquals(Admission.ACCEPTED, mempool.admit(payments.get(i)));
+		}
+		CurrencyBlock template = mempool.buildBlockTemplate(Integer.MAX_VALUE);
+		assertEquals(3, template.getTransactions().size());
+
+		// Between the template and its Block, the input of one is spent without passing by the mempool
+		Transaction outOfBand = pay(janeWallet, johnWallet, 7f, janeOutputs.get(0));
+		assertArrayEquals(new boolean[] {true}, currencyBlockChain.processTransactions(Arrays.asList(outOfBand)));
+
+		assertTrue(currencyBlockChain.addBlockTemplate(template));
+		assertEquals("Only the ones processed", payments.subList(1, 3).stream().collect(Collectors.toSet()), template.getTransactions().stream().collect(Collectors.toSet()));
+		assertEquals(template.getHash(), currencyBlockChain.findBlock(currencyBlockChain.listBlockChain().size() - 1).getHash());
+		assertTrue(currencyBlockChain.validateBlock(template));
+		assertEquals("The rejected one is gone too", 0, mempool.size());
+		assertFalse(mempool.contains(payments.get(0).getHash()));
+		assertEquals("John Wallet", 57d, currencyBlockChain.queryBalance(johnWallet).doubleValue(), 0);
+
+		// Nothing left to be processed, no Block
+		int    size   = currencyBlockChain.listBlockChain().size();
+		String change = currencyBlockChain.listUnspentOutputs(janeWallet).iterator().next().getHash();
+		assertEquals(Admission.ACCEPTED, mempool.admit(pay(janeWallet, johnWallet, 50f, change)));
+		template = mempool.buildBlockTemplate(Integer.MAX_VALUE);
+		assertArrayEquals(new boolean[] {true}, currencyBlockChain.processTransactions(Arrays.asList(pay(janeWallet, johnWallet, 7f, change))));
+		assertFalse(currencyBlockChain.addBlockTemplate(template));
+		assertEquals(size, currencyBlockChain.listBlockChain().size());
+		assertEquals(0, mempool.size());
+	}
+
+	@Test
+	public void fullKeepsTheHighest() {
+		List<String> janeOutputs = janeOutputs(4);
+		ReflectionTestUtils.setField(mempool, "maxTransactions", 2);
+		try {
+			Transaction ten    = pay(janeWallet, johnWallet, 10f, janeOutputs.get(0));
+			Transaction twenty = pay(janeWallet, johnWallet, 20f, janeOutputs.get(1));
+			Transaction thirty = pay(janeWallet, johnWallet, 30f, janeOutputs.get(2));
+			Transaction five   = pay(janeWallet, johnWallet, 5f, janeOutputs.get(3));
+			assertEquals(Admission.ACCEPTED, mempool.admit(ten));
+			assertEquals(Admission.ACCEPTED, mempool.admit(twenty));
+			assertEquals(Admission.ACCEPTED, mempool.admit(thirty));
+			assertEquals(Admission.FULL, mempool.admit(five));
+			assertEquals(Arrays.asList(thirty, twenty), mempool.listTransactions());
+			assertEquals("The input of the evicted one is free", null, mempool.findSpender(janeOutputs.get(0)));
+		} finally {
+			ReflectionTestUtils.setField(mempool, "maxTransactions", 50000);
+		}
+	}
+
+	private Transaction pay(Wallet sender, Wallet recipient, float value, String output) {
+		return transactionService.createTransaction(sender, recipient, value, Arrays.asList(new TransactionInput(output)));
+	}
+
+	private String genesisOutput() {
+		return currencyBlockChain.listUnspentOutputs(genesisWallet).iterator().next().getHash();
+	}
+
+	/**
+	 * Jane with as many outputs of 100
+	 */
+	private List<String> janeOutputs(int count) {
+		for (int i = 0; i < count; i++) {
+			genesisWallet.sendMoney(janeWallet, 100f);
+		}
+		return currencyBlockChain.listUnspentOutputs(janeWallet).stream().map(TransactionOutput::getHash).collect(Collectors.toList());
+	}
+
+}
@@ -0,0 +1,74 @@
+package com.blockchain.cryptocurrency.transaction;
+
+import static com.blockchain.cryptocurrency.TestWallets.publicKey;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.blockchain.security.KeyIdentity;
+
+public class SignatureCacheTest {
+
+	private final KeyIdentity publicKey = KeyIdentity.of(publicKey());
+	private final byte[]      signature = { 1, 2, 3 };
+
+	@Test
+	public void onlyTheSameCheckIsSkipped() {
+		SignatureCache cache         = cache(100);
+		AtomicInteger  verifications = new AtomicInteger();
+
+		assertTrue(cache.verify("tx", publicKey, data("data"), signature, () -> verifications.incrementAndGet() > 0));
+		assertTrue(cache.verify("tx", publicKey, data("data"), signature, () -> verifications.incrementAndGet() > 0));
+		assertEquals("Verified only once", 1, verifications.get());
+		assertEquals(1, cache.getHits());
+
+		// The same Transaction with its data tampered, it is verified again
+		assertFalse(cache.verify("tx", publicKey, data("data tampered"), signature, () -> false));
+		// A failure is never kept
+		assertFalse(cache.verify("other", publicKey, data("data"), signature, () -> false));
+		assertFalse(cache.verify("other", publicKey, data("data"), signature, () -> false));
+		assertEquals(4, cache.getMisses());
+	}
+
+	@Test
+	public void leastRecentlyUsedAreEvicted() {
+		SignatureCache cache = cache(16 * 4);
+		for (int i = 0; i < 1000; i++) {
+			cache.verify("tx " + i, publicKey, data("data"), signature, () -> true);
+		}
+		assertTrue("Bounded: " + cache.getSize(), cache.getSize() <= 16 * 4);
+
+		AtomicInteger verifications = new AtomicInteger();
+		cache.verify("tx 999", publicKey, data("data"), signature, () -> verifications.incrementAndGet() > 0);
+		cache.verify("tx 0", publicKey, data("data"), signature, () -> verifications.incrementAndGet() > 0);
+		assertEquals("The last one is still there, the first one not", 1, verifications.get());
+	}
+
+	@Test
+	public void disabled() {
+		SignatureCache cache         = cache(0);
+		AtomicInteger  verifications = new AtomicInteger();
+		cache.verify("tx", publicKey, data("data"), signature, () -> verifications.incrementAndGet() > 0);
+		cache.verify("tx", publicKey, data("data"), signature, () -> verifications.incrementAndGet() > 0);
+		assertEquals(2, verifications.get());
+	}
+
+	private static ByteBuffer data(String data) {
+		return ByteBuffer.wrap(data.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static SignatureCache cache(int size) {
+		SignatureCache cache = new SignatureCache();
+		ReflectionTestUtils.setField(cache, "size", size);
+		cache.init();
+		return cache;
+	}
+
+}
@@ -0,0 +1,77 @@
+package com.blockchain.cryptocurrency.utxo;
+
+import static com.blockchain.cryptocurrency.TestWallets.publicKey;
+import static com.blockchain.cryptocurrency.TestWallets.wallet;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.junit.Test;
+
+import com.blockchain.cryptocurrency.transaction.TransactionOutput;
+import com.blockchain.cryptocurrency.wallet.Wallet;
+import com.blockchain.security.KeyIdentity;
+
+public class CompactUTXOTableTest {
+
+	@Test
+	public void sameContentAsAMap() {
+		CompactUTXOTable       table    = new CompactUTXOTable();
+		Map<String,BigDecimal> expected = new HashMap<String,BigDecimal>();
+		Random                 random   = new Random(42);
+		int                    owner    = table.internKey(KeyIdentity.of(publicKey()));
+		// Many adds and removes, through the resizes and the shifts back of the removals
+		for (int i = 0; i < 20000; i++) {
+			String hash = hash(random.nextInt(5000));
+			if ( random.nextInt(3) == 0 ) {
+				assertEquals(expected.remove(hash) != null, table.remove(hash));
+			} else {
+				BigDecimal value = BigDecimal.valueOf(random.nextInt(1000000), 4);
+				assertEquals(expected.put(hash, value) == null, table.add(hash, value, owner));
+			}
+		}
+		assertEquals(expected.size(), table.size());
+		for (int i = 0; i < 5000; i++) {
+			String hash = hash(i);
+			assertEquals(expected.containsKey(hash), table.contains(hash));
+			BigDecimal value = table.getValue(hash);
+			assertEquals(expected.get(hash), value == null ? null : value.setScale(4));
+		}
+	}
+
+	@Test
+	public void recipientKeysAreInterned() {
+		CompactUTXOTable table = new CompactUTXOTable();
+		Wallet           jane  = wallet("jane");
+		Wallet           john  = wallet("john");
+		table.add(new TransactionOutput(hash(1), jane, new BigDecimal("1.5"), "parent"));
+		table.add(new TransactionOutput(hash(2), john, BigDecimal.TEN, "parent"));
+		table.add(new TransactionOutput(hash(3), jane, new BigDecimal("0.00000001"), "parent"));
+
+		assertEquals(table.getRecipient(hash(1)), table.getRecipient(hash(3)));
+		assertEquals(john.getKeyIdentity(), table.getKey(table.getRecipient(hash(2))));
+		assertEquals(0, table.getRecipient(hash(4)));
+		assertEquals(0, new BigDecimal("0.00000001").compareTo(table.getValue(hash(3))));
+		assertNull(table.getValue(hash(4)));
+		assertFalse(table.remove(hash(4)));
+		assertTrue(table.remove(hash(1)));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void valueBeyondTheFixedPointIsRefused() {
+		CompactUTXOTable table = new CompactUTXOTable();
+		table.add(hash(1), new BigDecimal("0.000000001"), table.internKey(KeyIdentity.of(publicKey())));
+	}
+
+	private static String hash(int i) {
+		return DigestUtils.sha256Hex("output " + i);
+	}
+
+}
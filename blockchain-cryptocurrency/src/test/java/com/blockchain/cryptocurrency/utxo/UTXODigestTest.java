@@ -0,0 +1,48 @@
+package com.blockchain.cryptocurrency.utxo;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.junit.Test;
+
+public class UTXODigestTest {
+
+	@Test
+	public void orderDoesNotMatter() {
+		List<String> hashs = new ArrayList<String>();
+		for (int i = 0; i < 1000; i++) {
+			hashs.add(hash(i));
+		}
+		UTXODigest digest = UTXODigest.of(hashs);
+		Collections.shuffle(hashs, new Random(42));
+		assertEquals(digest, UTXODigest.of(hashs));
+		assertEquals(digest, UTXODigest.fromHex(digest.toHex()));
+		assertNotEquals(digest, UTXODigest.of(hashs.subList(1, hashs.size())));
+	}
+
+	@Test
+	public void spentOutputsAreSubtracted() {
+		UTXODigest digest = UTXODigest.of(Collections.singletonList(hash(0)));
+		// Created and spent after it, through the carries and the borrows of the limbs
+		for (int i = 1; i < 1000; i++) {
+			digest.add(hash(i));
+		}
+		for (int i = 1; i < 1000; i++) {
+			digest.subtract(hash(i));
+		}
+		assertEquals(UTXODigest.of(Collections.singletonList(hash(0))), digest);
+		assertEquals(new UTXODigest(), digest.subtract(hash(0)));
+		assertEquals("0000000000000000000000000000000000000000000000000000000000000000", digest.toHex());
+	}
+
+	private static String hash(int i) {
+		return DigestUtils.sha256Hex("output " + i);
+	}
+
+}
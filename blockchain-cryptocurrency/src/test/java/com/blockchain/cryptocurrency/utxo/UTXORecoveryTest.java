@@ -0,0 +1,100 @@
+package com.blockchain.cryptocurrency.utxo;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+
+import com.blockchain.cryptocurrency.block.CurrencyBlock;
+import com.blockchain.cryptocurrency.block.CurrencyBlockChain;
+import com.blockchain.cryptocurrency.block.CurrencyBlockChainConfig;
+import com.blockchain.cryptocurrency.wallet.Wallet;
+import com.blockchain.cryptocurrency.wallet.WalletService;
+import com.blockchain.security.KeyIdentity;
+
+/**
+ * The UTXOs on disk against the chain on disk, after a crash between the Block forced and its mark in the journal
+ */
+public class UTXORecoveryTest {
+
+	// The mark of a Block: [length(4)][crc32(4)][type(1)][height(4)]
+	private static final int BLOCK_MARK = 13;
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void blocksAfterTheLastRecordedAreAppliedAgain() throws IOException {
+		File        chain = folder.newFolder("chain");
+		File        utxos = folder.newFolder("utxo");
+		KeyIdentity genesis;
+		KeyIdentity jane;
+		try (AnnotationConfigApplicationContext context = open(chain, utxos)) {
+			CurrencyBlockChain currencyBlockChain = context.getBean(CurrencyBlockChain.class);
+			Wallet             genesisWallet      = currencyBlockChain.bigBan();
+			Wallet             janeWallet         = context.getBean(WalletService.class).createWallet("jane");
+			addBlock(currencyBlockChain, genesisWallet, janeWallet, 50f);
+			addBlock(currencyBlockChain, genesisWallet, janeWallet, 20f);
+			genesis = genesisWallet.getKeyIdentity();
+			jane    = janeWallet.getKeyIdentity();
+		}
+
+		// The last Block is in the chain, its changes of the UTXOs were not marked
+		Path journal = Files.list(utxos.toPath()).filter(f -> f.toString().endsWith(".journal")).findFirst().get();
+		try (FileChannel channel = FileChannel.open(journal, StandardOpenOption.WRITE)) {
+			channel.truncate(channel.size() - BLOCK_MARK);
+		}
+
+		try (AnnotationConfigApplicationContext context = open(chain, utxos)) {
+			UTXOService utxoService = context.getBean(UTXOService.class);
+			assertEquals(2, utxoService.getHeight());
+			assertEquals(70d, utxoService.getBalance(jane).doubleValue(), 0);
+			assertEquals(930d, utxoService.getBalance(genesis).doubleValue(), 0);
+		}
+		try (AnnotationConfigApplicationContext context = open(chain, utxos)) {
+			assertEquals("Recorded again", 2, context.getBean(UTXOService.class).getHeight());
+		}
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void utxosAheadOfTheChainAreRefused() throws IOException {
+		File utxos = folder.newFolder("utxo");
+		try (AnnotationConfigApplicationContext context = open(folder.newFolder("chain"), utxos)) {
+			CurrencyBlockChain currencyBlockChain = context.getBean(CurrencyBlockChain.class);
+			Wallet             genesisWallet      = currencyBlockChain.bigBan();
+			addBlock(currencyBlockChain, genesisWallet, context.getBean(WalletService.class).createWallet("jane"), 50f);
+		}
+		// Another chain, empty
+		open(folder.newFolder("other"), utxos).close();
+	}
+
+	private static AnnotationConfigApplicationContext open(File chain, File utxos) {
+		Map<String,Object> properties = new HashMap<String,Object>();
+		properties.put("blockchain.repository.directory", chain.getAbsolutePath());
+		properties.put("blockchain.utxo.directory", utxos.getAbsolutePath());
+		AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+		context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("test", properties));
+		context.register(CurrencyBlockChainConfig.class);
+		context.refresh();
+		return context;
+	}
+
+	private static void addBlock(CurrencyBlockChain currencyBlockChain, Wallet sender, Wallet recipient, float value) {
+		CurrencyBlock block = new CurrencyBlock();
+		block.addTransaction(sender.sendMoney(recipient, value));
+		currencyBlockChain.addBlock(block);
+	}
+
+}
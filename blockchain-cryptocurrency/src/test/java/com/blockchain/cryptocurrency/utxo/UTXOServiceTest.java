@@ -0,0 +1,146 @@
+package com.blockchain.cryptocurrency.utxo;
+
+import static com.blockchain.cryptocurrency.TestWallets.wallet;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+import com.blockchain.cryptocurrency.transaction.TransactionOutput;
+import com.blockchain.cryptocurrency.wallet.Wallet;
+
+public class UTXOServiceTest {
+
+	private static final Wallet OWNER = wallet("owner");
+
+	@Test
+	public void spendIsAllOrNothing() {
+		UTXOService utxoService = new UTXOService();
+		utxoService.addTransaction(output("a"));
+		utxoService.addTransaction(output("b"));
+
+		assertNull("An unknown output", utxoService.spend(Arrays.asList("a", "x")));
+		assertNull("The same output twice", utxoService.spend(Arrays.asList("a", "a")));
+		assertEquals("Nothing spent by the failed attempts", 2, utxoService.listTransactions().size());
+
+		assertEquals(2, utxoService.spend(Arrays.asList("b", "a")).size());
+		assertNull("Already spent", utxoService.spend(Arrays.asList("a")));
+	}
+
+	@Test
+	public void concurrentSpendersNeverShareAnOutput() throws Exception {
+		UTXOService  utxoService = new UTXOService();
+		int          outputs     = 2000;
+		List<String> hashs       = new ArrayList<String>();
+		for (int i = 0; i < outputs; i++) {
+			hashs.add("output-" + i);
+			utxoService.addTransaction(output("output-" + i));
+		}
+
+		Set<String>     spent    = ConcurrentHashMap.newKeySet();
+		AtomicInteger   failures = new AtomicInteger();
+		ExecutorService pool     = Executors.newFixedThreadPool(8);
+		List<Future<?>> workers  = new ArrayList<Future<?>>();
+		for (int w = 0; w < 8; w++) {
+			workers.add(pool.submit(() -> {
+				ThreadLocalRandom random = ThreadLocalRandom.current();
+				for (int i = 0; i < 5000; i++) {
+					List<String> inputs = Arrays.asList(hashs.get(random.nextInt(outputs)), hashs.get(random.nextInt(outputs)), hashs.get(random.nextInt(outputs)));
+					List<TransactionOutput> result = utxoService.spend(inputs);
+					if ( result != null ) {
+						result.forEach(o -> {
+							if ( !spent.add(o.getHash()) ) {
+								failures.incrementAndGet();
+							}
+						});
+					}
+				}
+			}));
+		}
+		for (Future<?> worker : workers) {
+			worker.get();
+		}
+		pool.shutdown();
+
+		assertEquals("Outputs spent twice", 0, failures.get());
+		assertEquals("Every output is either spent or still unspent", outputs, spent.size() + utxoService.listTransactions().size());
+	}
+
+	@Test
+	public void outputsGivenBackWhileSpentKeepTheOwnerIndex() throws Exception {
+		UTXOService  utxoService = new UTXOService();
+		int          outputs     = 200;
+		List<String> hashs       = new ArrayList<String>();
+		for (int i = 0; i < outputs; i++) {
+			hashs.add("output-" + i);
+			utxoService.addTransaction(output("output-" + i));
+		}
+
+		// Half of the workers give back what they spend (a payment refused, as CurrencyBlockChain.returnToUTXOs), the others keep it
+		ExecutorService pool    = Executors.newFixedThreadPool(8);
+		List<Future<?>> workers = new ArrayList<Future<?>>();
+		for (int w = 0; w < 8; w++) {
+			boolean giveBack = w % 2 == 0;
+			workers.add(pool.submit(() -> {
+				ThreadLocalRandom random = ThreadLocalRandom.current();
+				for (int i = 0; i < 20000; i++) {
+					List<TransactionOutput> result = utxoService.spend(Arrays.asList(hashs.get(random.nextInt(outputs))));
+					if ( result != null && (giveBack || random.nextInt(50) > 0) ) {
+						utxoService.addTransaction(result.get(0));
+					}
+				}
+			}));
+		}
+		for (Future<?> worker : workers) {
+			worker.get();
+		}
+		pool.shutdown();
+
+		Set<String> unspent = utxoService.listTransactions().stream().map(Map.Entry::getKey).collect(Collectors.toSet());
+		Set<String> owned   = utxoService.listTransactions(OWNER.getKeyIdentity()).stream().map(TransactionOutput::getHash).collect(Collectors.toSet());
+		assertEquals("No output spent left in the index of its owner", unspent, owned);
+		assertEquals(BigDecimal.TEN.multiply(new BigDecimal(unspent.size())), utxoService.getBalance(OWNER.getKeyIdentity()));
+	}
+
+	@Test
+	public void outputsAndBalanceByOwner() throws Exception {
+		UTXOService utxoService = new UTXOService();
+		Wallet      jane        = wallet("jane");
+		Wallet      john        = wallet("john");
+		utxoService.addTransaction(new TransactionOutput("a", jane, BigDecimal.TEN, "parent"));
+		utxoService.addTransaction(new TransactionOutput("b", john, BigDecimal.ONE, "parent"));
+		utxoService.addTransaction(new TransactionOutput("c", jane, BigDecimal.ONE, "parent"));
+
+		utxoService.spend(Arrays.asList("c"));
+		assertEquals(Arrays.asList("a"), utxoService.listTransactions(jane.getKeyIdentity()).stream().map(TransactionOutput::getHash).collect(Collectors.toList()));
+		assertEquals(1, utxoService.listTransactions(john.getKeyIdentity()).size());
+		assertEquals(0, utxoService.listTransactions(wallet("nobody").getKeyIdentity()).size());
+		assertEquals("Balance kept as the outputs are spent", BigDecimal.TEN, utxoService.getBalance(jane.getKeyIdentity()));
+		assertEquals(BigDecimal.ZERO, utxoService.getBalance(wallet("nobody").getKeyIdentity()));
+
+		// The same key, another instance (e.g. Jane's Wallet restored from disk), the same owner
+		Wallet janeAgain = wallet("jane", jane.getPublicKey().getEncoded());
+		assertEquals(BigDecimal.TEN, utxoService.getBalance(janeAgain.getKeyIdentity()));
+		assertTrue(utxoService.getTransaction("a").isMine(janeAgain.getKeyIdentity()));
+	}
+
+	private static TransactionOutput output(String hash) {
+		return new TransactionOutput(hash, OWNER, BigDecimal.TEN, "parent");
+	}
+
+}
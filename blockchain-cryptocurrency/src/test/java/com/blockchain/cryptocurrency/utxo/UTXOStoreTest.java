@@ -0,0 +1,133 @@
+package com.blockchain.cryptocurrency.utxo;
+
+import static com.blockchain.cryptocurrency.TestWallets.wallet;
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.blockchain.cryptocurrency.TestWallets;
+import com.blockchain.cryptocurrency.transaction.TransactionOutput;
+import com.blockchain.cryptocurrency.wallet.Wallet;
+
+public class UTXOStoreTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private final Wallet jane = wallet("jane");
+
+	@Test
+	public void snapshotAndJournalRecovery() {
+		Path                          directory = folder.getRoot().toPath();
+		Map<String,TransactionOutput> expected  = new TreeMap<String,TransactionOutput>();
+		UTXOStore                     store     = new UTXOStore(directory, TestWallets::wallet);
+		assertEquals(-1, store.recover(o -> {}, h -> {}));
+
+		for (int height = 0; height < 10; height++) {
+			add(store, expected, output(height * 2));
+			add(store, expected, output(height * 2 + 1));
+			if ( height > 0 ) {
+				store.spend(hash(height * 2 - 1));
+				expected.remove(hash(height * 2 - 1));
+			}
+			store.commitBlock(height);
+			if ( height % 4 == 0 && height > 0 ) {
+				store.rotateJournal(height);
+				store.writeSnapshot(height, new ArrayList<TransactionOutput>(expected.values()));
+			}
+		}
+		add(store, expected, output(100));
+		store.commitBlock(10);
+		// Changes after the last Block are journaled, but they are of no Block added
+		store.add(output(101));
+		store.close();
+
+		Map<String,TransactionOutput> recovered = new TreeMap<String,TransactionOutput>();
+		store = new UTXOStore(directory, TestWallets::wallet);
+		assertEquals(10, store.recover(o -> recovered.put(o.getHash(), o), recovered::remove));
+		assertEquals(expected.keySet(), recovered.keySet());
+		assertEquals("In its canonical form", new BigDecimal("100.5"), recovered.get(hash(100)).getValue());
+		assertEquals("jane", recovered.get(hash(100)).getRecipient().getOwner());
+		store.close();
+	}
+
+	@Test
+	public void tornJournalRecordIsCut() throws IOException {
+		Path      directory = folder.getRoot().toPath();
+		UTXOStore store     = new UTXOStore(directory, TestWallets::wallet);
+		store.recover(o -> {}, h -> {});
+		store.add(output(1));
+		store.commitBlock(0);
+		store.add(output(2));
+		store.close();
+
+		Path journal = Files.list(directory).filter(f -> f.toString().endsWith(".journal")).findFirst().get();
+		try (FileChannel channel = FileChannel.open(journal, StandardOpenOption.WRITE)) {
+			channel.truncate(channel.size() - 5);
+		}
+
+		Map<String,TransactionOutput> recovered = new TreeMap<String,TransactionOutput>();
+		store = new UTXOStore(directory, TestWallets::wallet);
+		assertEquals(0, store.recover(o -> recovered.put(o.getHash(), o), recovered::remove));
+		assertEquals(1, recovered.size());
+		store.add(output(3));
+		store.close();
+	}
+
+	@Test
+	public void changesAfterTheLastBlockAreCut() {
+		Path      directory = folder.getRoot().toPath();
+		UTXOStore store     = new UTXOStore(directory, TestWallets::wallet);
+		store.recover(o -> {}, h -> {});
+		store.add(output(1));
+		store.commitBlock(0);
+		store.add(output(2));
+		store.spend(hash(1));
+		store.close();
+
+		Map<String,TransactionOutput> recovered = new TreeMap<String,TransactionOutput>();
+		store = new UTXOStore(directory, TestWallets::wallet);
+		assertEquals(0, store.recover(o -> recovered.put(o.getHash(), o), recovered::remove));
+		assertEquals(Collections.singleton(hash(1)), recovered.keySet());
+
+		// Cut from the journal, the next Block follows the mark of the last one
+		store.add(output(3));
+		store.commitBlock(1);
+		store.close();
+		recovered.clear();
+		store = new UTXOStore(directory, TestWallets::wallet);
+		assertEquals(1, store.recover(o -> recovered.put(o.getHash(), o), recovered::remove));
+		assertEquals(new TreeSet<String>(Arrays.asList(hash(1), hash(3))), recovered.keySet());
+		store.close();
+	}
+
+	private void add(UTXOStore store, Map<String,TransactionOutput> expected, TransactionOutput output) {
+		store.add(output);
+		expected.put(output.getHash(), output);
+	}
+
+	private TransactionOutput output(int i) {
+		return new TransactionOutput(hash(i), jane, new BigDecimal("100.50"), hash(-i));
+	}
+
+	private static String hash(int i) {
+		return DigestUtils.sha256Hex("output " + i);
+	}
+
+}